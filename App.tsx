@@ -17,14 +17,45 @@ import {
   Dimensions
 } from 'react-native';
 import { SafeAreaProvider, SafeAreaView } from 'react-native-safe-area-context';
+import TimerStateModule from './specs/NativeTimerState';
 
 const DEFAULT_TIMER_DURATION = 15; // 15 minutes default
 const MAX_MINUTES = 60;
-const PRESET_MINUTES = [15, 20, 30, 45, 60];
+// Used only until the native settings are read (legacy bridge) or if there is no native module
+const DEFAULT_PRESET_MINUTES = [15, 20, 30, 45, 60];
+
+// Snapshot emitted by the native timer on every transition (TimerStateChanged)
+type NativeTimerState = {
+  state: 'idle' | 'running' | 'paused';
+  remainingMs: number;
+  durationMs: number;
+  generation: number;
+};
 
 // Simple in-memory storage for the last selected timer duration
 let lastSelectedDuration = DEFAULT_TIMER_DURATION;
 
+// The duration is persisted natively; the TurboModule can answer before the first render
+function readInitialDuration() {
+  return TimerStateModule ? TimerStateModule.getTimerDurationMinutes() : lastSelectedDuration;
+}
+
+function readInitialPresets() {
+  return TimerStateModule ? TimerStateModule.getPresetMinutes() : DEFAULT_PRESET_MINUTES;
+}
+
+// Prefers the synchronous TurboModule; the legacy bridge module is the fallback
+function startAudible(context: string) {
+  if (TimerStateModule) {
+    TimerStateModule.startAudible();
+    console.log('Audible start requested', context);
+  } else if (NativeModules.MediaButtonEvent) {
+    NativeModules.MediaButtonEvent.startAudible()
+      .then((message: string) => console.log('Audible started', context + ':', message))
+      .catch((error: any) => console.error('Failed to start Audible:', error));
+  }
+}
+
 function formatTime(seconds: number) {
   const m = Math.floor(seconds / 60).toString().padStart(2, '0');
   const s = (seconds % 60).toString().padStart(2, '0');
@@ -42,12 +73,20 @@ function formatMinutes(minutes: number) {
 }
 
 const App = () => {
-  const [timerMinutes, setTimerMinutes] = useState(lastSelectedDuration);
-  const [inputValue, setInputValue] = useState(lastSelectedDuration.toString());
-  const [timer, setTimer] = useState(lastSelectedDuration * 60);
+  const [initialMinutes] = useState(readInitialDuration);
+  const [timerMinutes, setTimerMinutes] = useState(initialMinutes);
+  const [inputValue, setInputValue] = useState(initialMinutes.toString());
+  const [timer, setTimer] = useState(initialMinutes * 60);
+  const [presets, setPresets] = useState<number[]>(readInitialPresets);
   const [running, setRunning] = useState(false);
   const [paused, setPaused] = useState(false);
-  const intervalRef = useRef<number | null>(null);
+  const intervalRef = useRef<ReturnType<typeof setInterval> | null>(null);
+  const deadlineRef = useRef<number | null>(null);
+  const lastGenerationRef = useRef(0);
+  const timerMinutesRef = useRef(timerMinutes);
+  const runningRef = useRef(running);
+  // Until the legacy module has reported the saved duration, don't overwrite it with the default
+  const durationLoadedRef = useRef(TimerStateModule != null);
   const sliderWidth = Dimensions.get('window').width - 80; // Account for padding
 
   // Update the last selected duration whenever timerMinutes changes
@@ -79,21 +118,69 @@ const App = () => {
     setInputValue(finalValue.toString());
   };
 
-  // Listen for hardware media button events
+  // Apply a native timer snapshot. Native emits only on transitions; the countdown in between is
+  // interpolated locally from remainingMs, so there is no per-second bridge traffic.
+  const applyNativeState = (snapshot: NativeTimerState) => {
+    if (snapshot.generation < lastGenerationRef.current) {
+      return; // Out-of-order delivery of an older transition
+    }
+    lastGenerationRef.current = snapshot.generation;
+    const remainingSeconds = Math.ceil(snapshot.remainingMs / 1000);
+
+    if (snapshot.state === 'running') {
+      deadlineRef.current = performance.now() + snapshot.remainingMs;
+      setTimer(remainingSeconds);
+      setPaused(false);
+      setRunning(true);
+    } else if (snapshot.state === 'paused') {
+      deadlineRef.current = null;
+      setTimer(remainingSeconds);
+      setRunning(false);
+      setPaused(true);
+    } else {
+      deadlineRef.current = null;
+      setRunning(false);
+      setPaused(false);
+      setTimer(timerMinutesRef.current * 60); // Reset to original duration
+    }
+  };
+
+  // Listen for native timer transitions and pick up the current state once on mount
   useEffect(() => {
     const mediaButtonEventEmitter = new NativeEventEmitter(NativeModules.MediaButtonEvent);
-    const subscription = mediaButtonEventEmitter.addListener('MediaButtonPlayPressed', () => {
-      console.log('Hardware play button pressed - starting timer');
-      // Only start if not already running to prevent double timers
-      if (!running) {
-        setTimer(timerMinutes * 60);
-        setRunning(true);
-      } else {
-        console.log('Timer already running, ignoring hardware button press');
-      }
+    const subscription = mediaButtonEventEmitter.addListener('TimerStateChanged', (snapshot: NativeTimerState) => {
+      console.log('Native timer state changed:', snapshot.state, 'generation:', snapshot.generation);
+      applyNativeState(snapshot);
     });
+    if (TimerStateModule) {
+      // Synchronous JSI read, so the first render after mount already shows the native state
+      applyNativeState(TimerStateModule.getSnapshot() as NativeTimerState);
+    } else if (NativeModules.MediaButtonEvent) {
+      NativeModules.MediaButtonEvent.getTimerState()
+        .then(applyNativeState)
+        .catch((error: any) => console.warn('Failed to read native timer state:', error));
+    }
     return () => subscription.remove();
-  }, [timerMinutes, running]);
+  }, []);
+
+  // The legacy bridge has no synchronous getters: load the saved settings once on mount
+  useEffect(() => {
+    if (TimerStateModule || !NativeModules.TimerConfig) {
+      durationLoadedRef.current = true;
+      return;
+    }
+    NativeModules.TimerConfig.getConfig()
+      .then((config: { durationMinutes: number; presetMinutes: number[] }) => {
+        durationLoadedRef.current = true;
+        setPresets(config.presetMinutes);
+        setTimerMinutes(config.durationMinutes);
+        setInputValue(config.durationMinutes.toString());
+      })
+      .catch((error: any) => {
+        durationLoadedRef.current = true;
+        console.warn('Failed to read timer config:', error);
+      });
+  }, []);
 
   // Listen for app close events
   useEffect(() => {
@@ -110,50 +197,6 @@ const App = () => {
     return () => subscription.remove();
   }, []);
 
-  // Listen for native timer completion events
-  useEffect(() => {
-    const mediaButtonEventEmitter = new NativeEventEmitter(NativeModules.MediaButtonEvent);
-    const subscription = mediaButtonEventEmitter.addListener('TimerCompleted', () => {
-      console.log('Native timer completed - stopping UI timer');
-      setRunning(false);
-      setPaused(false);
-      setTimer(timerMinutes * 60); // Reset to original duration
-    });
-    return () => subscription.remove();
-  }, [timerMinutes]);
-
-  // Listen for native timer pause events
-  useEffect(() => {
-    const mediaButtonEventEmitter = new NativeEventEmitter(NativeModules.MediaButtonEvent);
-    const subscription = mediaButtonEventEmitter.addListener('TimerPaused', () => {
-      console.log('Native timer paused - pausing UI timer');
-      setPaused(true);
-      setRunning(false); // Stop the UI countdown
-    });
-    return () => subscription.remove();
-  }, []);
-
-  // Listen for native timer resume events
-  useEffect(() => {
-    const mediaButtonEventEmitter = new NativeEventEmitter(NativeModules.MediaButtonEvent);
-    const subscription = mediaButtonEventEmitter.addListener('TimerResumed', () => {
-      console.log('Native timer resumed - resuming UI timer');
-      setPaused(false);
-      setRunning(true); // Resume the UI countdown
-    });
-    return () => subscription.remove();
-  }, []);
-
-  // Listen for native timer update events
-  useEffect(() => {
-    const mediaButtonEventEmitter = new NativeEventEmitter(NativeModules.MediaButtonEvent);
-    const subscription = mediaButtonEventEmitter.addListener('TimerUpdated', (newDurationSeconds: number) => {
-      console.log('Native timer updated with new duration:', newDurationSeconds);
-      setTimer(newDurationSeconds); // Update UI timer to new duration
-    });
-    return () => subscription.remove();
-  }, []);
-
   // Listen for notification preset selection events
   useEffect(() => {
     const mediaButtonEventEmitter = new NativeEventEmitter(NativeModules.MediaButtonEvent);
@@ -168,70 +211,54 @@ const App = () => {
 
   // Update native timer duration whenever timerMinutes changes
   useEffect(() => {
-    if (NativeModules.TimerConfig) {
+    timerMinutesRef.current = timerMinutes;
+    if (!durationLoadedRef.current) {
+      return;
+    }
+    if (TimerStateModule) {
+      TimerStateModule.setTimerDuration(timerMinutes);
+    } else if (NativeModules.TimerConfig) {
       NativeModules.TimerConfig.setTimerDuration(timerMinutes)
         .then((message: string) => console.log(message))
         .catch((error: any) => console.error('Failed to set timer duration:', error));
     }
-    
-    // If timer is currently running, restart it with the new duration
-    if (running) {
+
+    // A running timer restarts with the new duration; a native one also confirms via TimerStateChanged
+    if (runningRef.current) {
       console.log('Timer is running - restarting with new duration:', timerMinutes, 'minutes');
-      setTimer(timerMinutes * 60); // Update UI timer to new duration
-      // The native timer will be automatically updated via TimerConfigModule.setTimerDuration
-    } else if (!paused) {
-      // If timer is not running and not paused, update the display to show new duration
+      deadlineRef.current = performance.now() + timerMinutes * 60 * 1000;
+      setTimer(timerMinutes * 60);
+    }
+  }, [timerMinutes]);
+
+  // If timer is not running and not paused, show the selected duration
+  useEffect(() => {
+    runningRef.current = running;
+    if (!running && !paused) {
       setTimer(timerMinutes * 60);
     }
   }, [timerMinutes, running, paused]);
 
-  // Handle timer countdown
+  // Local countdown, interpolated from the last known deadline
   useEffect(() => {
-    if (running && timer > 0) {
-      // Sync with native timer every second
-      const syncTimer = () => {
-        if (NativeModules.MediaButtonEvent) {
-          NativeModules.MediaButtonEvent.getRemainingTime()
-            .then((result: any) => {
-              const { remainingSeconds, isRunning, isPaused } = result;
-              console.log('Native timer sync - remaining:', remainingSeconds, 'running:', isRunning, 'paused:', isPaused);
-              
-              // Update UI to match native timer state
-              setTimer(Math.max(0, remainingSeconds));
-              
-              // Handle state mismatches
-              if (!isRunning && !isPaused && running) {
-                // Native timer stopped, but UI thinks it's running
-                console.log('Native timer stopped - stopping UI timer');
-                setRunning(false);
-                setPaused(false);
-              } else if (isPaused && running) {
-                // Native timer paused, but UI thinks it's running
-                console.log('Native timer paused - pausing UI timer');
-                setRunning(false);
-                setPaused(true);
-              }
-            })
-            .catch((error: any) => {
-              console.warn('Failed to sync with native timer:', error);
-              // Fall back to local countdown if native sync fails
-              setTimer(t => t > 0 ? t - 1 : 0);
-            });
-        } else {
-          // Fall back to local countdown if native module not available
-          setTimer(t => t > 0 ? t - 1 : 0);
-        }
-      };
-      
-      // Start syncing immediately, then every second
-      syncTimer();
-      intervalRef.current = setInterval(syncTimer, 1000);
-    } else if (!running && intervalRef.current) {
-      clearInterval(intervalRef.current);
-      intervalRef.current = null;
+    if (!running) {
+      return;
+    }
+    if (deadlineRef.current === null) {
+      deadlineRef.current = performance.now() + timer * 1000;
     }
+    const tick = () => {
+      if (deadlineRef.current !== null) {
+        const remainingMs = Math.max(0, deadlineRef.current - performance.now());
+        setTimer(Math.ceil(remainingMs / 1000));
+      }
+    };
+    intervalRef.current = setInterval(tick, 1000);
     return () => {
-      if (intervalRef.current) clearInterval(intervalRef.current);
+      if (intervalRef.current) {
+        clearInterval(intervalRef.current);
+        intervalRef.current = null;
+      }
     };
   }, [running]);
 
@@ -257,33 +284,43 @@ const App = () => {
     setInputValue(minutes.toString());
   };
 
+  // Long-press replaces a preset with the current duration; the notification uses the same list
+  const handlePresetLongPress = (index: number) => {
+    if (presets.includes(timerMinutes)) {
+      return;
+    }
+    const updated = presets.map((minutes, i) => (i === index ? timerMinutes : minutes));
+    setPresets(updated);
+    if (TimerStateModule) {
+      TimerStateModule.setPresetMinutes(updated);
+    } else if (NativeModules.TimerConfig) {
+      NativeModules.TimerConfig.setPresetMinutes(updated)
+        .catch((error: any) => console.error('Failed to save presets:', error));
+    }
+  };
+
   const handleStartStop = () => {
     if (running) {
+      deadlineRef.current = null;
       setRunning(false);
       setPaused(false);
       setTimer(timerMinutes * 60);
     } else if (paused) {
       // Resume from paused state
+      deadlineRef.current = performance.now() + timer * 1000;
       setPaused(false);
       setRunning(true);
       
       // Trigger Audible to resume playing
-      if (NativeModules.MediaButtonEvent) {
-        NativeModules.MediaButtonEvent.startAudible()
-          .then((message: string) => console.log('Audible resumed from paused state:', message))
-          .catch((error: any) => console.error('Failed to resume Audible:', error));
-      }
+      startAudible('from paused state');
     } else {
+      deadlineRef.current = performance.now() + timerMinutes * 60 * 1000;
       setTimer(timerMinutes * 60);
       setRunning(true);
       setPaused(false);
       
       // Trigger Audible to start playing when start button is pressed
-      if (NativeModules.MediaButtonEvent) {
-        NativeModules.MediaButtonEvent.startAudible()
-          .then((message: string) => console.log('Audible started from start button:', message))
-          .catch((error: any) => console.error('Failed to start Audible:', error));
-      }
+      startAudible('from start button');
     }
   };
 
@@ -343,7 +380,7 @@ const App = () => {
           <View style={styles.presetsContainer}>
             <Text style={styles.presetsTitle}>Quick Select</Text>
             <View style={styles.presetsGrid}>
-              {PRESET_MINUTES.map((minutes) => (
+              {presets.map((minutes, index) => (
                 <TouchableOpacity
                   key={minutes}
                   style={[
@@ -351,6 +388,7 @@ const App = () => {
                     timerMinutes === minutes && styles.presetButtonActive
                   ]}
                   onPress={() => handlePresetPress(minutes)}
+                  onLongPress={() => handlePresetLongPress(index)}
                 >
                   <Text style={[
                     styles.presetButtonText,
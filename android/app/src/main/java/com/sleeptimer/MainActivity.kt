@@ -19,39 +19,61 @@ class MainActivity : ReactActivity() {
    */
   override fun createReactActivityDelegate(): ReactActivityDelegate =
       DefaultReactActivityDelegate(this, mainComponentName, fabricEnabled)
+
+  override fun onCreate(savedInstanceState: android.os.Bundle?) {
+    (application as MainApplication).ensureReactNativeLoaded()
+    super.onCreate(savedInstanceState)
+  }
       
-  // Volume button double-press detection
-  private var lastVolumeDownTime = 0L
-  private val doublePressDuration = 500L // 500ms for double-press detection
+  // Volume button double-press detection, shared with MediaButtonReceiver
+  private var volumeDownGesture = com.sleeptimer.timer.KeyGestureRecognizer.NONE
+  private var volumeDownGestures: com.sleeptimer.timer.KeyGestureRecognizer? = null
+  private var volumeDownWindowMs = 0L
+
+  // Rebuilt when the double-press window changed in settings; a press in progress starts over
+  private fun volumeDownGestures(): com.sleeptimer.timer.KeyGestureRecognizer {
+    val windowMs = com.sleeptimer.service.TimerConfigStore.get().doublePressIntervalMs
+    val current = volumeDownGestures
+    if (current != null && windowMs == volumeDownWindowMs) {
+      return current
+    }
+    volumeDownWindowMs = windowMs
+    return com.sleeptimer.timer.KeyGestureRecognizer(
+        com.sleeptimer.timer.KeyGestureRecognizer.DOUBLE, windowMs, 0) { gesture, _ -> volumeDownGesture = gesture }
+        .also { volumeDownGestures = it }
+  }
   
   override fun onKeyDown(keyCode: Int, event: android.view.KeyEvent?): Boolean {
-    if (keyCode == android.view.KeyEvent.KEYCODE_VOLUME_DOWN) {
-      val currentTime = System.currentTimeMillis()
-      val timeSinceLastPress = currentTime - lastVolumeDownTime
+    if (keyCode == android.view.KeyEvent.KEYCODE_VOLUME_DOWN && event != null) {
+      volumeDownGesture = com.sleeptimer.timer.KeyGestureRecognizer.NONE
+      volumeDownGestures().onKeyDown(event.eventTime, event.repeatCount, android.os.SystemClock.uptimeMillis())
       
-      android.util.Log.d("MainActivity", "Volume down pressed, time since last press: ${timeSinceLastPress}ms")
-      
-      if (timeSinceLastPress <= doublePressDuration && lastVolumeDownTime > 0) {
+      if (volumeDownGesture == com.sleeptimer.timer.KeyGestureRecognizer.DOUBLE) {
         // Double-press detected - go to previous chapter
-        android.util.Log.d("MainActivity", "Double-press detected - going to previous chapter in Audible")
-        com.sleeptimer.service.MediaButtonReceiver.triggerPreviousChapter(this)
-        lastVolumeDownTime = 0 // Reset to prevent triple-press detection
+        if (BuildConfig.TIMER_PROCESS_ENABLED) {
+          com.sleeptimer.service.TimerServiceClient.previousChapter()
+        } else {
+          com.sleeptimer.service.MediaButtonReceiver.triggerPreviousChapter(this)
+        }
         return true // Consume the event to prevent volume change
-      } else {
-        // Single press - record time and allow normal volume behavior
-        android.util.Log.d("MainActivity", "Single volume down press - waiting for potential double-press")
-        lastVolumeDownTime = currentTime
-        return super.onKeyDown(keyCode, event) // Allow normal volume behavior
       }
+      // Single press - allow normal volume behavior
+      return super.onKeyDown(keyCode, event)
     }
     return super.onKeyDown(keyCode, event)
   }
+
+  override fun onKeyUp(keyCode: Int, event: android.view.KeyEvent?): Boolean {
+    if (keyCode == android.view.KeyEvent.KEYCODE_VOLUME_DOWN && event != null) {
+      volumeDownGestures?.onKeyUp(event.eventTime, android.os.SystemClock.uptimeMillis())
+    }
+    return super.onKeyUp(keyCode, event)
+  }
   override fun onResume() {
     super.onResume()
     android.util.Log.d("MainActivity", "onResume called")
     if (checkNotificationPermission()) {
       startSleepTimerService()
-      registerPauseReceiver()
     }
   }
   
@@ -80,7 +102,6 @@ class MainActivity : ReactActivity() {
     if (requestCode == NOTIFICATION_PERMISSION_REQUEST_CODE) {
       if (grantResults.isNotEmpty() && grantResults[0] == android.content.pm.PackageManager.PERMISSION_GRANTED) {
         startSleepTimerService()
-        registerPauseReceiver()
       }
     }
   }
@@ -115,19 +136,4 @@ class MainActivity : ReactActivity() {
       }
     }
   }
-
-  private fun registerPauseReceiver() {
-    try {
-      val filter = android.content.IntentFilter("com.sleeptimer.PAUSE_AUDIBLE")
-      val receiver = com.sleeptimer.service.PauseAudibleReceiver()
-      if (android.os.Build.VERSION.SDK_INT >= 34) {
-        registerReceiver(receiver, filter, android.content.Context.RECEIVER_NOT_EXPORTED)
-      } else {
-        registerReceiver(receiver, filter)
-      }
-      android.util.Log.d("MainActivity", "PauseAudibleReceiver registered")
-    } catch (e: Exception) {
-      android.util.Log.e("MainActivity", "Error registering receiver", e)
-    }
-  }
 }
@@ -19,6 +19,7 @@ class MainApplication : Application(), ReactApplication {
               // Packages that cannot be autolinked yet can be added manually here, for example:
               add(MediaButtonEventPackage())
               add(MediaControlPackage())
+              add(TimerStatePackage())
             }
 
         override fun getJSMainModuleName(): String = "index"
@@ -30,32 +31,27 @@ class MainApplication : Application(), ReactApplication {
       }
 
   override val reactHost: ReactHost
-    get() = getDefaultReactHost(applicationContext, reactNativeHost)
+    get() {
+      ensureReactNativeLoaded()
+      return getDefaultReactHost(applicationContext, reactNativeHost)
+    }
+
+  // React Native is loaded on first use by an Activity or JS-facing module, not in onCreate, so a
+  // process started only to handle a headset button goes straight to the receiver
+  private var reactNativeLoaded = false
+
+  fun ensureReactNativeLoaded() {
+    if (!reactNativeLoaded) {
+      reactNativeLoaded = true
+      loadReactNative(this)
+    }
+  }
 
   override fun onCreate() {
     super.onCreate()
-    loadReactNative(this)
-    createNotificationChannel()
-  }
-  
-  private fun createNotificationChannel() {
-    if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.O) {
-      try {
-        val channelId = "SleepTimerForegroundService"
-        val channel = android.app.NotificationChannel(
-          channelId,
-          "Sleep Timer Foreground Service",
-          android.app.NotificationManager.IMPORTANCE_DEFAULT
-        ).apply {
-          description = "Shows when the sleep timer is running"
-          setShowBadge(false)
-        }
-        
-        val notificationManager = getSystemService(android.content.Context.NOTIFICATION_SERVICE) as android.app.NotificationManager
-        notificationManager.createNotificationChannel(channel)
-      } catch (e: Exception) {
-        android.util.Log.e("MainApplication", "Error creating notification channel", e)
-      }
-    }
+    // The notification channel is created by ForegroundService when it first starts
+    // Starts reading the settings on the IO thread; a receiver or service that needs them before
+    // that finishes reads the file itself, once
+    com.sleeptimer.service.TimerConfigStore.init(this)
   }
 }
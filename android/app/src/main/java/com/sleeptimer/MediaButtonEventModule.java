@@ -1,20 +1,34 @@
 package com.sleeptimer;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
-import com.facebook.react.modules.core.DeviceEventManagerModule.RCTDeviceEventEmitter;
 import com.sleeptimer.service.MediaButtonReceiver;
+import com.sleeptimer.service.SessionHistoryStore;
+import com.sleeptimer.service.TimerLog;
+import com.sleeptimer.service.TimerServiceClient;
+import com.sleeptimer.timer.SessionAggregator;
+import com.sleeptimer.timer.TimerEventSink;
+import com.sleeptimer.timer.TimerEvents;
+import com.sleeptimer.timer.TimerSnapshot;
+import java.util.List;
 
-public class MediaButtonEventModule extends ReactContextBaseJavaModule {
+public class MediaButtonEventModule extends ReactContextBaseJavaModule implements TimerEventSink {
     public static final String REACT_CLASS = "MediaButtonEvent";
-    private static ReactApplicationContext reactContext;
+    private static final String[] STATE_NAMES = {"idle", "running", "paused"};
+    private final ReactApplicationContext reactContext;
 
     public MediaButtonEventModule(ReactApplicationContext context) {
         super(context);
         reactContext = context;
+        if (BuildConfig.TIMER_PROCESS_ENABLED) {
+            TimerServiceClient.connect(context, this);
+        }
     }
 
     @Override
@@ -35,8 +49,11 @@ public class MediaButtonEventModule extends ReactContextBaseJavaModule {
     @ReactMethod
     public void startAudible(Promise promise) {
         try {
-            android.util.Log.d("MediaButtonEventModule", "startAudible called from React Native");
-            MediaButtonReceiver.triggerStartAudible(reactContext);
+            if (BuildConfig.TIMER_PROCESS_ENABLED) {
+                TimerServiceClient.startAudible();
+            } else {
+                MediaButtonReceiver.triggerStartAudible(reactContext);
+            }
             promise.resolve("Audible started successfully");
         } catch (Exception e) {
             android.util.Log.e("MediaButtonEventModule", "Error starting Audible", e);
@@ -54,7 +71,7 @@ public class MediaButtonEventModule extends ReactContextBaseJavaModule {
             reactContext.stopService(serviceIntent);
             
             // Emit close event to JavaScript so it can finish properly
-            sendCloseAppEvent();
+            onCloseAppRequested();
             
             // Close the main activity after a short delay to allow JS cleanup
             new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
@@ -78,14 +95,20 @@ public class MediaButtonEventModule extends ReactContextBaseJavaModule {
         }
     }
 
+    @ReactMethod
+    public void getTimerState(Promise promise) {
+        promise.resolve(toMap(currentSnapshot()));
+    }
+
     @ReactMethod
     public void getRemainingTime(Promise promise) {
         try {
-            long remainingSeconds = MediaButtonReceiver.getRemainingTimeSeconds();
-            boolean isRunning = MediaButtonReceiver.isTimerRunning();
-            boolean isPaused = MediaButtonReceiver.isTimerPaused();
+            TimerSnapshot snapshot = currentSnapshot();
+            long remainingSeconds = snapshot.remainingAt(android.os.SystemClock.elapsedRealtime()) / 1000;
+            boolean isRunning = snapshot.isActive();
+            boolean isPaused = snapshot.isPaused();
             
-            android.util.Log.d("MediaButtonEventModule", "getRemainingTime called - remaining: " + remainingSeconds + "s, running: " + isRunning + ", paused: " + isPaused);
+            TimerLog.record(TimerLog.JS_QUERY, remainingSeconds * 1000);
             
             // Return an object with remaining time and timer state
             com.facebook.react.bridge.WritableMap result = com.facebook.react.bridge.Arguments.createMap();
@@ -100,87 +123,103 @@ public class MediaButtonEventModule extends ReactContextBaseJavaModule {
         }
     }
 
-    public static void sendPlayButtonEvent() {
-        android.util.Log.d("MediaButtonEventModule", "sendPlayButtonEvent called. reactContext is " + (reactContext == null ? "null" : "not null"));
-        if (reactContext != null) {
-            reactContext
-                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-                .emit("MediaButtonPlayPressed", null);
-            android.util.Log.d("MediaButtonEventModule", "MediaButtonPlayPressed event emitted to JS");
-        } else {
-            android.util.Log.e("MediaButtonEventModule", "Cannot emit event: reactContext is null");
-        }
+    // Recent timer events as text, oldest first, for attaching to a bug report. In timer-process
+    // mode this is the UI process's log; the timer process keeps its own
+    @ReactMethod
+    public void getEventLog(Promise promise) {
+        promise.resolve(TimerLog.dump());
     }
 
-    public static void sendCloseAppEvent() {
-        android.util.Log.d("MediaButtonEventModule", "sendCloseAppEvent called. reactContext is " + (reactContext == null ? "null" : "not null"));
-        if (reactContext != null) {
-            reactContext
-                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-                .emit("AppCloseRequested", null);
-            android.util.Log.d("MediaButtonEventModule", "AppCloseRequested event emitted to JS");
-        } else {
-            android.util.Log.e("MediaButtonEventModule", "Cannot emit event: reactContext is null");
-        }
+    // Writes the same log to the app's files directory and resolves with the path; written on
+    // the timer's IO thread
+    @ReactMethod
+    public void dumpEventLog(Promise promise) {
+        TimerLog.dumpToFileAsync(reactContext, file -> {
+            if (file != null) {
+                promise.resolve(file.getAbsolutePath());
+            } else {
+                promise.reject("DUMP_EVENT_LOG_ERROR", "Failed to write event log");
+            }
+        });
     }
 
-    public static void sendTimerCompletedEvent() {
-        android.util.Log.d("MediaButtonEventModule", "sendTimerCompletedEvent called. reactContext is " + (reactContext == null ? "null" : "not null"));
-        if (reactContext != null) {
-            reactContext
-                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-                .emit("TimerCompleted", null);
-            android.util.Log.d("MediaButtonEventModule", "TimerCompleted event emitted to JS");
-        } else {
-            android.util.Log.e("MediaButtonEventModule", "Cannot emit event: reactContext is null");
+    /**
+     * Per-night (period "night") or per-week ("week") totals of the timer sessions between two wall
+     * clock times, oldest first. startDay is days since 1970-01-01 in the device's time zone; times
+     * are epoch milliseconds. The history is streamed from disk, never loaded whole.
+     */
+    @ReactMethod
+    public void getSessionHistory(String period, double fromWallMs, double toWallMs, Promise promise) {
+        try {
+            List<SessionAggregator.Period> periods = SessionHistoryStore.query(
+                    reactContext, (long) fromWallMs, (long) toWallMs, "week".equals(period));
+            WritableArray result = Arguments.createArray();
+            for (SessionAggregator.Period entry : periods) {
+                WritableMap map = Arguments.createMap();
+                map.putDouble("startDay", entry.getStartDay());
+                map.putInt("sessions", entry.getSessions());
+                map.putInt("completed", entry.getCompleted());
+                map.putInt("pauses", entry.getPauses());
+                map.putInt("extensions", entry.getExtensions());
+                map.putDouble("listenedMs", entry.getListenedMs());
+                map.putDouble("pausedMs", entry.getPausedMs());
+                map.putInt("confirmedStops", entry.getConfirmedStops());
+                map.putDouble("averageStopLatencyMs", entry.getAverageStopLatencyMs());
+                map.putDouble("firstStartWallMs", entry.getFirstStartWallMs());
+                map.putDouble("lastEndWallMs", entry.getLastEndWallMs());
+                result.pushMap(map);
+            }
+            promise.resolve(result);
+        } catch (Exception e) {
+            android.util.Log.e("MediaButtonEventModule", "Error reading session history", e);
+            promise.reject("SESSION_HISTORY_ERROR", "Failed to read session history: " + e.getMessage());
         }
     }
 
-    public static void sendTimerPausedEvent() {
-        android.util.Log.d("MediaButtonEventModule", "sendTimerPausedEvent called. reactContext is " + (reactContext == null ? "null" : "not null"));
-        if (reactContext != null) {
-            reactContext
-                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-                .emit("TimerPaused", null);
-            android.util.Log.d("MediaButtonEventModule", "TimerPaused event emitted to JS");
-        } else {
-            android.util.Log.e("MediaButtonEventModule", "Cannot emit event: reactContext is null");
-        }
+    // In timer-process mode this is the last state pushed by the service, so no binder call
+    static TimerSnapshot currentSnapshot() {
+        return BuildConfig.TIMER_PROCESS_ENABLED
+                ? TimerServiceClient.getSnapshot()
+                : MediaButtonReceiver.getTimerSnapshot();
     }
 
-    public static void sendTimerResumedEvent() {
-        android.util.Log.d("MediaButtonEventModule", "sendTimerResumedEvent called. reactContext is " + (reactContext == null ? "null" : "not null"));
-        if (reactContext != null) {
-            reactContext
-                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-                .emit("TimerResumed", null);
-            android.util.Log.d("MediaButtonEventModule", "TimerResumed event emitted to JS");
-        } else {
-            android.util.Log.e("MediaButtonEventModule", "Cannot emit event: reactContext is null");
+    @Override
+    public void invalidate() {
+        TimerEvents.unbind(this);
+        if (BuildConfig.TIMER_PROCESS_ENABLED) {
+            TimerServiceClient.disconnect(reactContext, this);
         }
+        super.invalidate();
     }
 
-    public static void sendTimerUpdatedEvent(long newDurationSeconds) {
-        android.util.Log.d("MediaButtonEventModule", "sendTimerUpdatedEvent called with duration: " + newDurationSeconds);
-        if (reactContext != null) {
-            reactContext
-                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-                .emit("TimerUpdated", newDurationSeconds);
-            android.util.Log.d("MediaButtonEventModule", "TimerUpdated event emitted to JS");
-        } else {
-            android.util.Log.e("MediaButtonEventModule", "Cannot emit event: reactContext is null");
-        }
+    @Override
+    public void onTimerStateChanged(TimerSnapshot snapshot) {
+        emit("TimerStateChanged", toMap(snapshot));
+    }
+
+    @Override
+    public void onTimerPresetSelected(int minutes) {
+        emit("TimerPresetSelected", minutes);
     }
-    
-    public static void sendTimerPresetSelectedEvent(int minutes) {
-        android.util.Log.d("MediaButtonEventModule", "sendTimerPresetSelectedEvent called with minutes: " + minutes);
-        if (reactContext != null) {
+
+    // Compact snapshot for JS: it interpolates the countdown locally from remainingMs. The native
+    // deadline is on elapsedRealtime, which JS cannot read, so it is not sent
+    static WritableMap toMap(TimerSnapshot snapshot) {
+        WritableMap map = Arguments.createMap();
+        map.putString("state", STATE_NAMES[snapshot.state.ordinal()]);
+        map.putDouble("remainingMs", snapshot.remainingMs);
+        map.putDouble("durationMs", snapshot.durationMs);
+        map.putDouble("generation", snapshot.generation);
+        return map;
+    }
+
+    private void emit(String eventName, Object data) {
+        if (reactContext != null && reactContext.hasActiveReactInstance()) {
             reactContext
                 .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
-                .emit("TimerPresetSelected", minutes);
-            android.util.Log.d("MediaButtonEventModule", "TimerPresetSelected event emitted to JS");
+                .emit(eventName, data);
         } else {
-            android.util.Log.e("MediaButtonEventModule", "Cannot emit event: reactContext is null");
+            TimerLog.record(TimerLog.JS_EMIT_DROPPED);
         }
     }
 }
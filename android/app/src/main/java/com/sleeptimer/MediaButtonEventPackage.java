@@ -5,6 +5,7 @@ import com.facebook.react.ReactPackage;
 import com.facebook.react.bridge.NativeModule;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.uimanager.ViewManager;
+import com.sleeptimer.timer.TimerEvents;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -14,7 +15,10 @@ public class MediaButtonEventPackage implements ReactPackage {
     @Override
     public List<NativeModule> createNativeModules(@NonNull ReactApplicationContext reactContext) {
     List<NativeModule> modules = new ArrayList<>();
-    modules.add(new MediaButtonEventModule(reactContext));
+    MediaButtonEventModule eventModule = new MediaButtonEventModule(reactContext);
+    // Bind once here so timer code dispatches events without any per-call lookup
+    TimerEvents.bind(eventModule);
+    modules.add(eventModule);
     modules.add(new MediaControlModule(reactContext));
     modules.add(new TimerConfigModule(reactContext));
     return modules;
@@ -7,6 +7,7 @@ import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.sleeptimer.service.PauseAudibleReceiver;
+import com.sleeptimer.service.WakeupCounters;
 
 public class MediaControlModule extends ReactContextBaseJavaModule {
     private static final String TAG = "MediaControlModule";
@@ -24,28 +25,17 @@ public class MediaControlModule extends ReactContextBaseJavaModule {
     public void pauseMediaPlayback() {
         Context context = getReactApplicationContext();
         
-        // Create an explicit intent
+        // One explicit broadcast; PauseAudibleReceiver confirms the pause and retries only if needed.
+        // It may live in the :timer process, where the player's session is being watched
         try {
             Intent explicitIntent = new Intent(context, PauseAudibleReceiver.class);
             explicitIntent.setAction("com.sleeptimer.PAUSE_AUDIBLE");
             explicitIntent.setPackage(context.getPackageName());
             explicitIntent.addFlags(Intent.FLAG_INCLUDE_STOPPED_PACKAGES);
             context.sendBroadcast(explicitIntent);
+            WakeupCounters.count(WakeupCounters.BROADCASTS);
         } catch (Exception e) {
-            // Ignore exception
+            Log.e(TAG, "Failed to request pause", e);
         }
-        
-        // Also send implicit broadcast as backup
-        try {
-            Intent implicitIntent = new Intent("com.sleeptimer.PAUSE_AUDIBLE");
-            implicitIntent.addFlags(Intent.FLAG_INCLUDE_STOPPED_PACKAGES);
-            context.sendBroadcast(implicitIntent);
-        } catch (Exception e) {
-            // Ignore exception
-        }
-
-        // Backup media button broadcast removed to prevent infinite loop
-        // since MediaButtonReceiver is now working properly
-        Log.e(TAG, "!!!!!!!Skipping backup media button broadcast to prevent loop");
     }
-}
\ No newline at end of file
+}
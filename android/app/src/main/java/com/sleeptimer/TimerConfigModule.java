@@ -1,12 +1,21 @@
 package com.sleeptimer;
 
+import android.content.Context;
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.sleeptimer.service.MediaButtonReceiver;
+import com.sleeptimer.service.TimerConfigStore;
+import com.sleeptimer.service.TimerServiceClient;
+import com.sleeptimer.timer.TimerConfig;
+import java.util.function.UnaryOperator;
 
 public class TimerConfigModule extends ReactContextBaseJavaModule {
-    private static int timerDurationSeconds = 15 * 60; // Default 15 minutes in seconds
     
     public TimerConfigModule(ReactApplicationContext reactContext) {
         super(reactContext);
@@ -20,50 +29,112 @@ public class TimerConfigModule extends ReactContextBaseJavaModule {
     @ReactMethod
     public void setTimerDuration(int minutes, Promise promise) {
         try {
-            timerDurationSeconds = minutes * 60;
-            
-            // If timer is currently running, update it with the new duration
-            updateRunningTimer();
-            
+            applyTimerDuration(getReactApplicationContext(), minutes);
             promise.resolve("Timer duration set to " + minutes + " minutes");
         } catch (Exception e) {
             promise.reject("ERROR", "Failed to set timer duration", e);
         }
     }
     
-    private void updateRunningTimer() {
-        try {
-            // Use reflection to call MediaButtonReceiver's updateRunningTimer method
-            Class<?> clazz = Class.forName("com.sleeptimer.service.MediaButtonReceiver");
-            clazz.getMethod("updateRunningTimerDuration", ReactApplicationContext.class)
-                 .invoke(null, getReactApplicationContext());
-        } catch (Exception e) {
-            // Log but don't fail - this just means timer update isn't available
-            android.util.Log.d("TimerConfigModule", "Could not update running timer: " + e.getMessage());
+    // Shared with TimerStateModule: stores the duration and, if the timer is running, updates it
+    static void applyTimerDuration(Context context, int minutes) {
+        UnaryOperator<TimerConfig> change = config -> config.withDurationSeconds(minutes * 60);
+        if (BuildConfig.TIMER_PROCESS_ENABLED) {
+            // The timer and the persisted settings live in the :timer process
+            TimerConfigStore.update(change, false);
+            TimerServiceClient.setTimerDuration(minutes);
+            return;
         }
+        TimerConfigStore.update(change, true);
+        MediaButtonReceiver.updateRunningTimerDuration(context);
     }
 
+    // Shared with TimerStateModule: applies settings other than the duration; returns the result
+    static TimerConfig applyConfig(UnaryOperator<TimerConfig> change) {
+        if (BuildConfig.TIMER_PROCESS_ENABLED) {
+            TimerConfig config = TimerConfigStore.update(change, false);
+            TimerServiceClient.setConfig(config);
+            return config;
+        }
+        return TimerConfigStore.update(change, true);
+    }
+    
     @ReactMethod
     public void getTimerDuration(Promise promise) {
         try {
-            int minutes = timerDurationSeconds / 60;
+            int minutes = getTimerDurationSeconds() / 60;
             promise.resolve(minutes);
         } catch (Exception e) {
             promise.reject("ERROR", "Failed to get timer duration", e);
         }
     }
+
+    // All settings at once: durationMinutes, presetMinutes, doublePressIntervalMs, playerPackages
+    @ReactMethod
+    public void getConfig(Promise promise) {
+        try {
+            TimerConfig config = TimerConfigStore.get();
+            WritableMap map = Arguments.createMap();
+            map.putInt("durationMinutes", config.getDurationSeconds() / 60);
+            map.putArray("presetMinutes", presetArray(config));
+            map.putDouble("doublePressIntervalMs", config.getDoublePressIntervalMs());
+            WritableArray players = Arguments.createArray();
+            for (String packageName : config.getPlayerPackages()) {
+                players.pushString(packageName);
+            }
+            map.putArray("playerPackages", players);
+            promise.resolve(map);
+        } catch (Exception e) {
+            promise.reject("ERROR", "Failed to get timer config", e);
+        }
+    }
+
+    @ReactMethod
+    public void setPresetMinutes(ReadableArray minutes, Promise promise) {
+        try {
+            int[] presets = toIntArray(minutes);
+            promise.resolve(presetArray(applyConfig(config -> config.withPresetMinutes(presets))));
+        } catch (Exception e) {
+            promise.reject("ERROR", "Failed to set presets", e);
+        }
+    }
+
+    @ReactMethod
+    public void setDoublePressInterval(int intervalMs, Promise promise) {
+        try {
+            applyConfig(config -> config.withDoublePressIntervalMs(intervalMs));
+            promise.resolve(intervalMs);
+        } catch (Exception e) {
+            promise.reject("ERROR", "Failed to set double-press interval", e);
+        }
+    }
+
+    // Player apps in priority order; commands go to the first one with an active session
+    @ReactMethod
+    public void setPlayerPackages(ReadableArray packageNames, Promise promise) {
+        try {
+            String[] players = new String[packageNames.size()];
+            for (int i = 0; i < players.length; i++) {
+                players[i] = packageNames.getString(i);
+            }
+            applyConfig(config -> config.withPlayerPackages(players));
+            promise.resolve(null);
+        } catch (Exception e) {
+            promise.reject("ERROR", "Failed to set player packages", e);
+        }
+    }
     
     // Static method for MediaButtonReceiver to access timer duration
     public static int getTimerDurationSeconds() {
-        return timerDurationSeconds;
+        return TimerConfigStore.get().getDurationSeconds();
     }
     
-    // Static method for notification preset buttons
+    // Static method for notification preset buttons; also how the :timer process receives the UI's duration
     public static void setTimerDurationFromNotification(int minutes) {
         try {
-            timerDurationSeconds = minutes * 60;
+            TimerConfigStore.update(config -> config.withDurationSeconds(minutes * 60), true);
             android.util.Log.d("TimerConfigModule", "Timer duration set to " + minutes + " minutes from notification");
-            
+
             // Update running timer if active
             updateRunningTimerStatic();
         } catch (Exception e) {
@@ -71,16 +142,24 @@ public class TimerConfigModule extends ReactContextBaseJavaModule {
         }
     }
     
-    private static void updateRunningTimerStatic() {
-        try {
-            // Use reflection to call MediaButtonReceiver's updateRunningTimer method
-            Class<?> clazz = Class.forName("com.sleeptimer.service.MediaButtonReceiver");
-            // We need to pass a context, but we don't have access to it here
-            // The MediaButtonReceiver should handle null context gracefully
-            clazz.getMethod("updateRunningTimerDuration", android.content.Context.class)
-                 .invoke(null, (android.content.Context) null);
-        } catch (Exception e) {
-            android.util.Log.d("TimerConfigModule", "Could not update running timer from static method: " + e.getMessage());
+    static WritableArray presetArray(TimerConfig config) {
+        WritableArray presets = Arguments.createArray();
+        for (int i = 0; i < config.getPresetCount(); i++) {
+            presets.pushInt(config.getPreset(i));
         }
+        return presets;
+    }
+
+    static int[] toIntArray(ReadableArray values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (int) values.getDouble(i);
+        }
+        return result;
+    }
+
+    private static void updateRunningTimerStatic() {
+        // No context here; the receiver falls back to the application context it registered with
+        MediaButtonReceiver.updateRunningTimerDuration(null);
     }
-}
\ No newline at end of file
+}
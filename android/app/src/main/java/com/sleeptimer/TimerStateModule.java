@@ -0,0 +1,107 @@
+package com.sleeptimer;
+
+import android.os.SystemClock;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.sleeptimer.service.MediaButtonReceiver;
+import com.sleeptimer.service.TimerConfigStore;
+import com.sleeptimer.service.TimerServiceClient;
+import com.sleeptimer.specs.NativeTimerStateSpec;
+import com.sleeptimer.timer.TimerSnapshot;
+
+/**
+ * TurboModule counterpart of MediaButtonEvent/TimerConfig for the new architecture (spec in
+ * specs/NativeTimerState.ts).
+ *
+ * Getters are synchronous and read the published snapshot, which is an atomic reference read in
+ * the local case and the last pushed state in timer-process mode, so they never block on the timer
+ * thread or a binder call. The primitive getters return a double and allocate nothing.
+ */
+public class TimerStateModule extends NativeTimerStateSpec {
+
+    public TimerStateModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+    }
+
+    @Override
+    public double getStateCode() {
+        return MediaButtonEventModule.currentSnapshot().state.ordinal();
+    }
+
+    @Override
+    public double getRemainingMs() {
+        return MediaButtonEventModule.currentSnapshot().remainingAt(SystemClock.elapsedRealtime());
+    }
+
+    @Override
+    public double getDurationMs() {
+        return MediaButtonEventModule.currentSnapshot().durationMs;
+    }
+
+    @Override
+    public double getGeneration() {
+        return MediaButtonEventModule.currentSnapshot().generation;
+    }
+
+    @Override
+    public WritableMap getSnapshot() {
+        return MediaButtonEventModule.toMap(MediaButtonEventModule.currentSnapshot());
+    }
+
+    @Override
+    public double getTimerDurationMinutes() {
+        return TimerConfigModule.getTimerDurationSeconds() / 60;
+    }
+
+    @Override
+    public WritableArray getPresetMinutes() {
+        return TimerConfigModule.presetArray(TimerConfigStore.get());
+    }
+
+    @Override
+    public void setTimerDuration(double minutes) {
+        try {
+            TimerConfigModule.applyTimerDuration(getReactApplicationContext(), (int) minutes);
+        } catch (Exception e) {
+            android.util.Log.e(NAME, "Failed to set timer duration", e);
+        }
+    }
+
+    @Override
+    public void setPresetMinutes(ReadableArray minutes) {
+        try {
+            int[] presets = TimerConfigModule.toIntArray(minutes);
+            TimerConfigModule.applyConfig(config -> config.withPresetMinutes(presets));
+        } catch (Exception e) {
+            android.util.Log.e(NAME, "Failed to set presets", e);
+        }
+    }
+
+    @Override
+    public void startAudible() {
+        try {
+            if (BuildConfig.TIMER_PROCESS_ENABLED) {
+                TimerServiceClient.startAudible();
+            } else {
+                MediaButtonReceiver.triggerStartAudible(getReactApplicationContext());
+            }
+        } catch (Exception e) {
+            android.util.Log.e(NAME, "Error starting Audible", e);
+        }
+    }
+
+    @Override
+    public void previousChapter() {
+        try {
+            if (BuildConfig.TIMER_PROCESS_ENABLED) {
+                TimerServiceClient.previousChapter();
+            } else {
+                MediaButtonReceiver.triggerPreviousChapter(getReactApplicationContext());
+            }
+        } catch (Exception e) {
+            android.util.Log.e(NAME, "Error skipping to previous chapter", e);
+        }
+    }
+}
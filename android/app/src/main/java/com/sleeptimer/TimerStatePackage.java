@@ -0,0 +1,32 @@
+package com.sleeptimer;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.facebook.react.BaseReactPackage;
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.module.model.ReactModuleInfo;
+import com.facebook.react.module.model.ReactModuleInfoProvider;
+import java.util.Collections;
+
+// Registers TimerStateModule as a TurboModule; the module is created lazily on first JS access
+public class TimerStatePackage extends BaseReactPackage {
+    @Nullable
+    @Override
+    public NativeModule getModule(@NonNull String name, @NonNull ReactApplicationContext reactContext) {
+        return TimerStateModule.NAME.equals(name) ? new TimerStateModule(reactContext) : null;
+    }
+
+    @NonNull
+    @Override
+    public ReactModuleInfoProvider getReactModuleInfoProvider() {
+        return () -> Collections.singletonMap(TimerStateModule.NAME, new ReactModuleInfo(
+                TimerStateModule.NAME,
+                TimerStateModule.class.getName(),
+                false, // canOverrideExistingModule
+                false, // needsEagerInit
+                false, // isCxxModule
+                true   // isTurboModule
+        ));
+    }
+}
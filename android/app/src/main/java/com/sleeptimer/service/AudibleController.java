@@ -0,0 +1,185 @@
+package com.sleeptimer.service;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.media.session.MediaController;
+import android.media.session.MediaSessionManager;
+import android.media.session.PlaybackState;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import java.util.List;
+
+/**
+ * Holds a MediaController on the target player's own media session (Audible by default, see
+ * {@link PlayerTargetRegistry}) so play, pause and previous can go straight through
+ * TransportControls without launching the app.
+ *
+ * Needs notification access for {@link SessionListenerService}. Without it, or while no target has
+ * a session, every command returns false and callers fall back to the launch-and-broadcast path.
+ */
+class AudibleController {
+    private static final String TAG = "AudibleController";
+
+    private static MediaSessionManager sessionManager;
+    private static volatile MediaController controller;
+    private static final MediaController.Callback capabilityCallback = new MediaController.Callback() {
+        @Override
+        public void onPlaybackStateChanged(PlaybackState state) {
+            MediaController current = controller;
+            if (current != null && state != null) {
+                PlayerTargetRegistry.onSessionChanged(current.getPackageName(), current.getSessionToken(), state.getActions());
+            }
+        }
+    };
+    private static MediaSessionManager.OnActiveSessionsChangedListener sessionsListener;
+    // Set when the binder call was refused; retried only once notification access changes
+    private static boolean accessDenied;
+
+    // Main thread
+    static void connect(Context context) {
+        if (sessionManager != null || accessDenied) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        sessionManager = (MediaSessionManager) appContext.getSystemService(Context.MEDIA_SESSION_SERVICE);
+        if (sessionManager == null) {
+            return;
+        }
+        ComponentName listenerComponent = new ComponentName(appContext, SessionListenerService.class);
+        try {
+            sessionsListener = AudibleController::onActiveSessionsChanged;
+            sessionManager.addOnActiveSessionsChangedListener(sessionsListener, listenerComponent,
+                    new Handler(Looper.getMainLooper()));
+            onActiveSessionsChanged(sessionManager.getActiveSessions(listenerComponent));
+            Log.d(TAG, "Watching active media sessions");
+        } catch (SecurityException e) {
+            Log.w(TAG, "Notification access not granted - using launch fallback for Audible commands");
+            sessionManager = null;
+            sessionsListener = null;
+            accessDenied = true;
+        }
+    }
+
+    // Main thread; the notification listener was (re)bound, so access may have been granted
+    static void onAccessChanged(Context context) {
+        accessDenied = false;
+        connect(context);
+    }
+
+    static void disconnect() {
+        if (sessionManager != null && sessionsListener != null) {
+            sessionManager.removeOnActiveSessionsChangedListener(sessionsListener);
+        }
+        sessionManager = null;
+        sessionsListener = null;
+        setController(null);
+    }
+
+    private static void onActiveSessionsChanged(List<MediaController> controllers) {
+        // Record every target's session, and control the highest-priority one that has one
+        MediaController found = null;
+        for (PlayerTargetRegistry.Target target : PlayerTargetRegistry.getTargets()) {
+            MediaController match = null;
+            if (controllers != null) {
+                for (MediaController candidate : controllers) {
+                    if (target.packageName.equals(candidate.getPackageName())) {
+                        match = candidate;
+                        break;
+                    }
+                }
+            }
+            if (match != null) {
+                PlaybackState state = match.getPlaybackState();
+                PlayerTargetRegistry.onSessionChanged(target.packageName, match.getSessionToken(),
+                        state != null ? state.getActions() : PlayerTargetRegistry.UNKNOWN_ACTIONS);
+                if (found == null) {
+                    found = match;
+                }
+            } else {
+                PlayerTargetRegistry.onSessionChanged(target.packageName, null, PlayerTargetRegistry.UNKNOWN_ACTIONS);
+            }
+        }
+        MediaController current = controller;
+        if (found == null ? current != null
+                : current == null || !found.getSessionToken().equals(current.getSessionToken())) {
+            Log.d(TAG, found != null ? "Connected to " + found.getPackageName() + " media session" : "Target media session gone");
+            setController(found);
+        }
+    }
+
+    private static void setController(MediaController next) {
+        MediaController previous = controller;
+        if (previous != null) {
+            previous.unregisterCallback(capabilityCallback);
+        }
+        controller = next;
+        if (next != null) {
+            next.registerCallback(capabilityCallback, new Handler(Looper.getMainLooper()));
+        }
+    }
+
+    static boolean isConnected() {
+        return controller != null;
+    }
+
+    static PlaybackState getPlaybackState() {
+        MediaController target = controller;
+        return target != null ? target.getPlaybackState() : null;
+    }
+
+    static boolean play() {
+        MediaController target = controller;
+        if (target == null || !supports(target, PlaybackState.ACTION_PLAY | PlaybackState.ACTION_PLAY_PAUSE)) {
+            return false;
+        }
+        MediaCommandExecutor.get().executeCoalesced("transport:play", () -> {
+            target.getTransportControls().play();
+            StartupTiming.markCommandSent("transport:play");
+            PressTrace.endPress("transport:play");
+        });
+        return true;
+    }
+
+    static boolean pause() {
+        MediaController target = controller;
+        if (target == null || !supports(target, PlaybackState.ACTION_PAUSE | PlaybackState.ACTION_PLAY_PAUSE)) {
+            return false;
+        }
+        MediaCommandExecutor.get().executeCoalesced("transport:pause", () -> {
+            target.getTransportControls().pause();
+            PressTrace.endPress("transport:pause");
+        });
+        return true;
+    }
+
+    static boolean skipToPrevious() {
+        MediaController target = controller;
+        if (target == null || !supports(target, PlaybackState.ACTION_SKIP_TO_PREVIOUS)) {
+            return false;
+        }
+        MediaCommandExecutor.get().execute("transport:skipToPrevious", () -> {
+            target.getTransportControls().skipToPrevious();
+            PressTrace.endPress("transport:skipToPrevious");
+        });
+        return true;
+    }
+
+    static boolean skipToNext() {
+        MediaController target = controller;
+        if (target == null || !supports(target, PlaybackState.ACTION_SKIP_TO_NEXT)) {
+            return false;
+        }
+        MediaCommandExecutor.get().execute("transport:skipToNext", () -> {
+            target.getTransportControls().skipToNext();
+            PressTrace.endPress("transport:skipToNext");
+        });
+        return true;
+    }
+
+    // Whether the session advertises any of the actions; callers fall back to broadcasts if not
+    private static boolean supports(MediaController target, long actions) {
+        PlayerTargetRegistry.Target registered = PlayerTargetRegistry.find(target.getPackageName());
+        return registered == null || registered.supports(actions);
+    }
+}
@@ -4,6 +4,7 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.util.Log;
+import com.sleeptimer.timer.TimerEvents;
 
 public class CloseAppReceiver extends BroadcastReceiver {
     private static final String TAG = "CloseAppReceiver";
@@ -20,17 +21,13 @@ public class CloseAppReceiver extends BroadcastReceiver {
                 context.stopService(serviceIntent);
                 
                 // Notify React Native to close the app
-                try {
-                    Class<?> clazz = Class.forName("com.sleeptimer.MediaButtonEventModule");
-                    clazz.getMethod("sendCloseAppEvent").invoke(null);
-                } catch (Exception e) {
-                    Log.e(TAG, "Failed to notify React Native about close action", e);
-                }
+                TimerEvents.get().onCloseAppRequested();
                 
                 // Force close the app by finishing the main activity
                 Intent closeIntent = new Intent("com.sleeptimer.CLOSE_MAIN_ACTIVITY");
                 closeIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
                 context.sendBroadcast(closeIntent);
+                WakeupCounters.count(WakeupCounters.BROADCASTS);
                 
                 Log.d(TAG, "Close app actions completed");
             } catch (Exception e) {
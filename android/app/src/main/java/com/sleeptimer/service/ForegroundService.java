@@ -6,15 +6,24 @@ import android.app.Service;
 import android.content.Intent;
 import android.os.Build;
 import android.os.IBinder;
+import android.os.Messenger;
 import android.util.Log;
 import androidx.annotation.Nullable;
-import androidx.core.app.NotificationCompat;
+import com.sleeptimer.BuildConfig;
+import com.sleeptimer.timer.TimerEvents;
 
 public class ForegroundService extends Service {
     private static final String CHANNEL_ID = "SleepTimerForegroundService";
     private static final int NOTIFICATION_ID = 1;
     private static final String TAG = "ForegroundService";
+    private static final long JS_SYNC_INTERVAL_MS = 60 * 1000;
     private static ForegroundService instance;
+    private NotificationRenderer renderer;
+    private TimerServiceMessenger messenger;
+    private SleepMonitor sleepMonitor;
+    // Re-sends the current state to JS, which interpolates the countdown from it; its clock stops
+    // while the device sleeps, so it needs a fresh snapshot when the screen comes back on
+    private final TickScheduler.Consumer jsSync = snapshot -> TimerEvents.get().onTimerStateChanged(snapshot);
     
     public ForegroundService() {
         Log.d(TAG, "ForegroundService constructor called");
@@ -25,8 +34,29 @@ public class ForegroundService extends Service {
         Log.d(TAG, "ForegroundService onCreate called");
         super.onCreate();
         instance = this;
+        WakeupCounters.reset();
         createNotificationChannel();
+        TickScheduler.start(this);
+        TickScheduler.register(jsSync, JS_SYNC_INTERVAL_MS);
+        if (BuildConfig.SLEEP_DETECTION_ENABLED) {
+            sleepMonitor = new SleepMonitor(this);
+        }
         MediaButtonReceiver.register(this);
+        // Pick up a timer that was running when the process was killed (START_STICKY restart)
+        MediaButtonReceiver.restoreFromJournal(this);
+        PlayerTargetRegistry.register(this);
+        IoExecutor.get().execute("resolvePlayers", () -> PlayerTargetRegistry.warm(this));
+        AudibleController.connect(this);
+        if (BuildConfig.TIMER_PROCESS_ENABLED) {
+            // No React Native in this process: timer events go to bound UI clients instead
+            messenger = new TimerServiceMessenger(this);
+            TimerEvents.bind(messenger);
+            ProcessMemory.log("Timer service created");
+        }
+        
+        // Silent playback keeps our MediaSession the preferred media-button target. Building the
+        // AudioTrack is not on the button path, so keep it off the main thread
+        MediaCommandExecutor.get().execute("keepAliveStart", SilentAudioPlayer::startSilentAudio);
     }
 
     @Override
@@ -35,6 +65,7 @@ public class ForegroundService extends Service {
         
         // Create initial notification
         updateNotificationInternal("Ready to handle media button presses", 0);
+        MediaButtonReceiver.refreshNotification();
         
         return START_STICKY;
     }
@@ -42,14 +73,39 @@ public class ForegroundService extends Service {
     @Override
     public void onDestroy() {
         Log.d(TAG, "ForegroundService onDestroy called");
+        MediaCommandExecutor.get().execute("keepAliveStop", SilentAudioPlayer::stopSilentAudio);
+        AudibleController.disconnect();
+        PlayerTargetRegistry.unregister(this);
+        TickScheduler.unregister(jsSync);
+        TickScheduler.stop(this);
+        if (sleepMonitor != null) {
+            sleepMonitor.release();
+            sleepMonitor = null;
+        }
+        MediaButtonReceiver.logSessionActivationStats();
+        MediaCommandExecutor.get().logMetrics();
+        // Keep the night's events around for a bug report after the service is gone
+        TimerLog.dumpToFileAsync(this, null);
+        SessionHistoryStore.flush();
+        WakeupCounters.writeAsync(this);
+        if (messenger != null) {
+            TimerEvents.unbind(messenger);
+            ProcessMemory.log("Timer service destroyed");
+            messenger = null;
+        }
+        if (renderer != null) {
+            Log.d(TAG, "Notification posts this session: " + renderer.getNotifyCount()
+                    + " (skipped unchanged: " + renderer.getSkippedCount() + ")");
+        }
         instance = null;
+        renderer = null;
         super.onDestroy();
     }
 
     @Nullable
     @Override
     public IBinder onBind(Intent intent) {
-        return null;
+        return messenger != null ? new Messenger(messenger).getBinder() : null;
     }
 
     private void createNotificationChannel() {
@@ -78,85 +134,66 @@ public class ForegroundService extends Service {
         }
     }
     
+    // Main thread; no-op unless sleep detection is compiled in
+    static void setSleepDetectionActive(boolean active) {
+        if (instance == null || instance.sleepMonitor == null) {
+            return;
+        }
+        if (active) {
+            instance.sleepMonitor.start();
+        } else {
+            instance.sleepMonitor.stop();
+        }
+    }
+    
+    // Main thread; the notification's preset actions follow the configured presets
+    static void onPresetsChanged() {
+        if (instance == null || instance.renderer == null) {
+            return;
+        }
+        try {
+            // An in-place update; the service is already in the foreground
+            instance.renderer.setPresets(NOTIFICATION_ID, TimerConfigStore.get());
+        } catch (Exception e) {
+            Log.e(TAG, "Error updating notification presets", e);
+        }
+    }
+    
+    public static void updateCountdownNotification(String status, long remainingTimeMs) {
+        if (instance != null) {
+            instance.updateCountdownNotificationInternal(status, remainingTimeMs);
+        }
+    }
+    
+    private NotificationRenderer getRenderer() {
+        if (renderer == null) {
+            renderer = new NotificationRenderer(this, CHANNEL_ID, TimerConfigStore.get());
+        }
+        return renderer;
+    }
+    
     private void updateNotificationInternal(String status, long remainingTimeMs) {
+        PressTrace.beginSection("updateNotificationInternal");
         try {
-            // Create close app intent
-            android.content.Intent closeIntent = new android.content.Intent(this, CloseAppReceiver.class);
-            closeIntent.setAction(CloseAppReceiver.ACTION_CLOSE_APP);
-            android.app.PendingIntent closePendingIntent = android.app.PendingIntent.getBroadcast(
-                this, 1, closeIntent, android.app.PendingIntent.FLAG_IMMUTABLE
-            );
-
-            String contentText;
-            if (remainingTimeMs > 0) {
-                String timeRemaining = formatTime(remainingTimeMs);
-                contentText = status + " - " + timeRemaining + " remaining";
-            } else {
-                contentText = status;
-            }
-
-            NotificationCompat.Builder builder = new NotificationCompat.Builder(this, CHANNEL_ID)
-                    .setContentTitle("Sleep Timer")
-                    .setContentText(contentText)
-                    .setSmallIcon(android.R.drawable.ic_lock_idle_alarm)
-                    .setOngoing(true)
-                    .setPriority(NotificationCompat.PRIORITY_LOW)
-                    .setCategory(NotificationCompat.CATEGORY_SERVICE)
-                    .setAutoCancel(false)
-                    .addAction(android.R.drawable.ic_menu_close_clear_cancel, "Close App", closePendingIntent);
-
-            // Add preset timer buttons
-            int[] presetMinutes = {15, 45};
-            for (int i = 0; i < presetMinutes.length; i++) {
-                int minutes = presetMinutes[i];
-                android.content.Intent presetIntent = new android.content.Intent(this, PresetTimerReceiver.class);
-                presetIntent.setAction(PresetTimerReceiver.ACTION_SET_TIMER);
-                presetIntent.putExtra(PresetTimerReceiver.EXTRA_MINUTES, minutes);
-                
-                android.app.PendingIntent presetPendingIntent = android.app.PendingIntent.getBroadcast(
-                    this, 100 + i, presetIntent, android.app.PendingIntent.FLAG_IMMUTABLE
-                );
-                
-                builder.addAction(android.R.drawable.ic_menu_recent_history, minutes + "m", presetPendingIntent);
-            }
-
-            android.content.Intent notificationIntent = new android.content.Intent(this, com.sleeptimer.MainActivity.class);
-            android.app.PendingIntent pendingIntent = android.app.PendingIntent.getActivity(
-                this, 0, notificationIntent, android.app.PendingIntent.FLAG_IMMUTABLE
-            );
-            builder.setContentIntent(pendingIntent);
-            
-            // Set custom big text style to show "Reset Timer:" header
-            NotificationCompat.BigTextStyle bigTextStyle = new NotificationCompat.BigTextStyle()
-                .setBigContentTitle("Sleep Timer")
-                .bigText(contentText + "\n\nReset Timer: Use buttons below to change duration");
-            builder.setStyle(bigTextStyle);
-            
-            android.app.Notification notification = builder.build();
-            
             // Use startForeground for the first notification, notify for updates
             if (remainingTimeMs == 0 && "Ready to handle media button presses".equals(status)) {
-                startForeground(NOTIFICATION_ID, notification);
+                startForeground(NOTIFICATION_ID, getRenderer().render(status, remainingTimeMs));
+                WakeupCounters.count(WakeupCounters.NOTIFICATIONS);
             } else {
-                NotificationManager manager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
-                if (manager != null) {
-                    manager.notify(NOTIFICATION_ID, notification);
-                }
+                getRenderer().post(NOTIFICATION_ID, status, remainingTimeMs);
             }
         } catch (Exception e) {
             Log.e(TAG, "Error updating notification", e);
+        } finally {
+            PressTrace.endSection();
         }
     }
     
-    private String formatTime(long milliseconds) {
-        long seconds = milliseconds / 1000;
-        long minutes = seconds / 60;
-        long hours = minutes / 60;
-        
-        if (hours > 0) {
-            return String.format("%d:%02d:%02d", hours, minutes % 60, seconds % 60);
-        } else {
-            return String.format("%d:%02d", minutes, seconds % 60);
+    private void updateCountdownNotificationInternal(String status, long remainingTimeMs) {
+        try {
+            getRenderer().postCountdown(NOTIFICATION_ID, status, remainingTimeMs);
+        } catch (Exception e) {
+            Log.e(TAG, "Error updating countdown notification", e);
         }
     }
 }
@@ -0,0 +1,49 @@
+package com.sleeptimer.service;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+
+/**
+ * Single background thread for the timer's own disk IO: the journal, session history, wakeup
+ * counters, settings and the player lookup. Kept apart from {@link MediaCommandExecutor} so an
+ * fsync never sits in front of a pause command. Tasks run in submission order, so writes of the
+ * same file never overlap and a later write always lands last.
+ */
+public class IoExecutor {
+    private static final String TAG = "IoExecutor";
+    private static IoExecutor instance;
+
+    private final Handler handler;
+
+    public static synchronized IoExecutor get() {
+        if (instance == null) {
+            instance = new IoExecutor();
+        }
+        return instance;
+    }
+
+    private IoExecutor() {
+        HandlerThread thread = new HandlerThread("TimerIo", Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        handler = new Handler(thread.getLooper());
+    }
+
+    public void execute(String name, Runnable task) {
+        executeDelayed(name, task, 0);
+    }
+
+    public void executeDelayed(String name, Runnable task, long delayMs) {
+        handler.postDelayed(() -> run(name, task), delayMs);
+    }
+
+    private void run(String name, Runnable task) {
+        WakeupCounters.count(WakeupCounters.IO_TASKS);
+        try {
+            task.run();
+        } catch (Exception e) {
+            Log.e(TAG, "IO task failed: " + name, e);
+        }
+    }
+}
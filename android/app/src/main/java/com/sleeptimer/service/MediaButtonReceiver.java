@@ -8,55 +8,74 @@ import android.media.AudioManager;
 import android.media.session.MediaSession;
 import android.media.session.PlaybackState;
 import android.os.Build;
+import android.os.SystemClock;
+import android.provider.Settings;
 import android.util.Log;
-import com.sleeptimer.TimerConfigModule;
+import com.sleeptimer.timer.KeyGestureRecognizer;
+import com.sleeptimer.timer.SessionHistory;
+import com.sleeptimer.timer.SleepDeadlinePolicy;
+import com.sleeptimer.timer.TimerActor;
+import com.sleeptimer.timer.TimerEngine;
+import com.sleeptimer.timer.TimerEvents;
+import com.sleeptimer.timer.TimerJournal;
+import com.sleeptimer.timer.TimerSnapshot;
+import java.io.File;
 
 public class MediaButtonReceiver extends BroadcastReceiver {
     private static final String TAG = "MediaButtonReceiver";
     private static MediaSession mediaSession;
+    private static SessionActivationScheduler sessionActivation;
+    // The delayed play of a launch sequence when there is no session scheduler; main thread only
+    private static Runnable pendingLaunchPlay;
+    private static android.os.Handler launchHandler;
+    // Launch fallback: wait for the player to come up, step aside, send play, take the session back
+    private static final long LAUNCH_SETTLE_MS = 1500;
+    private static final long PLAY_AFTER_DEACTIVATE_MS = 200;
+    private static final long REACTIVATE_AFTER_PLAY_MS = 1000;
+    private static Context applicationContext;
     private static boolean isRegistered = false;
-    private static boolean timerRunning = false;
-    private static boolean timerPaused = false;
+    // Timer state has a single writer, the main looper: receivers, session callbacks and Handler
+    // callbacks already run there, and calls from other threads are queued onto it. Other threads
+    // only read the snapshot the actor publishes. The engine is reachable only through the actor
+    private static final TimerActor timerActor = new TimerActor(
+        new TimerEngine(SystemClock::elapsedRealtime), new MainLooperWriter());
+    // Writer thread only; moves the deadline when the optional sleep detector reports activity
+    private static final SleepDeadlinePolicy sleepPolicy = SleepDeadlinePolicy.withDefaults();
+    private static final String JOURNAL_FILE = "timer.journal";
+    private static TimerJournal timerJournal;
+    private static int bootCount;
     private static android.os.Handler timerHandler;
     private static Runnable timerRunnable;
-    private static long timerStartTime;
-    private static long timerDuration;
-    private static long pausedTimeRemaining;
-    private static android.os.Handler notificationUpdateHandler;
-    private static Runnable notificationUpdateRunnable;
-    
-    // Volume button double-press detection
-    private static long lastVolumeDownTime = 0;
-    private static final long DOUBLE_PRESS_INTERVAL = 500; // 500ms for double-press detection
-
-    public MediaButtonReceiver() {
-        Log.d(TAG, "MediaButtonReceiver constructor called");
-    }
+    
+    // Key gestures, decided from the key events' own timestamps; main thread only. Play, pause and
+    // track keys act on their key-down, ignoring auto-repeat; volume down waits for a double press
+    private static Context gestureContext;
+    private static final KeyGestureRecognizer playGestures = createSinglePressGestures(android.view.KeyEvent.KEYCODE_MEDIA_PLAY);
+    private static final KeyGestureRecognizer pauseGestures = createSinglePressGestures(android.view.KeyEvent.KEYCODE_MEDIA_PAUSE);
+    private static final KeyGestureRecognizer previousGestures = createSinglePressGestures(android.view.KeyEvent.KEYCODE_MEDIA_PREVIOUS);
+    private static final KeyGestureRecognizer nextGestures = createSinglePressGestures(android.view.KeyEvent.KEYCODE_MEDIA_NEXT);
+    // Created on the first volume press, so loading the class does not read the settings
+    private static KeyGestureRecognizer volumeDownGestures;
 
     @Override
     public void onReceive(Context context, Intent intent) {
-        Log.d(TAG, "MediaButtonReceiver onReceive called with action: " + intent.getAction());
-        
-        if (Intent.ACTION_MEDIA_BUTTON.equals(intent.getAction())) {
-            android.view.KeyEvent keyEvent = intent.getParcelableExtra(Intent.EXTRA_KEY_EVENT);
-            if (keyEvent != null && keyEvent.getAction() == android.view.KeyEvent.ACTION_DOWN) {
-                Log.d(TAG, "Received media button key code: " + keyEvent.getKeyCode());
-                
-                int keyCode = keyEvent.getKeyCode();
-                if (keyCode == android.view.KeyEvent.KEYCODE_MEDIA_PLAY || 
-                    keyCode == android.view.KeyEvent.KEYCODE_MEDIA_PLAY_PAUSE ||
-                    keyCode == 127) {
-                    Log.d(TAG, "Play/Pause button pressed (keycode: " + keyCode + ")");
-                    handlePlayButton(context);
-                } else if (keyCode == android.view.KeyEvent.KEYCODE_MEDIA_PAUSE ||
-                          keyCode == android.view.KeyEvent.KEYCODE_MEDIA_STOP) {
-                    Log.d(TAG, "Pause/Stop button pressed (keycode: " + keyCode + ")");
-                    handlePauseButton(context);
-                } else if (keyCode == android.view.KeyEvent.KEYCODE_VOLUME_DOWN) {
-                    Log.d(TAG, "Volume down button pressed");
-                    handleVolumeDownButton(context);
+        PressTrace.beginSection("MediaButtonReceiver.onReceive");
+        try {
+            if (Intent.ACTION_MEDIA_BUTTON.equals(intent.getAction())) {
+                // On a cold start the service has not run yet; connect now so play can skip the launch path
+                AudibleController.connect(context);
+                android.view.KeyEvent keyEvent = intent.getParcelableExtra(Intent.EXTRA_KEY_EVENT);
+                if (keyEvent != null) {
+                    if (keyEvent.getAction() == android.view.KeyEvent.ACTION_DOWN) {
+                        StartupTiming.markEventReceived();
+                        PressTrace.beginPress("broadcast");
+                        TimerLog.record(TimerLog.KEY_RECEIVED, keyEvent.getKeyCode());
+                    }
+                    handleKeyEvent(context, keyEvent);
                 }
             }
+        } finally {
+            PressTrace.endSection();
         }
     }
 
@@ -68,6 +87,7 @@ public class MediaButtonReceiver extends BroadcastReceiver {
             }
             
             Log.d(TAG, "Registering MediaButtonReceiver...");
+            applicationContext = context.getApplicationContext();
             
             // Create MediaSession for media button handling
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
@@ -75,43 +95,31 @@ public class MediaButtonReceiver extends BroadcastReceiver {
                 mediaSession.setCallback(new MediaSession.Callback() {
                     @Override
                     public void onPlay() {
-                        Log.d(TAG, "MediaSession onPlay called");
+                        PressTrace.beginPress("onPlay");
                         handlePlayButton(context);
                     }
                     
                     @Override
                     public void onPause() {
-                        Log.d(TAG, "MediaSession onPause called");
                         handlePauseButton(context);
                     }
                     
                     @Override
                     public void onStop() {
-                        Log.d(TAG, "MediaSession onStop called");
                         handlePauseButton(context);
                     }
                     
                     @Override
                     public boolean onMediaButtonEvent(Intent mediaButtonEvent) {
-                        Log.d(TAG, "MediaSession onMediaButtonEvent called");
                         if (mediaButtonEvent != null && Intent.ACTION_MEDIA_BUTTON.equals(mediaButtonEvent.getAction())) {
                             android.view.KeyEvent keyEvent = mediaButtonEvent.getParcelableExtra(Intent.EXTRA_KEY_EVENT);
-                            if (keyEvent != null && keyEvent.getAction() == android.view.KeyEvent.ACTION_DOWN) {
-                                Log.d(TAG, "MediaSession received key code: " + keyEvent.getKeyCode());
-                                if (keyEvent.getKeyCode() == android.view.KeyEvent.KEYCODE_MEDIA_PLAY || 
-                                    keyEvent.getKeyCode() == android.view.KeyEvent.KEYCODE_MEDIA_PLAY_PAUSE ||
-                                    keyEvent.getKeyCode() == 127) {
-                                    Log.d(TAG, "MediaSession handling play button");
-                                    handlePlayButton(context);
-                                    return true;
-                                } else if (keyEvent.getKeyCode() == android.view.KeyEvent.KEYCODE_MEDIA_PAUSE ||
-                                          keyEvent.getKeyCode() == android.view.KeyEvent.KEYCODE_MEDIA_STOP) {
-                                    Log.d(TAG, "MediaSession handling pause button");
-                                    handlePauseButton(context);
-                                    return true;
-                                } else if (keyEvent.getKeyCode() == android.view.KeyEvent.KEYCODE_VOLUME_DOWN) {
-                                    Log.d(TAG, "MediaSession handling volume down button");
-                                    handleVolumeDownButton(context);
+                            if (keyEvent != null) {
+                                if (keyEvent.getAction() == android.view.KeyEvent.ACTION_DOWN) {
+                                    StartupTiming.markEventReceived();
+                                    PressTrace.beginPress("session");
+                                    TimerLog.record(TimerLog.KEY_RECEIVED, keyEvent.getKeyCode(), 1);
+                                }
+                                if (handleKeyEvent(context, keyEvent)) {
                                     return true;
                                 }
                             }
@@ -126,12 +134,10 @@ public class MediaButtonReceiver extends BroadcastReceiver {
                     .setState(PlaybackState.STATE_STOPPED, 0, 1.0f)
                     .build();
                 mediaSession.setPlaybackState(playbackState);
-                mediaSession.setActive(true);
+                sessionActivation = new SessionActivationScheduler(mediaSession);
+                sessionActivation.setActive(true);
                 
                 Log.d(TAG, "MediaSession created and activated");
-                
-                // Start silent audio to maintain media focus
-                SilentAudioPlayer.startSilentAudio(context);
             }
             
             // Register BroadcastReceiver
@@ -153,71 +159,150 @@ public class MediaButtonReceiver extends BroadcastReceiver {
     }
     
     private static void handlePlayButton(Context context) {
-        Log.d(TAG, "Play button pressed - timerRunning: " + timerRunning + ", timerPaused: " + timerPaused);
+        TimerEngine engine = timerActor.engine();
+        PressTrace.beginSection("handlePlayButton");
+        try {
+            TimerLog.record(TimerLog.PLAY_PRESSED, engine.getState().ordinal());
         
-        if (timerPaused) {
-            Log.d(TAG, "Resuming paused timer and opening Audible");
-            resumeTimer(context);
-        } else if (timerRunning) {
-            Log.d(TAG, "Timer already running - ensuring Audible is opened and playing");
-            // Always ensure Audible is opened, even if timer is running
-            startAudible(context);
-        } else {
-            Log.d(TAG, "Starting new timer and opening Audible");
-            startNewTimer(context);
+            if (engine.isPaused()) {
+                resumeTimer(context);
+            } else if (engine.isRunning()) {
+                // Always ensure Audible is opened, even if timer is running
+                startAudible(context);
+            } else {
+                startNewTimer(context);
+            }
+        } finally {
+            PressTrace.endSection();
         }
     }
     
     private static void handlePauseButton(Context context) {
-        if (timerRunning && !timerPaused) {
-            Log.d(TAG, "Pause button pressed - pausing Audible only (timer continues)");
+        TimerEngine engine = timerActor.engine();
+        TimerLog.record(TimerLog.PAUSE_PRESSED, engine.getState().ordinal());
+        // Ignored unless the timer is running
+        if (engine.isRunning()) {
             pauseAudibleOnly(context);
         } else {
-            Log.d(TAG, "Timer not running, ignoring pause button");
+            // A play still on its way from an app-started launch must not undo this press
+            cancelLaunchSequence();
         }
     }
     
-    private static void handleVolumeDownButton(Context context) {
-        long currentTime = System.currentTimeMillis();
-        long timeSinceLastPress = currentTime - lastVolumeDownTime;
-        
-        Log.d(TAG, "Volume down pressed, time since last press: " + timeSinceLastPress + "ms");
-        
-        if (timeSinceLastPress <= DOUBLE_PRESS_INTERVAL && lastVolumeDownTime > 0) {
-            // Double-press detected - go to previous chapter
-            Log.d(TAG, "Double-press detected - going to previous chapter in Audible");
-            goToPreviousChapter(context);
-            lastVolumeDownTime = 0; // Reset to prevent triple-press detection
-        } else {
-            // Single press - just record the time
-            Log.d(TAG, "Single volume down press - waiting for potential double-press");
-            lastVolumeDownTime = currentTime;
+    // Feeds key down and up events to the key's recognizer; false for keys we leave to the system
+    private static boolean handleKeyEvent(Context context, android.view.KeyEvent keyEvent) {
+        KeyGestureRecognizer gestures = gesturesFor(keyEvent.getKeyCode());
+        if (gestures == null) {
+            return false;
+        }
+        gestureContext = context.getApplicationContext();
+        long now = SystemClock.uptimeMillis();
+        if (keyEvent.getAction() == android.view.KeyEvent.ACTION_DOWN) {
+            if (gestures == volumeDownGestures) {
+                TimerLog.record(TimerLog.VOLUME_DOWN, keyEvent.getEventTime(), keyEvent.getRepeatCount());
+            }
+            gestures.onKeyDown(keyEvent.getEventTime(), keyEvent.getRepeatCount(), now);
+        } else if (keyEvent.getAction() == android.view.KeyEvent.ACTION_UP) {
+            gestures.onKeyUp(keyEvent.getEventTime(), now);
+        }
+        return true;
+    }
+    
+    private static KeyGestureRecognizer gesturesFor(int keyCode) {
+        if (keyCode == android.view.KeyEvent.KEYCODE_MEDIA_PLAY || 
+            keyCode == android.view.KeyEvent.KEYCODE_MEDIA_PLAY_PAUSE ||
+            keyCode == 127) {
+            return playGestures;
+        } else if (keyCode == android.view.KeyEvent.KEYCODE_MEDIA_PAUSE ||
+                  keyCode == android.view.KeyEvent.KEYCODE_MEDIA_STOP) {
+            return pauseGestures;
+        } else if (keyCode == android.view.KeyEvent.KEYCODE_MEDIA_PREVIOUS) {
+            return previousGestures;
+        } else if (keyCode == android.view.KeyEvent.KEYCODE_MEDIA_NEXT) {
+            return nextGestures;
+        } else if (keyCode == android.view.KeyEvent.KEYCODE_VOLUME_DOWN) {
+            if (volumeDownGestures == null) {
+                volumeDownGestures = createVolumeDownGestures(TimerConfigStore.get().getDoublePressIntervalMs());
+            }
+            return volumeDownGestures;
+        }
+        return null;
+    }
+    
+    private static KeyGestureRecognizer createSinglePressGestures(int keyCode) {
+        return new KeyGestureRecognizer(KeyGestureRecognizer.SINGLE, 0, 0,
+            (gesture, latencyMs) -> onKeyGesture(keyCode, gesture, latencyMs));
+    }
+    
+    private static KeyGestureRecognizer createVolumeDownGestures(long doublePressIntervalMs) {
+        // A double press is reported on the second key-down; a lone press does nothing here
+        return new KeyGestureRecognizer(KeyGestureRecognizer.DOUBLE, doublePressIntervalMs, 0,
+            (gesture, latencyMs) -> onKeyGesture(android.view.KeyEvent.KEYCODE_VOLUME_DOWN, gesture, latencyMs));
+    }
+    
+    // Main thread; a press in progress starts over with the new window
+    static void setDoublePressInterval(long intervalMs) {
+        if (volumeDownGestures != null) {
+            volumeDownGestures = createVolumeDownGestures(intervalMs);
+        }
+    }
+    
+    private static void onKeyGesture(int keyCode, int gesture, long latencyMs) {
+        TimerLog.record(TimerLog.KEY_GESTURE, gesture, latencyMs);
+        Context context = gestureContext;
+        if (context == null) {
+            return;
+        }
+        switch (keyCode) {
+            case android.view.KeyEvent.KEYCODE_MEDIA_PLAY:
+                handlePlayButton(context);
+                break;
+            case android.view.KeyEvent.KEYCODE_MEDIA_PAUSE:
+                handlePauseButton(context);
+                break;
+            case android.view.KeyEvent.KEYCODE_MEDIA_PREVIOUS:
+                goToPreviousChapter(context);
+                break;
+            case android.view.KeyEvent.KEYCODE_MEDIA_NEXT:
+                goToNextChapter(context);
+                break;
+            case android.view.KeyEvent.KEYCODE_VOLUME_DOWN:
+                if (gesture == KeyGestureRecognizer.DOUBLE) {
+                    goToPreviousChapter(context);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private static void setSessionActive(boolean active) {
+        if (sessionActivation != null) {
+            sessionActivation.setActive(active);
+        }
+    }
+    
+    static void logSessionActivationStats() {
+        if (sessionActivation != null) {
+            sessionActivation.logStats();
         }
     }
     
     private static void startNewTimer(Context context) {
-        Log.d(TAG, "Starting new timer - ensuring Audible opens");
-        timerRunning = true;
-        timerPaused = false;
-        timerDuration = TimerConfigModule.getTimerDurationSeconds() * 1000;
-        timerStartTime = System.currentTimeMillis();
+        TimerEngine engine = timerActor.engine();
+        engine.start(TimerConfigStore.get().getDurationSeconds() * 1000L);
+        TimerLog.record(TimerLog.TIMER_STARTED, engine.getDurationMs(), engine.getGeneration());
+        SessionHistoryStore.record(SessionHistory.STARTED, engine.getDurationMs(), engine.getGeneration());
+        sleepPolicy.reset();
         
         // Ensure MediaSession is active before starting Audible
-        if (mediaSession != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            mediaSession.setActive(true);
-            Log.d(TAG, "Ensured MediaSession is active for new timer");
-        }
+        setSessionActive(true);
         
         // Start Audible by sending a play command
         startAudible(context);
         
-        // Notify React Native about the button press
-        try {
-            Class<?> clazz = Class.forName("com.sleeptimer.MediaButtonEventModule");
-            clazz.getMethod("sendPlayButtonEvent").invoke(null);
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to emit play event to JS", e);
-        }
+        // Notify React Native about the timer transition
+        publishTimerState();
         
         // Start the timer
         startTimer(context);
@@ -227,47 +312,91 @@ public class MediaButtonReceiver extends BroadcastReceiver {
     }
     
     private static void startTimer(Context context) {
-        timerHandler = new android.os.Handler(android.os.Looper.getMainLooper());
+        TimerEngine engine = timerActor.engine();
+        Context appContext = context != null ? context.getApplicationContext() : applicationContext;
+        long deadline = engine.getDeadlineMs();
+        long generation = engine.getGeneration();
+        // Armed before the alarm is set, so the alarm is counted against the armed budget
+        WakeupCounters.setArmed(true);
+        
+        // The alarm is authoritative; it still fires when the device is dozing or the process is frozen
+        if (appContext != null) {
+            TimerAlarmScheduler.schedule(appContext, deadline, generation);
+        }
+        
+        // In-process fast path for when the main looper is awake anyway
+        if (timerHandler == null) {
+            timerHandler = new android.os.Handler(android.os.Looper.getMainLooper());
+        }
+        cancelCompletionCallback();
         timerRunnable = () -> {
-            Log.d(TAG, "Timer completed - pausing Audible");
-            completeTimer(context);
+            TimerEngine current = timerActor.engine();
+            if (current.getGeneration() == generation && current.isRunning()) {
+                TimerAlarmScheduler.recordFire(TimerAlarmScheduler.SOURCE_HANDLER, deadline);
+                completeTimer(appContext);
+            }
         };
         
-        long delay = timerPaused ? pausedTimeRemaining : timerDuration;
+        long delay = engine.getRemainingMs();
         timerHandler.postDelayed(timerRunnable, delay);
-        Log.d(TAG, "Timer started with delay: " + delay + "ms");
+        WakeupCounters.count(WakeupCounters.MAIN_LOOPER_POSTS);
+        
+        // The sleep detector only runs while a completion is armed
+        ForegroundService.setSleepDetectionActive(true);
+    }
+    
+    private static void cancelCompletionCallback() {
+        if (timerHandler != null && timerRunnable != null) {
+            timerHandler.removeCallbacks(timerRunnable);
+        }
+    }
+    
+    private static void cancelCompletion(Context context) {
+        cancelCompletionCallback();
+        ForegroundService.setSleepDetectionActive(false);
+        WakeupCounters.setArmed(false);
+        Context appContext = context != null ? context.getApplicationContext() : applicationContext;
+        if (appContext != null) {
+            TimerAlarmScheduler.cancel(appContext);
+        }
+    }
+    
+    static void onCompletionAlarm(Context context, long generation, long deadline) {
+        TimerEngine engine = timerActor.engine();
+        if (!engine.isActive()) {
+            // Fresh process started for the alarm: the journal knows whether the timer is still due
+            TimerAlarmScheduler.recordFire(TimerAlarmScheduler.SOURCE_ALARM, deadline);
+            restoreFromJournal(context);
+            return;
+        }
+        if (engine.getGeneration() != generation || !engine.isRunning()) {
+            TimerLog.record(TimerLog.STALE_ALARM, generation, engine.getGeneration());
+            return;
+        }
+        TimerAlarmScheduler.recordFire(TimerAlarmScheduler.SOURCE_ALARM, deadline);
+        cancelCompletionCallback();
+        completeTimer(context.getApplicationContext());
     }
     
     private static void pauseAudibleOnly(Context context) {
-        Log.d(TAG, "Pausing Audible playbook only - timer continues running");
-        
         // Just pause Audible, don't touch the timer
         pauseAudible(context);
         
         // No timer state changes - timer keeps running
         // No notification of pause to React Native - timer state unchanged
-        Log.d(TAG, "Audible paused, timer continues running");
     }
     
     private static void pauseTimer(Context context) {
-        if (timerHandler != null && timerRunnable != null) {
-            timerHandler.removeCallbacks(timerRunnable);
+        TimerEngine engine = timerActor.engine();
+        if (engine.pause()) {
+            cancelCompletion(context);
             
-            // Calculate remaining time
-            long elapsed = System.currentTimeMillis() - timerStartTime;
-            pausedTimeRemaining = timerDuration - elapsed;
-            if (pausedTimeRemaining < 0) pausedTimeRemaining = 0;
+            long pausedTimeRemaining = engine.getRemainingMs();
+            TimerLog.record(TimerLog.TIMER_PAUSED, pausedTimeRemaining, engine.getGeneration());
+            SessionHistoryStore.record(SessionHistory.PAUSED, pausedTimeRemaining, engine.getGeneration());
             
-            timerPaused = true;
-            Log.d(TAG, "Timer paused with " + pausedTimeRemaining + "ms remaining");
-            
-            // Notify React Native about timer pause
-            try {
-                Class<?> clazz = Class.forName("com.sleeptimer.MediaButtonEventModule");
-                clazz.getMethod("sendTimerPausedEvent").invoke(null);
-            } catch (Exception e) {
-                Log.e(TAG, "Failed to emit timer paused event to JS", e);
-            }
+            // Notify React Native about the timer transition
+            publishTimerState();
             
             // Stop notification updates and update notification with paused status
             stopNotificationUpdates();
@@ -276,33 +405,23 @@ public class MediaButtonReceiver extends BroadcastReceiver {
     }
     
     private static void resumeAudibleOnly(Context context) {
-        Log.d(TAG, "Resuming Audible playback only - timer already running");
-        
         // Just send a simple play command without heavy MediaSession manipulation
         sendPlayCommandToAudible(context);
-        
-        Log.d(TAG, "Sent resume command to Audible, timer continues running");
     }
     
     private static void resumeTimer(Context context) {
-        if (timerPaused) {
-            timerPaused = false;
-            timerStartTime = System.currentTimeMillis();
-            
+        TimerEngine engine = timerActor.engine();
+        if (engine.resume()) {
             // Start Audible again
             startAudible(context);
             
-            // Notify React Native about timer resume
-            try {
-                Class<?> clazz = Class.forName("com.sleeptimer.MediaButtonEventModule");
-                clazz.getMethod("sendTimerResumedEvent").invoke(null);
-            } catch (Exception e) {
-                Log.e(TAG, "Failed to emit timer resumed event to JS", e);
-            }
+            // Notify React Native about the timer transition
+            publishTimerState();
             
             // Resume the timer with remaining time
             startTimer(context);
-            Log.d(TAG, "Timer resumed with " + pausedTimeRemaining + "ms remaining");
+            TimerLog.record(TimerLog.TIMER_RESUMED, engine.getRemainingMs(), engine.getGeneration());
+            SessionHistoryStore.record(SessionHistory.RESUMED, engine.getRemainingMs(), engine.getGeneration());
             
             // Restart notification updates
             startNotificationUpdates(context);
@@ -310,264 +429,347 @@ public class MediaButtonReceiver extends BroadcastReceiver {
     }
     
     private static void completeTimer(Context context) {
-        // Deactivate our media session BEFORE starting pause process
-        if (mediaSession != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            mediaSession.setActive(false);
-            Log.d(TAG, "Deactivated media session before pause process");
-        }
+        TimerEngine engine = timerActor.engine();
+        PressTrace.beginSection("completeTimer");
+        try {
+            cancelCompletion(context);
         
-        pauseAudible(context);
+            // Deactivate our media session BEFORE starting pause process; this also drops any
+            // reactivation still queued by an earlier play press
+            setSessionActive(false);
         
-        // Notify React Native that timer completed
-        try {
-            Class<?> clazz = Class.forName("com.sleeptimer.MediaButtonEventModule");
-            clazz.getMethod("sendTimerCompletedEvent").invoke(null);
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to emit timer completed event to JS", e);
-        }
+            pauseAudible(context);
+        
+            // Reset timer state
+            long completedGeneration = engine.getGeneration();
+            engine.complete();
+            TimerLog.record(TimerLog.TIMER_COMPLETED, completedGeneration);
+            SessionHistoryStore.record(SessionHistory.COMPLETED, completedGeneration, 0);
         
-        // Reset timer state
-        timerRunning = false;
-        timerPaused = false;
-        pausedTimeRemaining = 0;
-        Log.d(TAG, "Timer completed and reset");
+            // Notify React Native about the timer transition
+            publishTimerState();
         
-        // Stop notification updates and update notification
-        stopNotificationUpdates();
-        ForegroundService.updateNotification("Timer completed", 0);
+            // Stop notification updates and update notification
+            stopNotificationUpdates();
+            ForegroundService.updateNotification("Timer completed", 0);
+            ProcessMemory.log("Timer completed");
+            WakeupCounters.writeAsync(context != null ? context : applicationContext);
+        } finally {
+            PressTrace.endSection();
+        }
     }
     
     private static void startAudible(Context context) {
-        Log.d(TAG, "Attempting to start Audible playbook - ensuring app opens");
-        
+        PressTrace.beginSection("startAudible");
         try {
-            Intent launchIntent = context.getPackageManager().getLaunchIntentForPackage("com.audible.application");
-            if (launchIntent != null) {
-                launchIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
-                context.startActivity(launchIntent);
-                Log.d(TAG, "Successfully launched Audible app");
-                
-                // Send play command after a short delay to ensure app is ready
-                new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
-                    if (mediaSession != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                        mediaSession.setActive(false);
-                        Log.d(TAG, "Deactivated media session before sending play command");
-                    }
-                    
-                    new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
-                        sendPlayCommandToAudible(context);
-                        
-                        new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
-                            if (mediaSession != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                                mediaSession.setActive(true);
-                                Log.d(TAG, "Reactivated media session after sending play command");
-                            }
-                        }, 1000);
-                    }, 200);
-                }, 1500);
-            } else {
-                Log.e(TAG, "Audible app not found - cannot launch");
-                // Still try to send play command in case app is installed but launch intent failed
-                sendPlayCommandToAudible(context);
+        
+            // Fast path: Audible already has a session, so just tell it to play
+            if (AudibleController.play()) {
+                TimerLog.record(TimerLog.AUDIBLE_PLAY, TimerLog.PATH_SESSION);
+                return;
             }
-        } catch (Exception e) {
-            Log.e(TAG, "Error launching Audible app", e);
-            // Fallback: try to send play command anyway
+        
             try {
-                sendPlayCommandToAudible(context);
-                Log.d(TAG, "Sent fallback play command to Audible");
-            } catch (Exception fallbackError) {
-                Log.e(TAG, "Fallback play command also failed", fallbackError);
+                // Cached by the registry, so no PackageManager call on the press
+                Intent launchIntent = PlayerTargetRegistry.getLaunchIntent(context);
+                if (launchIntent != null) {
+                    launchIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+                    context.startActivity(launchIntent);
+                    StartupTiming.markCommandSent("launch");
+                    TimerLog.record(TimerLog.AUDIBLE_PLAY, TimerLog.PATH_LAUNCH);
+                    // Covers the wait for Audible to come up, until the play command goes out
+                    int pressCookie = PressTrace.currentPress();
+                    PressTrace.beginAsyncStep("audibleLaunchDelay", pressCookie);
+                
+                    // Send play command after a short delay to ensure app is ready. Step aside
+                    // while it goes out, then take the session back. A newer press, a pause or the
+                    // timer completing cancels the rest of this sequence
+                    Runnable sendPlay = () -> {
+                        PressTrace.endAsyncStep("audibleLaunchDelay", pressCookie);
+                        sendPlayCommandToAudible(context);
+                    };
+                    SessionActivationScheduler scheduler = sessionActivation;
+                    cancelLaunchSequence();
+                    if (scheduler != null) {
+                        scheduler.setActiveDelayed(false, LAUNCH_SETTLE_MS);
+                        scheduler.postDelayed(sendPlay, LAUNCH_SETTLE_MS + PLAY_AFTER_DEACTIVATE_MS);
+                        scheduler.setActiveDelayed(true, LAUNCH_SETTLE_MS + PLAY_AFTER_DEACTIVATE_MS + REACTIVATE_AFTER_PLAY_MS);
+                    } else {
+                        if (launchHandler == null) {
+                            launchHandler = new android.os.Handler(android.os.Looper.getMainLooper());
+                        }
+                        pendingLaunchPlay = () -> {
+                            pendingLaunchPlay = null;
+                            sendPlay.run();
+                        };
+                        launchHandler.postDelayed(pendingLaunchPlay, LAUNCH_SETTLE_MS + PLAY_AFTER_DEACTIVATE_MS);
+                        WakeupCounters.count(WakeupCounters.MAIN_LOOPER_POSTS);
+                    }
+                } else {
+                    Log.e(TAG, "Audible app not found - cannot launch");
+                    // Still try to send play command in case app is installed but launch intent failed
+                    sendPlayCommandToAudible(context);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Error launching Audible app", e);
+                // Fallback: try to send play command anyway
+                try {
+                    sendPlayCommandToAudible(context);
+                } catch (Exception fallbackError) {
+                    Log.e(TAG, "Fallback play command also failed", fallbackError);
+                }
             }
+        } finally {
+            PressTrace.endSection();
         }
     }
     
     private static void sendPlayCommandToAudible(Context context) {
+        PressTrace.beginSection("sendPlayCommandToAudible");
         try {
-            Log.d(TAG, "Sending play command to Audible");
-            
-            Intent playIntent = new Intent("android.intent.action.MEDIA_BUTTON");
-            playIntent.setPackage("com.audible.application");
-            
-            long eventTime = System.currentTimeMillis();
-            android.view.KeyEvent playEvent = new android.view.KeyEvent(
-                eventTime, eventTime, android.view.KeyEvent.ACTION_DOWN, 
-                android.view.KeyEvent.KEYCODE_MEDIA_PLAY, 0);
-            
-            playIntent.putExtra(Intent.EXTRA_KEY_EVENT, playEvent);
-            context.sendBroadcast(playIntent);
-            Log.d(TAG, "Sent direct intent to Audible");
-            
-            android.view.KeyEvent playUpEvent = new android.view.KeyEvent(
-                eventTime, eventTime, android.view.KeyEvent.ACTION_UP, 
-                android.view.KeyEvent.KEYCODE_MEDIA_PLAY, 0);
-            playIntent.putExtra(Intent.EXTRA_KEY_EVENT, playUpEvent);
-            context.sendBroadcast(playIntent);
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error sending play commands", e);
+            if (AudibleController.play()) {
+                return;
+            }
+        
+            TimerLog.record(TimerLog.AUDIBLE_PLAY, TimerLog.PATH_BROADCAST);
+            MediaCommandExecutor.get().sendMediaButtonBroadcast(
+                context, PlayerTargetRegistry.getTargetPackage(), android.view.KeyEvent.KEYCODE_MEDIA_PLAY);
+        } finally {
+            PressTrace.endSection();
+        }
+    }
+    
+    // Drops what is left of a launch sequence: its delayed play and session hand-over
+    private static void cancelLaunchSequence() {
+        if (sessionActivation != null) {
+            sessionActivation.newGeneration();
+        }
+        if (pendingLaunchPlay != null) {
+            launchHandler.removeCallbacks(pendingLaunchPlay);
+            pendingLaunchPlay = null;
         }
     }
     
     private static void pauseAudible(Context context) {
-        Log.d(TAG, "Attempting to pause Audible");
-        
+        PressTrace.beginSection("pauseAudible");
         try {
-            Intent pauseIntent = new Intent("android.intent.action.MEDIA_BUTTON");
-            pauseIntent.setPackage("com.audible.application");
-            
-            long eventTime = System.currentTimeMillis();
-            
-            android.view.KeyEvent pauseEvent = new android.view.KeyEvent(
-                eventTime, eventTime, android.view.KeyEvent.ACTION_DOWN, 
-                android.view.KeyEvent.KEYCODE_MEDIA_PAUSE, 0);
-            pauseIntent.putExtra(Intent.EXTRA_KEY_EVENT, pauseEvent);
-            context.sendBroadcast(pauseIntent);
-            
-            android.view.KeyEvent pauseUpEvent = new android.view.KeyEvent(
-                eventTime, eventTime, android.view.KeyEvent.ACTION_UP, 
-                android.view.KeyEvent.KEYCODE_MEDIA_PAUSE, 0);
-            pauseIntent.putExtra(Intent.EXTRA_KEY_EVENT, pauseUpEvent);
-            context.sendBroadcast(pauseIntent);
-            
-            Log.d(TAG, "Sent direct pause intent to Audible");
-            
-            new android.os.Handler(android.os.Looper.getMainLooper()).postDelayed(() -> {
-                if (mediaSession != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                    mediaSession.setActive(true);
-                    Log.d(TAG, "Reactivated media session after pause delay");
-                }
-            }, 2000);
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error in pauseAudible", e);
+            // A pause, from a press or the timer, wins over a play still queued by a launch
+            cancelLaunchSequence();
+            // One command, escalated only while the player still reports playing
+            SessionActivationScheduler scheduler = sessionActivation;
+            if (scheduler == null) {
+                PauseDelivery.request(context, "timer", null);
+                return;
+            }
+            // Take media-button priority back once the player has stopped, unless something
+            // newer (a play press) has taken over the session in the meantime
+            long generation = scheduler.getGeneration();
+            PauseDelivery.request(context, "timer", () ->
+                scheduler.post(() -> scheduler.setActiveIfCurrent(true, generation)));
+        } finally {
+            PressTrace.endSection();
         }
     }
     
     private static void goToPreviousChapter(Context context) {
-        Log.d(TAG, "Attempting to go to previous chapter in Audible");
         
-        try {
-            Intent prevIntent = new Intent("android.intent.action.MEDIA_BUTTON");
-            prevIntent.setPackage("com.audible.application");
-            
-            long eventTime = System.currentTimeMillis();
-            
-            // Send MEDIA_PREVIOUS key event to go to previous chapter
-            android.view.KeyEvent prevEvent = new android.view.KeyEvent(
-                eventTime, eventTime, android.view.KeyEvent.ACTION_DOWN, 
-                android.view.KeyEvent.KEYCODE_MEDIA_PREVIOUS, 0);
-            prevIntent.putExtra(Intent.EXTRA_KEY_EVENT, prevEvent);
-            context.sendBroadcast(prevIntent);
-            
-            android.view.KeyEvent prevUpEvent = new android.view.KeyEvent(
-                eventTime, eventTime, android.view.KeyEvent.ACTION_UP, 
-                android.view.KeyEvent.KEYCODE_MEDIA_PREVIOUS, 0);
-            prevIntent.putExtra(Intent.EXTRA_KEY_EVENT, prevUpEvent);
-            context.sendBroadcast(prevIntent);
-            
-            Log.d(TAG, "Sent previous chapter command to Audible");
-            
-        } catch (Exception e) {
-            Log.e(TAG, "Error sending previous chapter command", e);
+        if (AudibleController.skipToPrevious()) {
+            TimerLog.record(TimerLog.PREVIOUS_CHAPTER, 1);
+            return;
         }
+        
+        // Send MEDIA_PREVIOUS key event to go to previous chapter
+        MediaCommandExecutor.get().sendMediaButtonBroadcast(
+            context, PlayerTargetRegistry.getTargetPackage(), android.view.KeyEvent.KEYCODE_MEDIA_PREVIOUS);
+        TimerLog.record(TimerLog.PREVIOUS_CHAPTER, 0);
+    }
+    
+    private static void goToNextChapter(Context context) {
+        if (AudibleController.skipToNext()) {
+            TimerLog.record(TimerLog.NEXT_CHAPTER, 1);
+            return;
+        }
+        MediaCommandExecutor.get().sendMediaButtonBroadcast(
+            context, PlayerTargetRegistry.getTargetPackage(), android.view.KeyEvent.KEYCODE_MEDIA_NEXT);
+        TimerLog.record(TimerLog.NEXT_CHAPTER, 0);
     }
     
     public static void triggerStartAudible(Context context) {
-        Log.d(TAG, "triggerStartAudible called from React Native module");
-        startAudible(context);
+        PressTrace.beginPress("app");
+        // Called from the React Native modules thread; the launch sequence belongs on the main looper
+        timerActor.execute(engine -> startAudible(context));
     }
     
     public static void triggerPreviousChapter(Context context) {
-        Log.d(TAG, "triggerPreviousChapter called from MainActivity");
-        goToPreviousChapter(context);
+        timerActor.execute(engine -> goToPreviousChapter(context));
     }
     
     private static void startNotificationUpdates(Context context) {
-        notificationUpdateHandler = new android.os.Handler(android.os.Looper.getMainLooper());
-        notificationUpdateRunnable = new Runnable() {
-            @Override
-            public void run() {
-                updateNotificationWithRemainingTime(context);
-                // Schedule next update in 1 second for real-time countdown
-                if (timerRunning && !timerPaused) {
-                    notificationUpdateHandler.postDelayed(this, 1000);
-                }
-            }
-        };
-        // Start immediately
-        notificationUpdateHandler.post(notificationUpdateRunnable);
+        // The notification chronometer counts down on its own, so one post per transition is enough
+        updateNotificationWithRemainingTime(context);
     }
     
     private static void stopNotificationUpdates() {
-        if (notificationUpdateHandler != null && notificationUpdateRunnable != null) {
-            notificationUpdateHandler.removeCallbacks(notificationUpdateRunnable);
-        }
+        // Nothing scheduled - the countdown is replaced by the next status update
     }
     
     private static void updateNotificationWithRemainingTime(Context context) {
-        if (timerRunning && !timerPaused) {
-            long elapsed = System.currentTimeMillis() - timerStartTime;
-            long remaining = timerDuration - elapsed;
-            if (remaining < 0) remaining = 0;
-            
-            ForegroundService.updateNotification("Timer Running", remaining);
+        TimerEngine engine = timerActor.engine();
+        if (engine.isRunning()) {
+            ForegroundService.updateCountdownNotification("Timer Running", engine.getRemainingMs());
         }
     }
     
+    // Safe from any thread, e.g. the React Native modules thread; runs on the main looper
     public static void updateRunningTimerDuration(android.content.Context context) {
-        if (timerRunning && !timerPaused) {
-            Log.d(TAG, "Updating running timer with new duration");
-            
-            // Calculate how much time has already elapsed
-            long elapsed = System.currentTimeMillis() - timerStartTime;
+        timerActor.execute(engine -> updateRunningTimerDurationOnWriter(context, engine));
+    }
+    
+    private static void updateRunningTimerDurationOnWriter(Context context, TimerEngine engine) {
+        if (engine.isRunning()) {
             
             // Get the new timer duration
-            long newTimerDuration = TimerConfigModule.getTimerDurationSeconds() * 1000;
-            
-            // Cancel the current timer
-            if (timerHandler != null && timerRunnable != null) {
-                timerHandler.removeCallbacks(timerRunnable);
-            }
+            long newTimerDuration = TimerConfigStore.get().getDurationSeconds() * 1000L;
             
-            // Update timer duration and restart time
-            timerDuration = newTimerDuration;
-            timerStartTime = System.currentTimeMillis(); // Reset start time to now
+            // Restart the countdown from now with the new duration
+            engine.updateDuration(newTimerDuration);
             
             // Restart the timer with the new duration
             startTimer(context);
+            updateNotificationWithRemainingTime(context);
             
-            Log.d(TAG, "Timer updated - new duration: " + (newTimerDuration / 1000) + " seconds");
+            TimerLog.record(TimerLog.DURATION_UPDATED, newTimerDuration, engine.getGeneration());
+            SessionHistoryStore.record(SessionHistory.EXTENDED, newTimerDuration, engine.getGeneration());
             
             // Update the UI timer as well
+            publishTimerState();
+        } else {
+            // Still persist the configured duration so it survives a restart
+            journalTimerState(engine.snapshot());
+        }
+    }
+    
+    // Called by SleepMonitor with an ActivityScorer state once per sensor batch, from any thread
+    static void onSleepActivity(int activityState) {
+        timerActor.execute(engine -> applySleepActivity(activityState, engine));
+    }
+    
+    private static void applySleepActivity(int activityState, TimerEngine engine) {
+        if (!engine.isRunning()) {
+            return;
+        }
+        long remaining = engine.getRemainingMs();
+        long adjusted = sleepPolicy.adjust(activityState, remaining);
+        if (adjusted == SleepDeadlinePolicy.NO_CHANGE) {
+            return;
+        }
+        engine.adjustRemaining(adjusted);
+        TimerLog.record(TimerLog.SLEEP_ADJUSTED, activityState, adjusted);
+        if (adjusted > remaining) {
+            SessionHistoryStore.record(SessionHistory.EXTENDED, engine.getDurationMs(), engine.getGeneration());
+        }
+        startTimer(null);
+        updateNotificationWithRemainingTime(null);
+        publishTimerState();
+    }
+    
+    private static void publishTimerState() {
+        TimerSnapshot snapshot = timerActor.publish();
+        TimerEvents.get().onTimerStateChanged(snapshot);
+        TickScheduler.onTimerStateChanged(snapshot);
+        journalTimerState(snapshot);
+    }
+    
+    // Persist on every transition (never per tick) so a killed process can pick the timer back up
+    private static void journalTimerState(TimerSnapshot snapshot) {
+        if (timerJournal == null) {
+            return;
+        }
+        int configDurationSeconds = TimerConfigStore.get().getDurationSeconds();
+        long wallMs = System.currentTimeMillis();
+        IoExecutor.get().execute("journal", () -> {
             try {
-                Class<?> clazz = Class.forName("com.sleeptimer.MediaButtonEventModule");
-                clazz.getMethod("sendTimerUpdatedEvent", long.class).invoke(null, newTimerDuration / 1000);
-            } catch (Exception e) {
-                Log.w(TAG, "Could not send timer updated event to React Native", e);
+                timerJournal.write(snapshot, configDurationSeconds, bootCount, wallMs);
+            } catch (java.io.IOException e) {
+                Log.e(TAG, "Failed to write timer journal", e);
             }
-        }
+        });
     }
     
-    public static long getRemainingTimeSeconds() {
-        if (!timerRunning) {
-            return 0;
+    static void restoreFromJournal(Context context) {
+        TimerEngine engine = timerActor.engine();
+        long start = SystemClock.elapsedRealtime();
+        if (timerJournal == null) {
+            timerJournal = new TimerJournal(new File(context.getNoBackupFilesDir(), JOURNAL_FILE));
+            bootCount = Settings.Global.getInt(context.getContentResolver(), Settings.Global.BOOT_COUNT, 0);
+            SessionHistoryStore.init(context);
         }
-        
-        if (timerPaused) {
-            return pausedTimeRemaining / 1000; // Convert to seconds
+        TimerJournal.Record record = timerJournal.read();
+        if (record == null) {
+            return;
+        }
+        if (!TimerConfigStore.wasLoadedFromFile() && record.configDurationSeconds > 0) {
+            // No config file yet (upgrade from a version that kept it in memory): the journal has it
+            TimerConfigStore.update(config -> config.withDurationSeconds(record.configDurationSeconds), true);
+        }
+        TimerJournal.Restored restored = record.restoreInto(engine, bootCount,
+                SystemClock.elapsedRealtime(), System.currentTimeMillis());
+        if (restored == TimerJournal.Restored.SKIPPED) {
+            return;
         }
+        Log.d(TAG, "Restored " + record.state + " timer as " + restored + " with " + engine.getRemainingMs()
+                + "ms remaining in " + (SystemClock.elapsedRealtime() - start) + "ms");
         
-        long elapsed = System.currentTimeMillis() - timerStartTime;
-        long remaining = timerDuration - elapsed;
-        return Math.max(0, remaining / 1000); // Convert to seconds and ensure non-negative
+        if (restored == TimerJournal.Restored.EXPIRED) {
+            // The deadline passed while we were dead - Audible has been playing on, stop it now
+            completeTimer(context.getApplicationContext());
+            return;
+        }
+        if (restored == TimerJournal.Restored.RUNNING) {
+            startTimer(context);
+        }
+        publishTimerState();
+    }
+    
+    // Re-posts the notification for the current state, e.g. after startForeground reset it
+    static void refreshNotification() {
+        TimerEngine engine = timerActor.engine();
+        if (engine.isRunning()) {
+            ForegroundService.updateCountdownNotification("Timer Running", engine.getRemainingMs());
+        } else if (engine.isPaused()) {
+            ForegroundService.updateNotification("Timer Paused", engine.getRemainingMs());
+        }
+    }
+    
+    // Readers below are safe from any thread: they only see the published snapshot
+    public static TimerSnapshot getTimerSnapshot() {
+        return timerActor.snapshotNow();
+    }
+    
+    public static long getRemainingTimeSeconds() {
+        return timerActor.snapshotNow().remainingMs / 1000; // Convert to seconds
     }
     
     public static boolean isTimerRunning() {
-        return timerRunning;
+        return timerActor.snapshot().isActive();
     }
     
     public static boolean isTimerPaused() {
-        return timerPaused;
+        return timerActor.snapshot().isPaused();
+    }
+    
+    private static final class MainLooperWriter implements TimerActor.WriterThread {
+        private final android.os.Handler handler = new android.os.Handler(android.os.Looper.getMainLooper());
+        
+        @Override
+        public boolean isCurrent() {
+            return android.os.Looper.myLooper() == android.os.Looper.getMainLooper();
+        }
+        
+        @Override
+        public void execute(Runnable command) {
+            handler.post(command);
+            WakeupCounters.count(WakeupCounters.MAIN_LOOPER_POSTS);
+        }
     }
 }
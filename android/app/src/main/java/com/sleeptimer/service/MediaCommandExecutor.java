@@ -0,0 +1,168 @@
+package com.sleeptimer.service;
+
+import android.content.Context;
+import android.content.Intent;
+import android.media.AudioManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.KeyEvent;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single background thread for every outbound media command (key events, broadcasts, transport
+ * controls), so nothing that talks to other apps runs on the main thread. Disk IO goes to
+ * {@link IoExecutor} instead, so it never delays a command.
+ *
+ * Key down/up pairs are scheduled with postDelayed instead of sleeping. Idempotent commands (play,
+ * pause) go through {@link #executeCoalesced} and are dropped while an identical one is still
+ * queued, so a burst of duplicate presses turns into one command. {@link #logMetrics} logs per
+ * command wait and run times, the queue depth and the pause delivery stats.
+ */
+public class MediaCommandExecutor {
+    private static final String TAG = "MediaCommandExecutor";
+    private static final long KEY_UP_DELAY_MS = 50;
+    private static MediaCommandExecutor instance;
+
+    private final Handler handler;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final Set<String> pendingCoalesced = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger coalescedDrops = new AtomicInteger();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    // Only touched on the executor thread
+    private final Map<String, long[]> latencyStats = new HashMap<>(); // name -> {count, totalWaitMs, maxWaitMs, totalRunMs}
+
+    public static synchronized MediaCommandExecutor get() {
+        if (instance == null) {
+            instance = new MediaCommandExecutor();
+        }
+        return instance;
+    }
+
+    private MediaCommandExecutor() {
+        HandlerThread thread = new HandlerThread("MediaCommands");
+        thread.start();
+        handler = new Handler(thread.getLooper());
+    }
+
+    public void execute(String name, Runnable command) {
+        executeDelayed(name, command, 0);
+    }
+
+    public void executeDelayed(String name, Runnable command, long delayMs) {
+        maxQueueDepth.accumulateAndGet(queueDepth.incrementAndGet(), Math::max);
+        long enqueuedAt = SystemClock.uptimeMillis() + delayMs;
+        handler.postDelayed(() -> run(name, command, enqueuedAt), delayMs);
+    }
+
+    // Drops the command if one with the same name is queued and has not started yet
+    public boolean executeCoalesced(String name, Runnable command) {
+        if (!pendingCoalesced.add(name)) {
+            coalescedDrops.incrementAndGet();
+            Log.d(TAG, "Coalesced duplicate command: " + name);
+            return false;
+        }
+        execute(name, () -> {
+            pendingCoalesced.remove(name);
+            command.run();
+        });
+        return true;
+    }
+
+    private void run(String name, Runnable command, long dueAt) {
+        queueDepth.decrementAndGet();
+        WakeupCounters.count(WakeupCounters.MEDIA_COMMANDS);
+        long start = SystemClock.uptimeMillis();
+        PressTrace.beginSection(name);
+        try {
+            command.run();
+        } catch (Exception e) {
+            Log.e(TAG, "Media command failed: " + name, e);
+        } finally {
+            PressTrace.endSection();
+        }
+        long end = SystemClock.uptimeMillis();
+
+        long[] stats = latencyStats.get(name);
+        if (stats == null) {
+            stats = new long[4];
+            latencyStats.put(name, stats);
+        }
+        long waitMs = Math.max(0, start - dueAt);
+        stats[0]++;
+        stats[1] += waitMs;
+        stats[2] = Math.max(stats[2], waitMs);
+        stats[3] += end - start;
+    }
+
+    // Dispatches key down now and key up after a short delay, then runs onDone (may be null)
+    public void dispatchMediaKey(AudioManager audioManager, int keyCode, Runnable onDone) {
+        execute("key:" + keyCode, () -> {
+            long eventTime = SystemClock.uptimeMillis();
+            audioManager.dispatchMediaKeyEvent(new KeyEvent(eventTime, eventTime, KeyEvent.ACTION_DOWN, keyCode, 0));
+            executeDelayed("keyUp:" + keyCode, () -> {
+                audioManager.dispatchMediaKeyEvent(new KeyEvent(eventTime, eventTime, KeyEvent.ACTION_UP, keyCode, 0));
+                if (onDone != null) {
+                    onDone.run();
+                }
+            }, KEY_UP_DELAY_MS);
+        });
+    }
+
+    // Sends a MEDIA_BUTTON down/up broadcast pair to one package. A play or pause that is already
+    // queued for the same package is not sent twice
+    public void sendMediaButtonBroadcast(Context context, String targetPackage, int keyCode) {
+        Context appContext = context.getApplicationContext();
+        String name = "broadcast:" + keyCode + ":" + targetPackage;
+        Runnable send = () -> {
+            Intent intent = new Intent(Intent.ACTION_MEDIA_BUTTON);
+            intent.setPackage(targetPackage);
+
+            long eventTime = SystemClock.uptimeMillis();
+            intent.putExtra(Intent.EXTRA_KEY_EVENT, new KeyEvent(eventTime, eventTime, KeyEvent.ACTION_DOWN, keyCode, 0));
+            appContext.sendBroadcast(intent);
+
+            intent.putExtra(Intent.EXTRA_KEY_EVENT, new KeyEvent(eventTime, eventTime, KeyEvent.ACTION_UP, keyCode, 0));
+            appContext.sendBroadcast(intent);
+            WakeupCounters.count(WakeupCounters.BROADCASTS, 2);
+            StartupTiming.markCommandSent("broadcast:" + keyCode);
+            PressTrace.endPress("broadcast:" + keyCode);
+        };
+        if (keyCode == KeyEvent.KEYCODE_MEDIA_PLAY || keyCode == KeyEvent.KEYCODE_MEDIA_PAUSE) {
+            executeCoalesced(name, send);
+        } else {
+            execute(name, send);
+        }
+    }
+
+    // Must be called on the executor thread, e.g. from inside a command
+    private String formatLatencyStats() {
+        StringBuilder report = new StringBuilder("Media command latency:");
+        for (Map.Entry<String, long[]> entry : latencyStats.entrySet()) {
+            long[] stats = entry.getValue();
+            report.append(' ').append(entry.getKey())
+                  .append(" n=").append(stats[0])
+                  .append(" avgWait=").append(stats[1] / stats[0]).append("ms")
+                  .append(" maxWait=").append(stats[2]).append("ms")
+                  .append(" avgRun=").append(stats[3] / stats[0]).append("ms");
+        }
+        report.append(" | queue now=").append(queueDepth.get())
+              .append(" max=").append(maxQueueDepth.get())
+              .append(" coalesced=").append(coalescedDrops.get());
+        return report.toString();
+    }
+
+    // Queued behind whatever is pending, so the report includes it; called when the service stops
+    public void logMetrics() {
+        execute("metrics", () -> {
+            Log.d(TAG, formatLatencyStats());
+            Log.d(TAG, PauseDelivery.formatStats());
+        });
+    }
+}
@@ -0,0 +1,180 @@
+package com.sleeptimer.service;
+
+import android.app.Notification;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import androidx.core.app.NotificationCompat;
+import com.sleeptimer.timer.NotificationPostFilter;
+import com.sleeptimer.timer.TimerConfig;
+
+/**
+ * Renders the foreground service notification.
+ *
+ * The builder, actions and content intent are created once per service lifetime. Each render only
+ * changes the text (or the countdown chronometer), and {@link #post} skips the NotificationManager
+ * call entirely when nothing visible has changed ({@link NotificationPostFilter}). The preset
+ * actions are the first {@link #NOTIFICATION_PRESETS} entries of the configured preset list and
+ * are rebuilt only when that list changes.
+ */
+class NotificationRenderer {
+    private static final String TITLE = "Sleep Timer";
+    private static final String BIG_TEXT_FOOTER = "\n\nReset Timer: Use buttons below to change duration";
+    // Room for Close App plus these in the collapsed notification
+    private static final int NOTIFICATION_PRESETS = 2;
+
+    private final Context context;
+    private final NotificationManager manager;
+    private final NotificationCompat.Builder builder;
+    private final NotificationCompat.BigTextStyle bigTextStyle;
+    private final PendingIntent closePendingIntent;
+
+    private final NotificationPostFilter filter = new NotificationPostFilter();
+    private String appliedText; // the builder's current content text
+    private int notifyCount;
+
+    NotificationRenderer(Context context, String channelId, TimerConfig config) {
+        this.context = context;
+        manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+
+        // Create close app intent
+        Intent closeIntent = new Intent(context, CloseAppReceiver.class);
+        closeIntent.setAction(CloseAppReceiver.ACTION_CLOSE_APP);
+        closePendingIntent = PendingIntent.getBroadcast(
+            context, 1, closeIntent, PendingIntent.FLAG_IMMUTABLE
+        );
+
+        Intent notificationIntent = new Intent(context, com.sleeptimer.MainActivity.class);
+        PendingIntent contentIntent = PendingIntent.getActivity(
+            context, 0, notificationIntent, PendingIntent.FLAG_IMMUTABLE
+        );
+
+        bigTextStyle = new NotificationCompat.BigTextStyle().setBigContentTitle(TITLE);
+
+        builder = new NotificationCompat.Builder(context, channelId)
+                .setContentTitle(TITLE)
+                .setSmallIcon(android.R.drawable.ic_lock_idle_alarm)
+                .setOngoing(true)
+                .setOnlyAlertOnce(true)
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .setCategory(NotificationCompat.CATEGORY_SERVICE)
+                .setAutoCancel(false)
+                .setContentIntent(contentIntent);
+        addActions(config);
+    }
+
+    /**
+     * Rebuilds the preset actions from a changed config and re-posts the notification in place,
+     * keeping its current text or countdown.
+     */
+    void setPresets(int notificationId, TimerConfig config) {
+        addActions(config);
+        notify(notificationId, builder.build());
+    }
+
+    /**
+     * Builds a notification with static text. A positive remaining time is rendered once into the
+     * text (used for the paused state).
+     */
+    Notification render(String status, long remainingTimeMs) {
+        String contentText = NotificationPostFilter.contentText(status, remainingTimeMs);
+        filter.shownText(contentText);
+        return buildText(contentText);
+    }
+
+    /**
+     * Posts a static-text notification, skipping the binder call when the text is unchanged.
+     *
+     * @return true if the notification was re-posted
+     */
+    boolean post(int notificationId, String status, long remainingTimeMs) {
+        String contentText = filter.postStatus(status, remainingTimeMs);
+        if (contentText == null) {
+            return false;
+        }
+        return notify(notificationId, buildText(contentText));
+    }
+
+    /**
+     * Posts a countdown notification, skipping the binder call when the same deadline is already
+     * showing.
+     *
+     * @return true if the notification was re-posted
+     */
+    boolean postCountdown(int notificationId, String status, long remainingTimeMs) {
+        long deadlineWallMs = filter.postRemaining(status, remainingTimeMs, System.currentTimeMillis());
+        if (deadlineWallMs == NotificationPostFilter.NO_POST) {
+            return false;
+        }
+        return notify(notificationId, buildCountdown(status, deadlineWallMs));
+    }
+
+    int getNotifyCount() {
+        return notifyCount;
+    }
+
+    int getSkippedCount() {
+        return filter.getSkippedCount();
+    }
+
+    private Notification buildText(String contentText) {
+        applyText(contentText);
+        builder.setUsesChronometer(false)
+                .setChronometerCountDown(false)
+                .setShowWhen(false);
+        return builder.build();
+    }
+
+    // The system chronometer counts down to the deadline, so the running state needs no further
+    // updates until the next transition
+    private Notification buildCountdown(String status, long deadlineWallMs) {
+        applyText(status);
+        builder.setWhen(deadlineWallMs)
+                .setShowWhen(true)
+                .setUsesChronometer(true)
+                .setChronometerCountDown(true);
+        return builder.build();
+    }
+
+    private boolean notify(int notificationId, Notification notification) {
+        if (manager == null) {
+            return false;
+        }
+        manager.notify(notificationId, notification);
+        notifyCount++;
+        WakeupCounters.count(WakeupCounters.NOTIFICATIONS);
+        return true;
+    }
+
+    private void addActions(TimerConfig config) {
+        builder.clearActions();
+        builder.addAction(android.R.drawable.ic_menu_close_clear_cancel, "Close App", closePendingIntent);
+
+        // Add preset timer buttons
+        int count = Math.min(config.getPresetCount(), NOTIFICATION_PRESETS);
+        for (int i = 0; i < count; i++) {
+            int minutes = config.getPreset(i);
+            Intent presetIntent = new Intent(context, PresetTimerReceiver.class);
+            presetIntent.setAction(PresetTimerReceiver.ACTION_SET_TIMER);
+            presetIntent.putExtra(PresetTimerReceiver.EXTRA_MINUTES, minutes);
+
+            // UPDATE_CURRENT: the system keeps the old PendingIntent, extras included, across changes
+            PendingIntent presetPendingIntent = PendingIntent.getBroadcast(
+                context, 100 + i, presetIntent, PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT
+            );
+
+            builder.addAction(android.R.drawable.ic_menu_recent_history, minutes + "m", presetPendingIntent);
+        }
+    }
+
+    private void applyText(String contentText) {
+        if (contentText.equals(appliedText)) {
+            return;
+        }
+        builder.setContentText(contentText);
+        bigTextStyle.bigText(contentText + BIG_TEXT_FOOTER);
+        builder.setStyle(bigTextStyle);
+        appliedText = contentText;
+    }
+}
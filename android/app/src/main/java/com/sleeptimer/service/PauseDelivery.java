@@ -0,0 +1,193 @@
+package com.sleeptimer.service;
+
+import android.content.Context;
+import android.media.AudioManager;
+import android.media.session.PlaybackState;
+import android.util.Log;
+import android.view.KeyEvent;
+import com.sleeptimer.timer.SessionHistory;
+
+/**
+ * Gets the target player paused with as few commands as possible.
+ *
+ * A pause sends one command, then watches the player's PlaybackState (through
+ * {@link AudibleController}) and only escalates, with exponential backoff, while it still reports
+ * playing: session pause or targeted broadcast, then a second targeted broadcast, then audio focus
+ * plus a PAUSE key, then a STOP key. Requests arriving while a pause is in flight join it instead of
+ * sending their own commands.
+ *
+ * Without notification access the state cannot be observed, so a single targeted broadcast plus
+ * transient audio focus is sent once and the pause is reported as unconfirmed.
+ *
+ * All state is confined to the media command thread.
+ */
+public class PauseDelivery {
+    private static final String TAG = "PauseDelivery";
+    // Wait after each command before checking; bounded, so the worst case is about 4.5 s
+    private static final long[] BACKOFF_MS = {300, 600, 1200, 2400};
+
+    public static final int OUTCOME_GAVE_UP = 0;
+    public static final int OUTCOME_ACKNOWLEDGED = 1;
+    public static final int OUTCOME_UNOBSERVED = 2;
+
+    // Request audio focus to signal other apps to pause - we do nothing when it changes
+    private static final AudioManager.OnAudioFocusChangeListener afChangeListener = focusChange -> { };
+
+    private static boolean inFlight;
+    private static int attempts;
+    private static Runnable[] waiters = new Runnable[4];
+    private static int waiterCount;
+
+    private static int deliveries;
+    private static int totalCommands;
+    private static int maxCommands;
+    private static int acknowledged;
+    private static int gaveUp;
+    private static int joined;
+
+    /**
+     * Pauses the target player. {@code onDone} (may be null) runs on the media command thread once
+     * the pause is confirmed, unobservable or given up on.
+     */
+    public static void request(Context context, String source, Runnable onDone) {
+        Context appContext = context.getApplicationContext();
+        MediaCommandExecutor.get().execute("pause:" + source, () -> {
+            addWaiter(onDone);
+            if (inFlight) {
+                joined++;
+                return;
+            }
+            inFlight = true;
+            attempts = 0;
+            attempt(appContext);
+        });
+    }
+
+    private static void attempt(Context context) {
+        boolean observable = AudibleController.isConnected();
+        if (observable && !isPlaying(AudibleController.getPlaybackState())) {
+            finish(OUTCOME_ACKNOWLEDGED);
+            return;
+        }
+        if (!observable && attempts == 0) {
+            sendCommand(context, 0);
+            requestFocus(context);
+            attempts = 2;
+            finish(OUTCOME_UNOBSERVED);
+            return;
+        }
+        if (attempts >= BACKOFF_MS.length) {
+            finish(OUTCOME_GAVE_UP);
+            return;
+        }
+        sendCommand(context, attempts);
+        long delay = BACKOFF_MS[attempts];
+        attempts++;
+        MediaCommandExecutor.get().executeDelayed("pauseCheck", () -> attempt(context), delay);
+    }
+
+    private static void sendCommand(Context context, int step) {
+        MediaCommandExecutor executor = MediaCommandExecutor.get();
+        String target = PlayerTargetRegistry.getTargetPackage();
+        switch (step) {
+            case 0:
+                if (AudibleController.pause()) {
+                    TimerLog.record(TimerLog.AUDIBLE_PAUSE, TimerLog.PATH_SESSION);
+                    break;
+                }
+                // fall through: no session to talk to
+            case 1:
+                executor.sendMediaButtonBroadcast(context, target, KeyEvent.KEYCODE_MEDIA_PAUSE);
+                TimerLog.record(TimerLog.AUDIBLE_PAUSE, TimerLog.PATH_BROADCAST);
+                break;
+            case 2: {
+                AudioManager audioManager = requestFocus(context);
+                if (audioManager != null) {
+                    executor.dispatchMediaKey(audioManager, KeyEvent.KEYCODE_MEDIA_PAUSE, null);
+                    TimerLog.record(TimerLog.AUDIBLE_PAUSE, TimerLog.PATH_KEY_EVENT);
+                }
+                break;
+            }
+            default: {
+                AudioManager audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+                if (audioManager != null) {
+                    executor.dispatchMediaKey(audioManager, KeyEvent.KEYCODE_MEDIA_STOP, null);
+                    TimerLog.record(TimerLog.AUDIBLE_PAUSE, TimerLog.PATH_KEY_EVENT);
+                }
+                break;
+            }
+        }
+    }
+
+    private static AudioManager requestFocus(Context context) {
+        AudioManager audioManager = (AudioManager) context.getSystemService(Context.AUDIO_SERVICE);
+        if (audioManager == null) {
+            Log.e(TAG, "Could not get AudioManager system service");
+            return null;
+        }
+        audioManager.requestAudioFocus(afChangeListener, AudioManager.STREAM_MUSIC, AudioManager.AUDIOFOCUS_GAIN_TRANSIENT);
+        return audioManager;
+    }
+
+    private static boolean isPlaying(PlaybackState state) {
+        if (state == null) {
+            return false;
+        }
+        switch (state.getState()) {
+            case PlaybackState.STATE_PLAYING:
+            case PlaybackState.STATE_BUFFERING:
+            case PlaybackState.STATE_CONNECTING:
+            case PlaybackState.STATE_FAST_FORWARDING:
+            case PlaybackState.STATE_REWINDING:
+            case PlaybackState.STATE_SKIPPING_TO_NEXT:
+            case PlaybackState.STATE_SKIPPING_TO_PREVIOUS:
+            case PlaybackState.STATE_SKIPPING_TO_QUEUE_ITEM:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void finish(int outcome) {
+        deliveries++;
+        totalCommands += attempts;
+        maxCommands = Math.max(maxCommands, attempts);
+        if (outcome == OUTCOME_ACKNOWLEDGED) {
+            acknowledged++;
+        } else if (outcome == OUTCOME_GAVE_UP) {
+            gaveUp++;
+            Log.w(TAG, "Player still playing after " + attempts + " pause commands");
+        }
+        TimerLog.record(TimerLog.PAUSE_DELIVERED, attempts, outcome);
+        if (outcome != OUTCOME_GAVE_UP) {
+            SessionHistoryStore.record(SessionHistory.PLAYBACK_STOPPED, attempts,
+                    outcome == OUTCOME_ACKNOWLEDGED ? 1 : 0);
+        }
+        inFlight = false;
+
+        for (int i = 0; i < waiterCount; i++) {
+            waiters[i].run();
+            waiters[i] = null;
+        }
+        waiterCount = 0;
+    }
+
+    private static void addWaiter(Runnable onDone) {
+        if (onDone == null) {
+            return;
+        }
+        if (waiterCount == waiters.length) {
+            Runnable[] grown = new Runnable[waiters.length * 2];
+            System.arraycopy(waiters, 0, grown, 0, waiterCount);
+            waiters = grown;
+        }
+        waiters[waiterCount++] = onDone;
+    }
+
+    // Must be called on the media command thread, e.g. from MediaCommandExecutor.logMetrics
+    static String formatStats() {
+        return "Pause delivery: " + deliveries + " pauses, " + totalCommands + " commands (max "
+                + maxCommands + " per pause), acknowledged " + acknowledged + ", gave up " + gaveUp
+                + ", joined " + joined;
+    }
+}
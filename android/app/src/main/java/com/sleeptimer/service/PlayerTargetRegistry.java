@@ -0,0 +1,195 @@
+package com.sleeptimer.service;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.media.session.MediaSession;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The player apps we send play, pause and previous to, in priority order, with what we know about
+ * each: its launch intent, the token of its active MediaSession and the transport actions that
+ * session advertises.
+ *
+ * Launch intents are resolved once (warmed by the service off the main thread) and kept until a
+ * PACKAGE_ADDED, PACKAGE_REPLACED or PACKAGE_REMOVED broadcast for that package, which resolves
+ * it again off the main thread, so a button press makes no PackageManager call. Session tokens and
+ * actions are filled in by {@link AudibleController}.
+ */
+class PlayerTargetRegistry {
+    private static final String TAG = "PlayerTargetRegistry";
+    static final String DEFAULT_PACKAGE = "com.audible.application";
+    // Session actions before the player has published a PlaybackState: assume everything works
+    static final long UNKNOWN_ACTIONS = -1L;
+
+    static final class Target {
+        final String packageName;
+        // Bumped by every invalidate; a lookup that started before one is not kept. Guarded by this
+        private int version;
+        private int resolvedVersion = -1;
+        private Intent launchIntent; // null when not installed or not launchable
+        volatile MediaSession.Token sessionToken;
+        volatile long supportedActions = UNKNOWN_ACTIONS;
+
+        Target(String packageName) {
+            this.packageName = packageName;
+        }
+
+        boolean hasSession() {
+            return sessionToken != null;
+        }
+
+        boolean supports(long action) {
+            return (supportedActions & action) != 0;
+        }
+    }
+
+    private static volatile Target[] targets = {new Target(DEFAULT_PACKAGE)};
+    private static BroadcastReceiver packageReceiver;
+    private static final AtomicInteger resolveCount = new AtomicInteger();
+
+    // Replaces the configured players; the first package is preferred when several have sessions
+    static synchronized void setPackages(String... packageNames) {
+        if (packageNames == null || packageNames.length == 0) {
+            return;
+        }
+        Target[] updated = new Target[packageNames.length];
+        for (int i = 0; i < packageNames.length; i++) {
+            Target existing = find(packageNames[i]);
+            updated[i] = existing != null ? existing : new Target(packageNames[i]);
+        }
+        targets = updated;
+    }
+
+    static Target[] getTargets() {
+        return targets;
+    }
+
+    static Target find(String packageName) {
+        for (Target target : targets) {
+            if (target.packageName.equals(packageName)) {
+                return target;
+            }
+        }
+        return null;
+    }
+
+    // The player commands should go to: the first one with an active session, else the first configured
+    static Target getPreferred() {
+        Target[] current = targets;
+        for (Target target : current) {
+            if (target.hasSession()) {
+                return target;
+            }
+        }
+        return current[0];
+    }
+
+    static String getTargetPackage() {
+        return getPreferred().packageName;
+    }
+
+    /**
+     * A fresh copy of the preferred player's launch intent, or null if it cannot be launched. Only
+     * the first call after start-up or a package change touches the PackageManager.
+     */
+    static Intent getLaunchIntent(Context context) {
+        Intent resolved = resolve(context, getPreferred());
+        return resolved != null ? new Intent(resolved) : null;
+    }
+
+    // Resolves every configured player ahead of the first press; call off the main thread
+    static void warm(Context context) {
+        for (Target target : targets) {
+            resolve(context, target);
+        }
+    }
+
+    static int getResolveCount() {
+        return resolveCount.get();
+    }
+
+    // The cached launch intent, looked up first if needed; the PackageManager call holds no lock
+    private static Intent resolve(Context context, Target target) {
+        int version;
+        synchronized (target) {
+            if (target.resolvedVersion == target.version) {
+                return target.launchIntent;
+            }
+            version = target.version;
+        }
+        Intent intent = context.getPackageManager().getLaunchIntentForPackage(target.packageName);
+        resolveCount.incrementAndGet();
+        synchronized (target) {
+            // A package change during the lookup leaves it unresolved; its re-warm looks it up again
+            if (target.version == version) {
+                target.launchIntent = intent;
+                target.resolvedVersion = version;
+            }
+        }
+        Log.d(TAG, "Resolved " + target.packageName + (intent != null ? "" : " (not launchable)"));
+        return intent;
+    }
+
+    static void invalidate(String packageName) {
+        Target target = find(packageName);
+        if (target != null) {
+            synchronized (target) {
+                target.version++;
+                target.launchIntent = null;
+            }
+            Log.d(TAG, "Invalidated cached launch intent for " + packageName);
+        }
+    }
+
+    static void onSessionChanged(String packageName, MediaSession.Token token, long actions) {
+        Target target = find(packageName);
+        if (target != null) {
+            target.sessionToken = token;
+            target.supportedActions = actions;
+        }
+    }
+
+    static void register(Context context) {
+        if (packageReceiver != null) {
+            return;
+        }
+        packageReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                Uri data = intent.getData();
+                if (data != null) {
+                    invalidate(data.getSchemeSpecificPart());
+                    // Resolve again now, so the next press still makes no PackageManager call
+                    Context appContext = context.getApplicationContext();
+                    IoExecutor.get().execute("resolvePlayers", () -> warm(appContext));
+                }
+            }
+        };
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addDataScheme("package");
+        if (Build.VERSION.SDK_INT >= 34) {
+            context.registerReceiver(packageReceiver, filter, Context.RECEIVER_EXPORTED);
+        } else {
+            context.registerReceiver(packageReceiver, filter);
+        }
+    }
+
+    static void unregister(Context context) {
+        if (packageReceiver != null) {
+            try {
+                context.unregisterReceiver(packageReceiver);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Package receiver was not registered");
+            }
+            packageReceiver = null;
+        }
+    }
+}
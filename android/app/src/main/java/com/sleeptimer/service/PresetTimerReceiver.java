@@ -4,6 +4,8 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.util.Log;
+import com.sleeptimer.TimerConfigModule;
+import com.sleeptimer.timer.TimerEvents;
 
 public class PresetTimerReceiver extends BroadcastReceiver {
     private static final String TAG = "PresetTimerReceiver";
@@ -20,18 +22,10 @@ public class PresetTimerReceiver extends BroadcastReceiver {
             
             try {
                 // Update the timer configuration
-                Class<?> clazz = Class.forName("com.sleeptimer.TimerConfigModule");
-                java.lang.reflect.Method method = clazz.getMethod("setTimerDurationFromNotification", int.class);
-                method.invoke(null, minutes);
+                TimerConfigModule.setTimerDurationFromNotification(minutes);
                 
                 // Also notify React Native about the change
-                try {
-                    Class<?> eventClazz = Class.forName("com.sleeptimer.MediaButtonEventModule");
-                    eventClazz.getMethod("sendTimerPresetSelectedEvent", int.class).invoke(null, minutes);
-                } catch (Exception e) {
-                    Log.w(TAG, "Could not send preset selected event to React Native", e);
-                }
-                
+                TimerEvents.get().onTimerPresetSelected(minutes);
             } catch (Exception e) {
                 Log.e(TAG, "Failed to set timer duration", e);
             }
@@ -0,0 +1,88 @@
+package com.sleeptimer.service;
+
+import android.os.Build;
+import android.os.Trace;
+import com.sleeptimer.BuildConfig;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Systrace/Perfetto markers for the button-to-Audible command path, compiled in only when the
+ * {@code traceMediaCommands} Gradle property is set.
+ *
+ * Each press is one async slice named {@value #PRESS_SECTION} from the key event to the moment a
+ * command is handed to Audible, so it reads as a single span across the main thread, the media
+ * command thread and any launch delay. Synchronous sections mark the work inside it.
+ */
+public class PressTrace {
+    private static final boolean ENABLED = BuildConfig.TRACE_MEDIA_COMMANDS;
+    static final String PRESS_SECTION = "MediaButtonPress";
+
+    private static final AtomicInteger nextCookie = new AtomicInteger();
+    // Cookie of the press still waiting for its command, 0 when none is open
+    private static final AtomicInteger openPress = new AtomicInteger();
+
+    public static void beginSection(String name) {
+        if (ENABLED) {
+            Trace.beginSection(name);
+        }
+    }
+
+    public static void endSection() {
+        if (ENABLED) {
+            Trace.endSection();
+        }
+    }
+
+    // Opens the span for a new press; one that never produced a command is closed first
+    public static void beginPress(String source) {
+        if (!asyncEnabled()) {
+            return;
+        }
+        int cookie = nextCookie.incrementAndGet();
+        if (cookie == 0) {
+            cookie = nextCookie.incrementAndGet();
+        }
+        int previous = openPress.getAndSet(cookie);
+        if (previous != 0) {
+            Trace.endAsyncSection(PRESS_SECTION, previous);
+        }
+        Trace.beginAsyncSection(PRESS_SECTION, cookie);
+        Trace.beginSection("press:" + source);
+        Trace.endSection();
+    }
+
+    // Closes the open press span, if any, once a command has been delivered
+    public static void endPress(String command) {
+        if (!asyncEnabled()) {
+            return;
+        }
+        int cookie = openPress.getAndSet(0);
+        if (cookie != 0) {
+            Trace.beginSection("delivered:" + command);
+            Trace.endSection();
+            Trace.endAsyncSection(PRESS_SECTION, cookie);
+        }
+    }
+
+    // Cookie of the open press, for steps that outlive the current call (delays, other threads)
+    public static int currentPress() {
+        return asyncEnabled() ? openPress.get() : 0;
+    }
+
+    public static void beginAsyncStep(String name, int cookie) {
+        if (cookie != 0 && asyncEnabled()) {
+            Trace.beginAsyncSection(name, cookie);
+        }
+    }
+
+    public static void endAsyncStep(String name, int cookie) {
+        if (cookie != 0 && asyncEnabled()) {
+            Trace.endAsyncSection(name, cookie);
+        }
+    }
+
+    private static boolean asyncEnabled() {
+        // Async sections (and Trace.isEnabled) need API 29
+        return ENABLED && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && Trace.isEnabled();
+    }
+}
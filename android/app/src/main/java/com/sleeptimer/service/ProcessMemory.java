@@ -0,0 +1,68 @@
+package com.sleeptimer.service;
+
+import android.os.Debug;
+import android.util.Log;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Logs this process's PSS and RSS, tagged with the process name, so the single-process and
+ * {@code :timer} process modes can be compared from logcat over a night.
+ */
+public class ProcessMemory {
+    private static final String TAG = "ProcessMemory";
+    private static String processName;
+
+    public static void log(String when) {
+        long pssKb = Debug.getPss();
+        Log.i(TAG, when + " [" + getProcessName() + "] PSS " + pssKb + " kB, RSS " + readRssKb() + " kB");
+    }
+
+    // Application.getProcessName() is API 28; /proc/self/cmdline works on every version we support
+    private static synchronized String getProcessName() {
+        if (processName == null) {
+            processName = readProcessName();
+        }
+        return processName;
+    }
+
+    private static String readProcessName() {
+        byte[] buffer = new byte[256];
+        try (InputStream in = new FileInputStream("/proc/self/cmdline")) {
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+            }
+            // NUL-separated argv; the process name is the first entry
+            int end = 0;
+            while (end < length && buffer[end] != 0) {
+                end++;
+            }
+            if (end > 0) {
+                return new String(buffer, 0, end, StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not read process name", e);
+        }
+        return "pid " + android.os.Process.myPid();
+    }
+
+    private static long readRssKb() {
+        try (BufferedReader reader = new BufferedReader(new FileReader("/proc/self/status"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            Log.w(TAG, "Could not read RSS", e);
+        }
+        return -1;
+    }
+}
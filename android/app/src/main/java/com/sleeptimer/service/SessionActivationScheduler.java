@@ -0,0 +1,101 @@
+package com.sleeptimer.service;
+
+import android.media.session.MediaSession;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+/**
+ * Single owner of our MediaSession's active flag, and of the deferred work tied to it.
+ *
+ * Every immediate activation change starts a new generation. Deferred actions remember the
+ * generation they were scheduled in and are dropped if it has moved on, so a reactivation queued by
+ * an earlier play press cannot fire after the timer completed, and a newer press supersedes the
+ * older press's launch sequence. Requests for the state the session is already in never reach the
+ * media service. Main thread only.
+ */
+class SessionActivationScheduler {
+    private static final String TAG = "SessionActivation";
+
+    private final MediaSession session;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private long generation;
+    private boolean active;
+
+    private int applied;
+    private int suppressed;
+    private int dropped;
+
+    SessionActivationScheduler(MediaSession session) {
+        this.session = session;
+        this.active = session.isActive();
+    }
+
+    // Applies now and invalidates everything deferred before this call
+    void setActive(boolean wanted) {
+        generation++;
+        apply(wanted);
+    }
+
+    // Starts a new generation without touching the session, e.g. when a new play press takes over
+    long newGeneration() {
+        return ++generation;
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    void setActiveDelayed(boolean wanted, long delayMs) {
+        long scheduledIn = generation;
+        handler.postDelayed(() -> setActiveIfCurrent(wanted, scheduledIn), delayMs);
+        WakeupCounters.count(WakeupCounters.MAIN_LOOPER_POSTS);
+    }
+
+    // For deferred work whose generation was captured elsewhere, e.g. before handing off to another thread
+    void setActiveIfCurrent(boolean wanted, long scheduledIn) {
+        if (scheduledIn != generation) {
+            dropped++;
+            return;
+        }
+        apply(wanted);
+    }
+
+    void post(Runnable action) {
+        handler.post(action);
+        WakeupCounters.count(WakeupCounters.MAIN_LOOPER_POSTS);
+    }
+
+    // Runs an action tied to the current session state, unless a newer generation started first
+    void postDelayed(Runnable action, long delayMs) {
+        long scheduledIn = generation;
+        handler.postDelayed(() -> {
+            if (scheduledIn != generation) {
+                dropped++;
+                return;
+            }
+            action.run();
+        }, delayMs);
+        WakeupCounters.count(WakeupCounters.MAIN_LOOPER_POSTS);
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    void logStats() {
+        Log.d(TAG, "Session activation: applied " + applied + ", suppressed " + suppressed
+                + ", stale dropped " + dropped + " (generation " + generation + ")");
+    }
+
+    private void apply(boolean wanted) {
+        if (wanted == active) {
+            suppressed++;
+            return;
+        }
+        session.setActive(wanted);
+        active = wanted;
+        applied++;
+        TimerLog.record(TimerLog.SESSION_ACTIVE, wanted ? 1 : 0, generation);
+    }
+}
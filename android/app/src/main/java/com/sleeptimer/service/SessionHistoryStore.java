@@ -0,0 +1,98 @@
+package com.sleeptimer.service;
+
+import android.content.Context;
+import android.util.Log;
+import com.sleeptimer.timer.SessionAggregator;
+import com.sleeptimer.timer.SessionHistory;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Process-wide owner of the on-disk session history. Timer transitions are appended on the IO
+ * thread and written in batches: a delayed flush picks up everything recorded within
+ * {@link #FLUSH_DELAY_MS}, and the end of a session (playback stopped) or the service going away
+ * flushes right away. Compaction is checked after each flush.
+ */
+public class SessionHistoryStore {
+    private static final String TAG = "SessionHistoryStore";
+    private static final String FILE_NAME = "session-history.bin";
+    private static final long FLUSH_DELAY_MS = 60 * 1000;
+    private static final long RETENTION_MS = 400L * 24 * 60 * 60 * 1000;
+    // About 512 KB; a year of nightly sessions is roughly a sixth of that
+    private static final int COMPACT_THRESHOLD_RECORDS = 16 * 1024;
+
+    private static volatile SessionHistory history;
+    private static boolean flushScheduled; // IO thread only
+
+    public static void init(Context context) {
+        if (history == null) {
+            synchronized (SessionHistoryStore.class) {
+                if (history == null) {
+                    history = open(context);
+                }
+            }
+        }
+    }
+
+    // Record types and arguments are the SessionHistory constants; the wall time is taken here
+    public static void record(int type, long firstArg, long secondArg) {
+        SessionHistory target = history;
+        if (target == null) {
+            return;
+        }
+        long wallMs = System.currentTimeMillis();
+        IoExecutor executor = IoExecutor.get();
+        executor.execute("history", () -> {
+            try {
+                target.append(wallMs, type, firstArg, secondArg);
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to append session history", e);
+            }
+            if (type == SessionHistory.PLAYBACK_STOPPED) {
+                flushNow(target);
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                executor.executeDelayed("historyFlush", () -> flushNow(target), FLUSH_DELAY_MS);
+            }
+        });
+    }
+
+    public static void flush() {
+        SessionHistory target = history;
+        if (target != null) {
+            IoExecutor.get().execute("historyFlush", () -> flushNow(target));
+        }
+    }
+
+    /**
+     * Streams the records in [fromWallMs, toWallMs) into per-night or per-week totals in the
+     * device's time zone. Blocking file IO; call off the main thread. In timer-process mode the
+     * history is written by the :timer process, so records it has not flushed yet are not seen.
+     */
+    public static List<SessionAggregator.Period> query(Context context, long fromWallMs, long toWallMs,
+                                                       boolean weekly) throws IOException {
+        init(context);
+        SessionAggregator aggregator = new SessionAggregator(TimeZone.getDefault(), weekly);
+        history.query(fromWallMs, toWallMs, aggregator);
+        return aggregator.finish();
+    }
+
+    private static SessionHistory open(Context context) {
+        File file = new File(context.getNoBackupFilesDir(), FILE_NAME);
+        return new SessionHistory(file, RETENTION_MS, COMPACT_THRESHOLD_RECORDS);
+    }
+
+    private static void flushNow(SessionHistory target) {
+        flushScheduled = false;
+        try {
+            target.flush();
+            if (target.compactIfNeeded(System.currentTimeMillis())) {
+                Log.d(TAG, "Compacted session history to " + target.recordCount() + " records");
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write session history", e);
+        }
+    }
+}
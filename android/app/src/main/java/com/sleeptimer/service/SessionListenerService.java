@@ -0,0 +1,15 @@
+package com.sleeptimer.service;
+
+import android.service.notification.NotificationListenerService;
+
+/**
+ * Exists only so the user can grant notification access, which is what lets
+ * {@link AudibleController} see other apps' media sessions. It does not read notifications.
+ */
+public class SessionListenerService extends NotificationListenerService {
+    @Override
+    public void onListenerConnected() {
+        // Bound after access was granted: session lookups may work now
+        AudibleController.onAccessChanged(this);
+    }
+}
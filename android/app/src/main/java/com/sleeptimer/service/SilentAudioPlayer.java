@@ -1,138 +1,157 @@
 package com.sleeptimer.service;
 
-import android.content.Context;
-import android.media.AudioManager;
-import android.media.MediaPlayer;
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioTrack;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.io.IOException;
 
+/**
+ * Keeps our MediaSession the media-button target by holding an active media playback.
+ *
+ * Uses a static-mode AudioTrack looping a 250 ms in-memory buffer of silence at a low sample rate.
+ * There is no decoder, no file and no data callback: once started, the mixer replays the buffer on
+ * its own and the app process is not woken for it. {@link #getStats()} logs the process CPU time
+ * and thread wakeups (voluntary context switches of all our threads) while the keep-alive ran, for
+ * comparing against the old player on a device.
+ */
 public class SilentAudioPlayer {
     private static final String TAG = "SilentAudioPlayer";
-    private static MediaPlayer mediaPlayer;
-    private static boolean isPlaying = false;
+    private static final int SAMPLE_RATE = 8000;
+    private static final int BUFFER_FRAMES = SAMPLE_RATE / 4; // 250 ms of mono 16-bit silence
+    // Started and stopped on the media command thread, read from anywhere
+    private static volatile AudioTrack audioTrack;
+    private static volatile boolean isPlaying = false;
 
-    public static void startSilentAudio(Context context) {
+    // Measurement baseline, taken when playback starts
+    private static volatile long startElapsedMs;
+    private static volatile long startCpuTimeMs;
+    private static volatile long startThreadWakeups;
+
+    public static void startSilentAudio() {
         try {
-            if (mediaPlayer != null && isPlaying) {
+            if (audioTrack != null && isPlaying) {
                 Log.d(TAG, "Silent audio already playing");
                 return;
             }
 
             Log.d(TAG, "Starting silent audio playback");
-            
-            // Create a very short silent audio file
-            File silentFile = createSilentAudioFile(context);
-            
-            mediaPlayer = new MediaPlayer();
-            mediaPlayer.setDataSource(silentFile.getAbsolutePath());
-            mediaPlayer.setAudioStreamType(AudioManager.STREAM_MUSIC);
-            mediaPlayer.setLooping(true); // Loop to keep it playing
-            
-            mediaPlayer.setOnPreparedListener(new MediaPlayer.OnPreparedListener() {
-                @Override
-                public void onPrepared(MediaPlayer mp) {
-                    Log.d(TAG, "Silent audio prepared, starting playback");
-                    mp.start();
-                    isPlaying = true;
-                }
-            });
-            
-            mediaPlayer.setOnErrorListener(new MediaPlayer.OnErrorListener() {
-                @Override
-                public boolean onError(MediaPlayer mp, int what, int extra) {
-                    Log.e(TAG, "Silent audio error: " + what + ", " + extra);
-                    isPlaying = false;
-                    return true;
-                }
-            });
-            
-            mediaPlayer.prepareAsync();
-            
+
+            AudioAttributes attributes = new AudioAttributes.Builder()
+                    .setUsage(AudioAttributes.USAGE_MEDIA)
+                    .setContentType(AudioAttributes.CONTENT_TYPE_MUSIC)
+                    .build();
+            AudioFormat format = new AudioFormat.Builder()
+                    .setEncoding(AudioFormat.ENCODING_PCM_16BIT)
+                    .setSampleRate(SAMPLE_RATE)
+                    .setChannelMask(AudioFormat.CHANNEL_OUT_MONO)
+                    .build();
+            int bufferBytes = BUFFER_FRAMES * 2;
+
+            AudioTrack.Builder builder = new AudioTrack.Builder()
+                    .setAudioAttributes(attributes)
+                    .setAudioFormat(format)
+                    .setTransferMode(AudioTrack.MODE_STATIC)
+                    .setBufferSizeInBytes(bufferBytes);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+                builder.setPerformanceMode(AudioTrack.PERFORMANCE_MODE_POWER_SAVING);
+            }
+            audioTrack = builder.build();
+
+            // A new byte array is already all zeros, i.e. silence
+            audioTrack.write(new byte[bufferBytes], 0, bufferBytes);
+            audioTrack.setLoopPoints(0, BUFFER_FRAMES, -1);
+            audioTrack.play();
+
+            isPlaying = true;
+            startElapsedMs = SystemClock.elapsedRealtime();
+            startCpuTimeMs = Process.getElapsedCpuTime();
+            startThreadWakeups = readThreadWakeups();
+            Log.d(TAG, "Silent AudioTrack playing (" + bufferBytes + " byte static buffer)");
         } catch (Exception e) {
             Log.e(TAG, "Failed to start silent audio", e);
+            releaseTrack();
         }
     }
 
     public static void stopSilentAudio() {
         try {
-            if (mediaPlayer != null) {
-                Log.d(TAG, "Stopping silent audio");
-                if (mediaPlayer.isPlaying()) {
-                    mediaPlayer.stop();
+            if (audioTrack != null) {
+                Log.d(TAG, "Stopping silent audio. " + getStats());
+                if (audioTrack.getPlayState() == AudioTrack.PLAYSTATE_PLAYING) {
+                    audioTrack.stop();
                 }
-                mediaPlayer.release();
-                mediaPlayer = null;
-                isPlaying = false;
             }
         } catch (Exception e) {
             Log.e(TAG, "Error stopping silent audio", e);
+        } finally {
+            releaseTrack();
         }
     }
 
-    private static File createSilentAudioFile(Context context) throws IOException {
-        File silentFile = new File(context.getCacheDir(), "silent.wav");
-        
-        if (silentFile.exists()) {
-            return silentFile;
+    private static void releaseTrack() {
+        if (audioTrack != null) {
+            audioTrack.release();
+            audioTrack = null;
         }
+        isPlaying = false;
+    }
+
+    public static boolean isPlaying() {
+        return isPlaying && audioTrack != null && audioTrack.getPlayState() == AudioTrack.PLAYSTATE_PLAYING;
+    }
 
-        Log.d(TAG, "Creating silent audio file");
-        
-        // Create a minimal WAV file with silence
-        FileOutputStream fos = new FileOutputStream(silentFile);
-        
-        // WAV header for 1 second of silence at 44100 Hz, 16-bit, mono
-        int sampleRate = 44100;
-        int duration = 1; // 1 second
-        int numSamples = sampleRate * duration;
-        int numChannels = 1;
-        int bitsPerSample = 16;
-        int dataSize = numSamples * numChannels * bitsPerSample / 8;
-        int fileSize = dataSize + 36;
-
-        // WAV file header
-        fos.write("RIFF".getBytes());
-        fos.write(intToByteArray(fileSize), 0, 4);
-        fos.write("WAVE".getBytes());
-        fos.write("fmt ".getBytes());
-        fos.write(intToByteArray(16), 0, 4); // Subchunk1Size
-        fos.write(shortToByteArray((short) 1), 0, 2); // AudioFormat (PCM)
-        fos.write(shortToByteArray((short) numChannels), 0, 2);
-        fos.write(intToByteArray(sampleRate), 0, 4);
-        fos.write(intToByteArray(sampleRate * numChannels * bitsPerSample / 8), 0, 4); // ByteRate
-        fos.write(shortToByteArray((short) (numChannels * bitsPerSample / 8)), 0, 2); // BlockAlign
-        fos.write(shortToByteArray((short) bitsPerSample), 0, 2);
-        fos.write("data".getBytes());
-        fos.write(intToByteArray(dataSize), 0, 4);
-
-        // Write silence (zeros)
-        byte[] silence = new byte[dataSize];
-        fos.write(silence);
-        fos.close();
-
-        Log.d(TAG, "Silent audio file created: " + silentFile.getAbsolutePath());
-        return silentFile;
+    // Process CPU time consumed since the keep-alive started (whole process, not just the track)
+    public static long getCpuTimeMs() {
+        return isPlaying ? Process.getElapsedCpuTime() - startCpuTimeMs : 0;
     }
 
-    private static byte[] intToByteArray(int value) {
-        return new byte[]{
-            (byte) (value & 0xff),
-            (byte) ((value >> 8) & 0xff),
-            (byte) ((value >> 16) & 0xff),
-            (byte) ((value >> 24) & 0xff)
-        };
+    // Times any thread of this process was woken since the keep-alive started; -1 if unreadable
+    public static long getWakeupCount() {
+        if (!isPlaying) {
+            return 0;
+        }
+        long now = readThreadWakeups();
+        return now >= 0 && startThreadWakeups >= 0 ? now - startThreadWakeups : -1;
     }
 
-    private static byte[] shortToByteArray(short value) {
-        return new byte[]{
-            (byte) (value & 0xff),
-            (byte) ((value >> 8) & 0xff)
-        };
+    public static int getUnderrunCount() {
+        return audioTrack != null ? audioTrack.getUnderrunCount() : 0;
     }
 
-    public static boolean isPlaying() {
-        return isPlaying && mediaPlayer != null && mediaPlayer.isPlaying();
+    public static String getStats() {
+        long elapsedMs = isPlaying ? SystemClock.elapsedRealtime() - startElapsedMs : 0;
+        return "Keep-alive stats: running " + (elapsedMs / 1000) + "s, process CPU " + getCpuTimeMs()
+                + "ms, process thread wakeups " + getWakeupCount() + ", underruns " + getUnderrunCount();
+    }
+
+    // Sum of voluntary_ctxt_switches over /proc/self/task: each one is a thread blocking and being
+    // woken again. Threads that exited in between are not included
+    private static long readThreadWakeups() {
+        File[] tasks = new File("/proc/self/task").listFiles();
+        if (tasks == null) {
+            return -1;
+        }
+        long total = 0;
+        for (File task : tasks) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(new File(task, "status")))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("voluntary_ctxt_switches:")) {
+                        total += Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+                        break;
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                // The thread exited while we were reading
+            }
+        }
+        return total;
     }
-}
\ No newline at end of file
+}
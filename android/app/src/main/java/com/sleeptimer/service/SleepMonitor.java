@@ -0,0 +1,148 @@
+package com.sleeptimer.service;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener;
+import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import com.sleeptimer.BuildConfig;
+import com.sleeptimer.timer.ActivityScorer;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Feeds the accelerometer into an {@link ActivityScorer} while a timer is running and hands the
+ * activity state to {@link MediaButtonReceiver}, which may move the deadline.
+ *
+ * The sensor is registered with a {@link #MAX_REPORT_LATENCY_US} of several minutes, so on devices
+ * with a sensor FIFO the samples are collected in hardware and delivered in one batch, and the CPU
+ * only wakes for each batch. Samples are scored on a dedicated thread; the state is reported once
+ * per batch, after the whole batch has been scored.
+ *
+ * Debug builds also write the raw samples to files/sleep-trace.csv for
+ * {@code :timer-core:replaySleepTrace}.
+ */
+class SleepMonitor implements SensorEventListener {
+    private static final String TAG = "SleepMonitor";
+    private static final int SAMPLING_PERIOD_US = 200_000; // 5 Hz is plenty for movement
+    private static final int MAX_REPORT_LATENCY_US = 5 * 60 * 1_000_000;
+    private static final String TRACE_FILE = "sleep-trace.csv";
+
+    private final Context context;
+    private final SensorManager sensorManager;
+    private final Sensor accelerometer;
+    private final HandlerThread thread;
+    private final Handler handler;
+    private final Runnable reportState = this::reportState;
+
+    // Sensor thread only
+    private final ActivityScorer scorer = ActivityScorer.withDefaults();
+    private boolean reportPending;
+    private Writer trace;
+    private final StringBuilder traceLine = new StringBuilder(64);
+
+    private boolean registered; // main thread only
+
+    SleepMonitor(Context context) {
+        this.context = context.getApplicationContext();
+        sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
+        accelerometer = sensorManager != null ? sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER) : null;
+        thread = new HandlerThread("SleepMonitor");
+        thread.start();
+        handler = new Handler(thread.getLooper());
+    }
+
+    void start() {
+        if (registered || accelerometer == null) {
+            return;
+        }
+        handler.post(() -> {
+            scorer.reset();
+            if (BuildConfig.DEBUG) {
+                openTrace();
+            }
+        });
+        registered = sensorManager.registerListener(this, accelerometer, SAMPLING_PERIOD_US,
+                MAX_REPORT_LATENCY_US, handler);
+        Log.d(TAG, "Accelerometer " + (registered ? "registered" : "unavailable") + ", FIFO "
+                + accelerometer.getFifoMaxEventCount() + " events");
+    }
+
+    void stop() {
+        if (!registered) {
+            return;
+        }
+        sensorManager.unregisterListener(this);
+        registered = false;
+        handler.post(this::closeTrace);
+    }
+
+    void release() {
+        stop();
+        thread.quitSafely();
+    }
+
+    @Override
+    public void onSensorChanged(SensorEvent event) {
+        long timeMs = event.timestamp / 1_000_000;
+        float[] values = event.values;
+        if (trace != null) {
+            writeTrace(timeMs, values);
+        }
+        if (scorer.addSample(timeMs, values[0], values[1], values[2]) && !reportPending) {
+            // Runs after the rest of this batch has been delivered
+            reportPending = true;
+            handler.post(reportState);
+        }
+    }
+
+    @Override
+    public void onAccuracyChanged(Sensor sensor, int accuracy) {
+        // Not used
+    }
+
+    private void reportState() {
+        reportPending = false;
+        WakeupCounters.count(WakeupCounters.SENSOR_BATCHES);
+        MediaButtonReceiver.onSleepActivity(scorer.getState());
+    }
+
+    private void openTrace() {
+        try {
+            trace = new BufferedWriter(new FileWriter(new File(context.getFilesDir(), TRACE_FILE)));
+            trace.write("# timeMs,x,y,z\n");
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to open sleep trace", e);
+            trace = null;
+        }
+    }
+
+    private void writeTrace(long timeMs, float[] values) {
+        traceLine.setLength(0);
+        traceLine.append(timeMs).append(',').append(values[0]).append(',').append(values[1])
+                .append(',').append(values[2]).append('\n');
+        try {
+            trace.append(traceLine);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write sleep trace", e);
+            closeTrace();
+        }
+    }
+
+    private void closeTrace() {
+        if (trace != null) {
+            try {
+                trace.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to close sleep trace", e);
+            }
+            trace = null;
+        }
+    }
+}
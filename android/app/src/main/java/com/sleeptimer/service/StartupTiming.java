@@ -0,0 +1,39 @@
+package com.sleeptimer.service;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Measures how long a button press takes to turn into a command to Audible.
+ *
+ * The first command after process start is reported as a cold start, measured from the moment the
+ * process was forked; later ones are warm, measured from when the key event reached us.
+ */
+public class StartupTiming {
+    private static final String TAG = "StartupTiming";
+    private static final long processStartElapsedMs = Process.getStartElapsedRealtime();
+    private static volatile long lastEventElapsedMs;
+    private static volatile boolean firstCommandSent;
+
+    // Called where a key event or play request first enters our code
+    public static void markEventReceived() {
+        lastEventElapsedMs = SystemClock.elapsedRealtime();
+        if (!firstCommandSent) {
+            Log.d(TAG, "First event " + (lastEventElapsedMs - processStartElapsedMs) + "ms after process start");
+        }
+    }
+
+    // Called once the command has actually been handed to Audible (transport control or broadcast)
+    public static void markCommandSent(String command) {
+        long now = SystemClock.elapsedRealtime();
+        long sinceEvent = lastEventElapsedMs > 0 ? now - lastEventElapsedMs : -1;
+        if (!firstCommandSent) {
+            firstCommandSent = true;
+            Log.i(TAG, "Cold start: process start -> " + command + " " + (now - processStartElapsedMs)
+                    + "ms (event -> command " + sinceEvent + "ms)");
+        } else if (sinceEvent >= 0) {
+            Log.i(TAG, "Warm: event -> " + command + " " + sinceEvent + "ms");
+        }
+    }
+}
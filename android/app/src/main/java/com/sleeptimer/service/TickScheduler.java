@@ -0,0 +1,149 @@
+package com.sleeptimer.service;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.util.Log;
+import com.sleeptimer.timer.TickPolicy;
+import com.sleeptimer.timer.TimerSnapshot;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The one place periodic UI work is scheduled from. Consumers register with the finest interval
+ * they care about; while a timer runs and the screen is on, a single main-looper message is kept
+ * pending for the next tick chosen by {@link TickPolicy}, and every consumer is called from it.
+ * With the screen off nothing is scheduled; turning it on ticks everyone once, so a display that
+ * went stale while the device slept is corrected right away.
+ *
+ * Main thread only.
+ */
+class TickScheduler {
+    private static final String TAG = "TickScheduler";
+
+    interface Consumer {
+        /** @param snapshot the published timer state, already advanced to now */
+        void onTick(TimerSnapshot snapshot);
+    }
+
+    private static final List<Consumer> consumers = new ArrayList<>();
+    private static final List<Long> minIntervals = new ArrayList<>();
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+    private static final Runnable tick = TickScheduler::tick;
+
+    private static TimerSnapshot current;
+    private static boolean interactive = true;
+    private static BroadcastReceiver screenReceiver;
+    private static int ticks;
+
+    static void register(Consumer consumer, long minIntervalMs) {
+        consumers.add(consumer);
+        minIntervals.add(minIntervalMs);
+        reschedule();
+    }
+
+    static void unregister(Consumer consumer) {
+        int index = consumers.indexOf(consumer);
+        if (index >= 0) {
+            consumers.remove(index);
+            minIntervals.remove(index);
+        }
+        reschedule();
+    }
+
+    // Starts following the screen state; called when the timer service is created
+    static void start(Context context) {
+        if (screenReceiver != null) {
+            return;
+        }
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        interactive = powerManager == null || powerManager.isInteractive();
+        screenReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context receiverContext, Intent intent) {
+                onInteractiveChanged(Intent.ACTION_SCREEN_ON.equals(intent.getAction()));
+            }
+        };
+        IntentFilter filter = new IntentFilter(Intent.ACTION_SCREEN_ON);
+        filter.addAction(Intent.ACTION_SCREEN_OFF);
+        // Screen broadcasts are only delivered to receivers registered at runtime
+        if (Build.VERSION.SDK_INT >= 34) {
+            context.registerReceiver(screenReceiver, filter, Context.RECEIVER_EXPORTED);
+        } else {
+            context.registerReceiver(screenReceiver, filter);
+        }
+    }
+
+    static void stop(Context context) {
+        handler.removeCallbacks(tick);
+        if (screenReceiver != null) {
+            try {
+                context.unregisterReceiver(screenReceiver);
+            } catch (IllegalArgumentException e) {
+                Log.w(TAG, "Screen receiver was not registered");
+            }
+            screenReceiver = null;
+        }
+    }
+
+    // Called on every timer transition with the newly published snapshot
+    static void onTimerStateChanged(TimerSnapshot snapshot) {
+        current = snapshot;
+        reschedule();
+    }
+
+    static int getTickCount() {
+        return ticks;
+    }
+
+    private static void onInteractiveChanged(boolean nowInteractive) {
+        if (nowInteractive == interactive) {
+            return;
+        }
+        interactive = nowInteractive;
+        if (interactive && current != null && current.isRunning()) {
+            tick();
+        } else {
+            reschedule();
+        }
+    }
+
+    private static void tick() {
+        handler.removeCallbacks(tick);
+        TimerSnapshot snapshot = current;
+        if (snapshot != null && snapshot.isRunning()) {
+            snapshot = snapshot.at(SystemClock.elapsedRealtime());
+            ticks++;
+            for (int i = 0; i < consumers.size(); i++) {
+                consumers.get(i).onTick(snapshot);
+            }
+        }
+        reschedule();
+    }
+
+    private static void reschedule() {
+        handler.removeCallbacks(tick);
+        TimerSnapshot snapshot = current;
+        if (consumers.isEmpty() || snapshot == null || !snapshot.isRunning()) {
+            return;
+        }
+        long minInterval = Long.MAX_VALUE;
+        for (int i = 0; i < minIntervals.size(); i++) {
+            minInterval = Math.min(minInterval, minIntervals.get(i));
+        }
+        long remaining = snapshot.remainingAt(SystemClock.elapsedRealtime());
+        long nowWallMs = System.currentTimeMillis();
+        long next = TickPolicy.nextTickWallMs(nowWallMs, remaining, interactive, minInterval);
+        if (next == TickPolicy.NO_TICK) {
+            return;
+        }
+        handler.postDelayed(tick, Math.max(0, next - nowWallMs));
+        WakeupCounters.count(WakeupCounters.MAIN_LOOPER_POSTS);
+    }
+}
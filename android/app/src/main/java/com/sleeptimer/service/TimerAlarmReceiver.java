@@ -0,0 +1,20 @@
+package com.sleeptimer.service;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+public class TimerAlarmReceiver extends BroadcastReceiver {
+    private static final String TAG = "TimerAlarmReceiver";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (TimerAlarmScheduler.ACTION_TIMER_ALARM.equals(intent.getAction())) {
+            long generation = intent.getLongExtra(TimerAlarmScheduler.EXTRA_GENERATION, -1);
+            long deadline = intent.getLongExtra(TimerAlarmScheduler.EXTRA_DEADLINE, 0);
+            Log.d(TAG, "Timer alarm received for generation " + generation);
+            MediaButtonReceiver.onCompletionAlarm(context, generation, deadline);
+        }
+    }
+}
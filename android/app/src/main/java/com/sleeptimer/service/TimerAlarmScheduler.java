@@ -0,0 +1,99 @@
+package com.sleeptimer.service;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.SystemClock;
+import android.util.Log;
+
+/**
+ * Schedules timer completion as an exact, idle-allowed alarm on the elapsed-realtime clock so it
+ * fires on time in Doze and survives the process being frozen. There is only ever one pending
+ * alarm; rescheduling replaces it in place.
+ */
+class TimerAlarmScheduler {
+    private static final String TAG = "TimerAlarmScheduler";
+    static final String ACTION_TIMER_ALARM = "com.sleeptimer.TIMER_ALARM";
+    static final String EXTRA_GENERATION = "generation";
+    static final String EXTRA_DEADLINE = "deadline";
+    private static final int REQUEST_CODE = 200;
+
+    static final int SOURCE_ALARM = 0;
+    static final int SOURCE_HANDLER = 1;
+    private static final String[] SOURCE_NAMES = {"alarm", "handler"};
+
+    // Fire latency (actual - scheduled) per source
+    private static final int[] fireCount = new int[2];
+    private static final long[] totalLatencyMs = new long[2];
+    private static final long[] maxLatencyMs = new long[2];
+
+    static void schedule(Context context, long deadlineElapsedMs, long generation) {
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager == null) {
+            Log.e(TAG, "AlarmManager unavailable - relying on handler fast path");
+            return;
+        }
+
+        Intent intent = new Intent(context, TimerAlarmReceiver.class);
+        intent.setAction(ACTION_TIMER_ALARM);
+        intent.putExtra(EXTRA_GENERATION, generation);
+        intent.putExtra(EXTRA_DEADLINE, deadlineElapsedMs);
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+            context, REQUEST_CODE, intent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S && !alarmManager.canScheduleExactAlarms()) {
+                // Without the exact alarm grant the system may defer by a few minutes in Doze
+                alarmManager.setAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, deadlineElapsedMs, pendingIntent);
+                Log.w(TAG, "Exact alarms not permitted - scheduled inexact idle alarm");
+            } else {
+                alarmManager.setExactAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, deadlineElapsedMs, pendingIntent);
+            }
+            WakeupCounters.count(WakeupCounters.ALARMS);
+            Log.d(TAG, "Completion alarm set for +" + (deadlineElapsedMs - SystemClock.elapsedRealtime()) + "ms, generation " + generation);
+        } catch (SecurityException e) {
+            Log.e(TAG, "Failed to schedule completion alarm", e);
+        }
+    }
+
+    static void cancel(Context context) {
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager == null) {
+            return;
+        }
+        Intent intent = new Intent(context, TimerAlarmReceiver.class);
+        intent.setAction(ACTION_TIMER_ALARM);
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+            context, REQUEST_CODE, intent, PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE
+        );
+        if (pendingIntent != null) {
+            alarmManager.cancel(pendingIntent);
+            pendingIntent.cancel();
+        }
+    }
+
+    static void recordFire(int source, long deadlineElapsedMs) {
+        long latency = SystemClock.elapsedRealtime() - deadlineElapsedMs;
+        fireCount[source]++;
+        totalLatencyMs[source] += latency;
+        if (latency > maxLatencyMs[source]) {
+            maxLatencyMs[source] = latency;
+        }
+        Log.d(TAG, "Completion fired via " + SOURCE_NAMES[source] + " " + latency + "ms after deadline. " + getLatencyReport());
+    }
+
+    static String getLatencyReport() {
+        StringBuilder report = new StringBuilder("Completion latency:");
+        for (int i = 0; i < fireCount.length; i++) {
+            report.append(' ').append(SOURCE_NAMES[i]).append(" n=").append(fireCount[i]);
+            if (fireCount[i] > 0) {
+                report.append(" avg=").append(totalLatencyMs[i] / fireCount[i]).append("ms")
+                      .append(" max=").append(maxLatencyMs[i]).append("ms");
+            }
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,157 @@
+package com.sleeptimer.service;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import com.sleeptimer.timer.TimerConfig;
+import com.sleeptimer.timer.TimerConfigFile;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.UnaryOperator;
+
+/**
+ * Process-wide owner of the user's {@link TimerConfig}. The file is read once per process, on the IO
+ * thread right after start, or by the first reader if it gets there sooner; after that every
+ * reader, including the button and notification paths, only dereferences the current immutable
+ * snapshot. Updates swap the snapshot right away and are written on the IO thread after
+ * {@link #WRITE_DELAY_MS}, so a burst of changes (a slider drag) becomes one write of the latest
+ * settings.
+ *
+ * In timer-process mode the :timer process owns the file; the UI process keeps its own snapshot
+ * current without persisting and forwards changes through {@link TimerServiceClient}.
+ */
+public class TimerConfigStore {
+    private static final String TAG = "TimerConfigStore";
+    private static final String FILE_NAME = "timer-config.properties";
+    private static final long WRITE_DELAY_MS = 1000;
+
+    private static volatile TimerConfig config = TimerConfig.DEFAULTS;
+    private static volatile Context appContext;
+    private static volatile TimerConfigFile file;
+    private static volatile boolean loadedFromFile;
+    private static boolean writeScheduled; // IO thread only
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Called from Application.onCreate, before any receiver or service of this process runs.
+    // Keeps the disk read off the main thread during process start.
+    public static void init(Context context) {
+        appContext = context.getApplicationContext();
+        IoExecutor.get().execute("configLoad", TimerConfigStore::ensureLoaded);
+    }
+
+    public static TimerConfig get() {
+        if (file == null) {
+            ensureLoaded();
+        }
+        return config;
+    }
+
+    // False on first run or after an upgrade from a version that kept the duration only in memory
+    static boolean wasLoadedFromFile() {
+        ensureLoaded();
+        return loadedFromFile;
+    }
+
+    // Reads the file unless that already happened; a reader that beats the IO thread reads it itself
+    private static void ensureLoaded() {
+        if (file != null) {
+            return;
+        }
+        synchronized (TimerConfigStore.class) {
+            Context context = appContext;
+            if (file != null || context == null) {
+                return;
+            }
+            TimerConfigFile configFile = new TimerConfigFile(new File(context.getFilesDir(), FILE_NAME));
+            loadedFromFile = configFile.exists();
+            config = configFile.read();
+            file = configFile;
+            PlayerTargetRegistry.setPackages(config.getPlayerPackages());
+            Log.d(TAG, "Loaded " + config);
+        }
+    }
+
+    /**
+     * Makes the given settings current and applies what changed to the notification, the player
+     * targets and the gesture window. Safe from any thread. Replaces every field; to change one,
+     * use {@link #update(UnaryOperator, boolean)}.
+     *
+     * @param persist false in the UI process in timer-process mode, where the :timer process writes
+     */
+    public static void update(TimerConfig updated, boolean persist) {
+        update(current -> updated, persist);
+    }
+
+    /**
+     * Applies {@code change} to the current settings under the store's lock, so two threads
+     * changing different fields don't drop each other's change. {@code change} must be a plain
+     * {@code withX} call: it runs with the lock held.
+     *
+     * @return the settings after the change
+     */
+    public static TimerConfig update(UnaryOperator<TimerConfig> change, boolean persist) {
+        // Load first, or the file would later replace this update
+        ensureLoaded();
+        TimerConfig previous;
+        TimerConfig updated;
+        synchronized (TimerConfigStore.class) {
+            previous = config;
+            updated = change.apply(previous);
+            if (updated.equals(previous)) {
+                return previous;
+            }
+            config = updated;
+        }
+        applyChanges(previous, updated);
+        if (persist) {
+            scheduleWrite();
+        }
+        return updated;
+    }
+
+    private static void applyChanges(TimerConfig previous, TimerConfig updated) {
+        if (!Arrays.equals(previous.getPlayerPackages(), updated.getPlayerPackages())) {
+            PlayerTargetRegistry.setPackages(updated.getPlayerPackages());
+        }
+        boolean presetsChanged = !Arrays.equals(previous.getPresetMinutes(), updated.getPresetMinutes());
+        boolean gestureChanged = previous.getDoublePressIntervalMs() != updated.getDoublePressIntervalMs();
+        if (presetsChanged || gestureChanged) {
+            mainHandler.post(() -> {
+                if (presetsChanged) {
+                    ForegroundService.onPresetsChanged();
+                }
+                if (gestureChanged) {
+                    MediaButtonReceiver.setDoublePressInterval(updated.getDoublePressIntervalMs());
+                }
+            });
+        }
+    }
+
+    private static void scheduleWrite() {
+        IoExecutor executor = IoExecutor.get();
+        executor.execute("configWrite", () -> {
+            if (!writeScheduled) {
+                writeScheduled = true;
+                executor.executeDelayed("configWrite", TimerConfigStore::writeNow, WRITE_DELAY_MS);
+            }
+        });
+    }
+
+    // Writes whatever is current by now, covering every update since the write was scheduled
+    private static void writeNow() {
+        writeScheduled = false;
+        TimerConfigFile target = file;
+        if (target == null) {
+            Log.w(TAG, "Config store not initialised, not writing");
+            return;
+        }
+        try {
+            target.write(config);
+            loadedFromFile = true;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write timer config", e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.sleeptimer.service;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import com.sleeptimer.timer.EventLog;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * Process-wide event log for the timer and media command paths. Callers record an event code and
+ * up to two numbers instead of building a Log.d string; the last {@link #CAPACITY} events are kept
+ * in memory and only turned into text when a bug report asks for them.
+ */
+public class TimerLog {
+    private static final String TAG = "TimerLog";
+    private static final int CAPACITY = 4096;
+    private static final String DUMP_FILE = "timer-events.txt";
+
+    // Event codes, indexes into NAMES. Arguments are listed after each code.
+    public static final int KEY_RECEIVED = 0;        // keyCode, 1 if via MediaSession
+    public static final int PLAY_PRESSED = 1;        // timer state ordinal
+    public static final int PAUSE_PRESSED = 2;       // timer state ordinal
+    public static final int VOLUME_DOWN = 3;         // event time (uptime ms), repeat count
+    public static final int PREVIOUS_CHAPTER = 4;    // 1 if via Audible's session
+    public static final int TIMER_STARTED = 5;       // durationMs, generation
+    public static final int TIMER_PAUSED = 6;        // remainingMs, generation
+    public static final int TIMER_RESUMED = 7;       // remainingMs, generation
+    public static final int TIMER_COMPLETED = 8;     // generation
+    public static final int DURATION_UPDATED = 9;    // durationMs, generation
+    public static final int STALE_ALARM = 10;        // alarm generation, current generation
+    public static final int AUDIBLE_PLAY = 11;       // path: 0 session, 1 launch, 2 broadcast
+    public static final int AUDIBLE_PAUSE = 12;      // path: 0 session, 2 broadcast, 3 key event
+    public static final int SESSION_ACTIVE = 13;     // 1 active, 0 inactive
+    public static final int PAUSE_BROADCAST = 14;
+    public static final int JS_QUERY = 15;           // remainingMs
+    public static final int JS_EMIT_DROPPED = 16;
+    public static final int KEY_GESTURE = 17;        // KeyGestureRecognizer gesture, decision latency ms
+    public static final int PAUSE_DELIVERED = 18;    // commands sent, PauseDelivery outcome
+    public static final int SLEEP_ADJUSTED = 19;     // ActivityScorer state, new remainingMs
+    public static final int NEXT_CHAPTER = 20;       // 1 if via Audible's session
+
+    private static final String[] NAMES = {
+        "key", "play", "pause", "volumeDown", "previousChapter",
+        "timerStarted", "timerPaused", "timerResumed", "timerCompleted", "durationUpdated",
+        "staleAlarm", "audiblePlay", "audiblePause", "sessionActive", "pauseBroadcast",
+        "jsQuery", "jsEmitDropped", "keyGesture", "pauseDelivered", "sleepAdjusted",
+        "nextChapter",
+    };
+
+    public static final int PATH_SESSION = 0;
+    public static final int PATH_LAUNCH = 1;
+    public static final int PATH_BROADCAST = 2;
+    public static final int PATH_KEY_EVENT = 3;
+
+    private static final EventLog log = new EventLog(CAPACITY, SystemClock::elapsedRealtime, NAMES);
+
+    public static void record(int code) {
+        log.record(code);
+    }
+
+    public static void record(int code, long arg) {
+        log.record(code, arg);
+    }
+
+    public static void record(int code, long firstArg, long secondArg) {
+        log.record(code, firstArg, secondArg);
+    }
+
+    public static String dump() {
+        return log.dumpToString();
+    }
+
+    /**
+     * Copies the log now and writes it to the app's files directory on the IO thread, so neither
+     * the caller nor anyone recording waits for the disk.
+     *
+     * @param onDumped may be null; runs on the IO thread with the file, or null on failure
+     */
+    public static void dumpToFileAsync(Context context, Consumer<File> onDumped) {
+        File file = new File(context.getFilesDir(), DUMP_FILE);
+        EventLog.Snapshot snapshot = log.snapshot();
+        IoExecutor.get().execute("eventLogDump", () -> {
+            File written = write(snapshot, file);
+            if (onDumped != null) {
+                onDumped.accept(written);
+            }
+        });
+    }
+
+    private static File write(EventLog.Snapshot snapshot, File file) {
+        try (Writer writer = new FileWriter(file)) {
+            snapshot.dump(writer);
+            return file;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write event log", e);
+            return null;
+        }
+    }
+}
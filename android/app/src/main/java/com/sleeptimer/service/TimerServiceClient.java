@@ -0,0 +1,153 @@
+package com.sleeptimer.service;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+import android.os.Bundle;
+import android.util.Log;
+import com.sleeptimer.timer.TimerConfig;
+import com.sleeptimer.timer.TimerEventSink;
+import com.sleeptimer.timer.TimerSnapshot;
+
+/**
+ * UI-process end of the channel to a timer running in the {@code :timer} process. Keeps the latest
+ * snapshot pushed by the service so reads never cross the binder, and forwards pushed events to the
+ * local sink (the React Native event module).
+ */
+public class TimerServiceClient {
+    private static final String TAG = "TimerServiceClient";
+
+    private static Messenger service;
+    private static boolean bound;
+    private static volatile TimerSnapshot snapshot = TimerSnapshot.IDLE;
+    private static TimerEventSink localSink = TimerEventSink.NO_OP;
+    private static int pendingDurationMinutes;
+    private static TimerConfig pendingConfig;
+
+    private static final Messenger incoming = new Messenger(new Handler(Looper.getMainLooper()) {
+        @Override
+        public void handleMessage(Message msg) {
+            switch (msg.what) {
+                case TimerServiceMessenger.MSG_STATE:
+                    snapshot = TimerSnapshot.fromLongArray(msg.getData().getLongArray(TimerServiceMessenger.KEY_SNAPSHOT));
+                    localSink.onTimerStateChanged(snapshot);
+                    break;
+                case TimerServiceMessenger.MSG_PRESET_SELECTED:
+                    localSink.onTimerPresetSelected(msg.arg1);
+                    break;
+                case TimerServiceMessenger.MSG_CLOSE_APP:
+                    localSink.onCloseAppRequested();
+                    break;
+                default:
+                    super.handleMessage(msg);
+            }
+        }
+    });
+
+    private static final ServiceConnection connection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder binder) {
+            service = new Messenger(binder);
+            Message register = Message.obtain(null, TimerServiceMessenger.MSG_REGISTER_CLIENT);
+            register.replyTo = incoming;
+            send(register);
+            if (pendingDurationMinutes > 0) {
+                send(Message.obtain(null, TimerServiceMessenger.MSG_SET_DURATION, pendingDurationMinutes, 0));
+                pendingDurationMinutes = 0;
+            }
+            if (pendingConfig != null) {
+                send(configMessage(pendingConfig));
+                pendingConfig = null;
+            }
+            Log.d(TAG, "Connected to timer process");
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            service = null;
+            Log.w(TAG, "Timer process disconnected");
+        }
+    };
+
+    public static void connect(Context context, TimerEventSink sink) {
+        localSink = sink != null ? sink : TimerEventSink.NO_OP;
+        if (!bound) {
+            Intent intent = new Intent(context, ForegroundService.class);
+            bound = context.getApplicationContext().bindService(intent, connection, Context.BIND_AUTO_CREATE);
+        }
+    }
+
+    public static void disconnect(Context context, TimerEventSink sink) {
+        if (localSink == sink) {
+            localSink = TimerEventSink.NO_OP;
+        }
+        if (bound) {
+            Message unregister = Message.obtain(null, TimerServiceMessenger.MSG_UNREGISTER_CLIENT);
+            unregister.replyTo = incoming;
+            send(unregister);
+            context.getApplicationContext().unbindService(connection);
+            bound = false;
+            service = null;
+        }
+    }
+
+    public static TimerSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public static void setTimerDuration(int minutes) {
+        if (service == null) {
+            // Delivered as soon as the connection comes up
+            pendingDurationMinutes = minutes;
+            return;
+        }
+        send(Message.obtain(null, TimerServiceMessenger.MSG_SET_DURATION, minutes, 0));
+    }
+
+    // Settings other than the duration; the :timer process persists and applies them
+    public static void setConfig(TimerConfig config) {
+        if (service == null) {
+            pendingConfig = config;
+            return;
+        }
+        send(configMessage(config));
+    }
+
+    private static Message configMessage(TimerConfig config) {
+        Message message = Message.obtain(null, TimerServiceMessenger.MSG_SET_CONFIG);
+        Bundle data = new Bundle();
+        data.putString(TimerServiceMessenger.KEY_CONFIG, config.encode());
+        message.setData(data);
+        return message;
+    }
+
+    public static void startAudible() {
+        send(Message.obtain(null, TimerServiceMessenger.MSG_START_AUDIBLE));
+    }
+
+    public static void previousChapter() {
+        send(Message.obtain(null, TimerServiceMessenger.MSG_PREVIOUS_CHAPTER));
+    }
+
+    private static boolean send(Message message) {
+        Messenger target = service;
+        if (target == null) {
+            Log.w(TAG, "Timer process not connected, dropping message " + message.what);
+            return false;
+        }
+        try {
+            target.send(message);
+            return true;
+        } catch (RemoteException e) {
+            Log.e(TAG, "Failed to reach timer process", e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.sleeptimer.service;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Messenger;
+import android.os.RemoteException;
+import android.util.Log;
+import com.sleeptimer.TimerConfigModule;
+import com.sleeptimer.timer.TimerConfig;
+import com.sleeptimer.timer.TimerEventSink;
+import com.sleeptimer.timer.TimerSnapshot;
+import java.util.ArrayList;
+
+/**
+ * Service side of the UI-to-timer channel used when the timer runs in its own {@code :timer}
+ * process. Commands arrive as Messages; timer events go back to every registered client, with the
+ * state as a flat long array so nothing but primitives crosses the binder.
+ */
+public class TimerServiceMessenger extends Handler implements TimerEventSink {
+    private static final String TAG = "TimerServiceMessenger";
+
+    // Client -> service
+    public static final int MSG_REGISTER_CLIENT = 1;
+    public static final int MSG_UNREGISTER_CLIENT = 2;
+    public static final int MSG_SET_DURATION = 3; // arg1 = minutes
+    public static final int MSG_START_AUDIBLE = 4;
+    public static final int MSG_PREVIOUS_CHAPTER = 5;
+    public static final int MSG_SET_CONFIG = 6; // data = KEY_CONFIG encoded TimerConfig
+
+    // Service -> client
+    public static final int MSG_STATE = 10; // data = KEY_SNAPSHOT long[]
+    public static final int MSG_PRESET_SELECTED = 11; // arg1 = minutes
+    public static final int MSG_CLOSE_APP = 12;
+
+    public static final String KEY_SNAPSHOT = "snapshot";
+    public static final String KEY_CONFIG = "config";
+
+    private final Context context;
+    private final ArrayList<Messenger> clients = new ArrayList<>();
+
+    TimerServiceMessenger(Context context) {
+        super(Looper.getMainLooper());
+        this.context = context.getApplicationContext();
+    }
+
+    @Override
+    public void handleMessage(Message msg) {
+        switch (msg.what) {
+            case MSG_REGISTER_CLIENT:
+                if (msg.replyTo != null && !clients.contains(msg.replyTo)) {
+                    clients.add(msg.replyTo);
+                    // Bring the new client up to date straight away
+                    send(msg.replyTo, stateMessage(MediaButtonReceiver.getTimerSnapshot()));
+                }
+                break;
+            case MSG_UNREGISTER_CLIENT:
+                clients.remove(msg.replyTo);
+                break;
+            case MSG_SET_DURATION:
+                TimerConfigModule.setTimerDurationFromNotification(msg.arg1);
+                break;
+            case MSG_START_AUDIBLE:
+                MediaButtonReceiver.triggerStartAudible(context);
+                break;
+            case MSG_PREVIOUS_CHAPTER:
+                MediaButtonReceiver.triggerPreviousChapter(context);
+                break;
+            case MSG_SET_CONFIG:
+                TimerConfigStore.update(TimerConfig.decode(msg.getData().getString(KEY_CONFIG, "")), true);
+                break;
+            default:
+                super.handleMessage(msg);
+        }
+    }
+
+    @Override
+    public void onTimerStateChanged(TimerSnapshot snapshot) {
+        broadcast(stateMessage(snapshot));
+    }
+
+    @Override
+    public void onTimerPresetSelected(int minutes) {
+        broadcast(Message.obtain(null, MSG_PRESET_SELECTED, minutes, 0));
+    }
+
+    @Override
+    public void onCloseAppRequested() {
+        broadcast(Message.obtain(null, MSG_CLOSE_APP));
+    }
+
+    private static Message stateMessage(TimerSnapshot snapshot) {
+        Message message = Message.obtain(null, MSG_STATE);
+        Bundle data = new Bundle();
+        data.putLongArray(KEY_SNAPSHOT, snapshot.toLongArray());
+        message.setData(data);
+        return message;
+    }
+
+    private void broadcast(Message message) {
+        for (int i = clients.size() - 1; i >= 0; i--) {
+            // A Message can only be sent once, so each client gets its own copy
+            if (!send(clients.get(i), Message.obtain(message))) {
+                clients.remove(i);
+            }
+        }
+        message.recycle();
+    }
+
+    private boolean send(Messenger client, Message message) {
+        try {
+            client.send(message);
+            return true;
+        } catch (RemoteException e) {
+            Log.w(TAG, "Dropping dead timer client");
+            return false;
+        }
+    }
+}
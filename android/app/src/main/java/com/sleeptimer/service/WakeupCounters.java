@@ -0,0 +1,113 @@
+package com.sleeptimer.service;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the things that wake the CPU or another process on our behalf: main-looper messages we
+ * schedule on the timer path, notification posts, outbound broadcasts, alarms, media command thread
+ * runs, sensor batches and IO thread runs. Counts are split by whether a timer completion was armed at the time,
+ * together with the time spent in each state, and written as properties to files/wakeups.properties
+ * for {@code :timer-core:checkWakeupBudget}.
+ *
+ * The silent keep-alive track is looped by the audio mixer and wakes no thread of ours, so it is
+ * not counted here; SilentAudioPlayer reports its own CPU time and process thread wakeups.
+ */
+public class WakeupCounters {
+    private static final String TAG = "WakeupCounters";
+    private static final String FILE_NAME = "wakeups.properties";
+
+    public static final int MAIN_LOOPER_POSTS = 0;
+    public static final int NOTIFICATIONS = 1;
+    public static final int BROADCASTS = 2;
+    public static final int ALARMS = 3;
+    public static final int MEDIA_COMMANDS = 4;
+    public static final int SENSOR_BATCHES = 5;
+    public static final int IO_TASKS = 6;
+
+    // Property names; must match the keys in wakeup-budget.properties
+    private static final String[] NAMES = {
+        "mainLooperPosts", "notifications", "broadcasts", "alarms", "mediaCommands", "sensorBatches", "ioTasks",
+    };
+
+    private static final AtomicLongArray armedCounts = new AtomicLongArray(NAMES.length);
+    private static final AtomicLongArray idleCounts = new AtomicLongArray(NAMES.length);
+    private static volatile boolean armed;
+    private static long stateSinceMs = SystemClock.elapsedRealtime();
+    private static long armedMs;
+    private static long idleMs;
+
+    public static void count(int counter) {
+        (armed ? armedCounts : idleCounts).incrementAndGet(counter);
+    }
+
+    public static void count(int counter, int times) {
+        (armed ? armedCounts : idleCounts).addAndGet(counter, times);
+    }
+
+    // Starts a new measurement, e.g. when the timer service is created
+    static synchronized void reset() {
+        for (int i = 0; i < NAMES.length; i++) {
+            armedCounts.set(i, 0);
+            idleCounts.set(i, 0);
+        }
+        stateSinceMs = SystemClock.elapsedRealtime();
+        armedMs = 0;
+        idleMs = 0;
+    }
+
+    // True while a timer completion is scheduled
+    static synchronized void setArmed(boolean nowArmed) {
+        if (nowArmed == armed) {
+            return;
+        }
+        accumulate(SystemClock.elapsedRealtime());
+        armed = nowArmed;
+    }
+
+    // Writes the counters off the main thread; context may be null, then nothing is written
+    static void writeAsync(Context context) {
+        if (context == null) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        IoExecutor.get().execute("wakeups", () -> write(appContext));
+    }
+
+    static synchronized File write(Context context) {
+        accumulate(SystemClock.elapsedRealtime());
+        File file = new File(context.getFilesDir(), FILE_NAME);
+        try (Writer out = new FileWriter(file)) {
+            out.write("# Wakeup counters since the timer service started; see wakeup-budget.properties\n");
+            writeScenario(out, "armed", armedMs, armedCounts);
+            writeScenario(out, "idle", idleMs, idleCounts);
+            return file;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write wakeup counters", e);
+            return null;
+        }
+    }
+
+    private static void writeScenario(Writer out, String scenario, long durationMs, AtomicLongArray counts)
+            throws IOException {
+        out.write(scenario + ".hours=" + (durationMs / 3_600_000.0) + "\n");
+        for (int i = 0; i < NAMES.length; i++) {
+            out.write(scenario + "." + NAMES[i] + "=" + counts.get(i) + "\n");
+        }
+    }
+
+    private static void accumulate(long nowMs) {
+        if (armed) {
+            armedMs += nowMs - stateSinceMs;
+        } else {
+            idleMs += nowMs - stateSinceMs;
+        }
+        stateSinceMs = nowMs;
+    }
+}
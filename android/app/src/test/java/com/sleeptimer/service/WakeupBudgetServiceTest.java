@@ -0,0 +1,192 @@
+package com.sleeptimer.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Application;
+import android.content.Intent;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.view.KeyEvent;
+import com.sleeptimer.timer.WakeupBudget;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.util.Properties;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ServiceController;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
+
+/**
+ * Runs a night through the real ForegroundService and MediaButtonReceiver on Robolectric's paused
+ * loopers, with virtual time, and checks the real WakeupCounters against wakeup-budget.properties.
+ * The JVM model in timer-core's WakeupBudgetNightTest covers more scenarios; this keeps it honest.
+ *
+ * There is no player app here, so presses take the launch-and-broadcast fallback rather than the
+ * session path, and pauses go out unobserved. Everything the receiver, TickScheduler, the IO
+ * thread and the media command thread schedule runs as it would on a device.
+ *
+ * One night per class: MediaButtonReceiver and its collaborators keep their state in statics,
+ * which Robolectric does not reset between tests of the same sandbox.
+ */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+@Config(sdk = 34, application = Application.class)
+public class WakeupBudgetServiceTest {
+    private static final long MINUTE_MS = 60 * 1000L;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+
+    private static Properties budget;
+
+    private Application app;
+    private final MediaButtonReceiver receiver = new MediaButtonReceiver();
+
+    @BeforeClass
+    public static void loadBudget() throws IOException {
+        String path = System.getProperty("wakeupBudget", "../wakeup-budget.properties");
+        budget = new Properties();
+        try (Reader in = new FileReader(path)) {
+            budget.load(in);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        app = RuntimeEnvironment.getApplication();
+        // What MainApplication.onCreate does, without loading React Native
+        TimerConfigStore.init(app);
+        TimerConfigStore.update(config -> config.withDurationSeconds(45 * 60), false);
+        // A night starts with the screen off
+        shadowOf(app.getSystemService(PowerManager.class)).setIsInteractive(false);
+        idleAll();
+    }
+
+    @Test
+    public void nightWithAPausedPlayerFitsTheBudget() throws IOException {
+        ServiceController<ForegroundService> service = Robolectric.buildService(ForegroundService.class);
+        service.create().startCommand(0, 1);
+        idleAll();
+        runFor(HOUR_MS);
+
+        press(KeyEvent.KEYCODE_MEDIA_PLAY);
+        assertTrue(MediaButtonReceiver.isTimerRunning());
+        // A glance at the phone: ticks while the screen is on, none once it is off again
+        setScreenOn(true);
+        runFor(2 * MINUTE_MS);
+        setScreenOn(false);
+        runFor(18 * MINUTE_MS);
+        press(KeyEvent.KEYCODE_MEDIA_PAUSE);
+        runFor(10 * MINUTE_MS);
+        press(KeyEvent.KEYCODE_MEDIA_PLAY);
+        runFor(8 * HOUR_MS);
+
+        assertFalse(MediaButtonReceiver.isTimerRunning());
+        Properties measured = measured();
+        // The pause press paused the player only; the timer ran to its deadline
+        assertEquals(0.75, Double.parseDouble(measured.getProperty("armed.hours")), 0.01);
+        assertTrue(Long.parseLong(measured.getProperty("armed.alarms")) >= 1);
+        assertWithinBudget(measured);
+
+        service.destroy();
+        idleAll();
+    }
+
+    private void press(int keyCode) {
+        long now = SystemClock.uptimeMillis();
+        receiver.onReceive(app, mediaButton(new KeyEvent(now, now, KeyEvent.ACTION_DOWN, keyCode, 0)));
+        receiver.onReceive(app, mediaButton(new KeyEvent(now, now, KeyEvent.ACTION_UP, keyCode, 0)));
+        idleAll();
+    }
+
+    private static Intent mediaButton(KeyEvent event) {
+        return new Intent(Intent.ACTION_MEDIA_BUTTON).putExtra(Intent.EXTRA_KEY_EVENT, event);
+    }
+
+    // Delivered to TickScheduler's runtime receiver
+    private void setScreenOn(boolean on) {
+        shadowOf(app.getSystemService(PowerManager.class)).setIsInteractive(on);
+        app.sendBroadcast(new Intent(on ? Intent.ACTION_SCREEN_ON : Intent.ACTION_SCREEN_OFF));
+        idleAll();
+    }
+
+    private Properties measured() throws IOException {
+        File file = WakeupCounters.write(app);
+        assertNotNull(file);
+        Properties measured = new Properties();
+        try (Reader in = new FileReader(file)) {
+            measured.load(in);
+        }
+        return measured;
+    }
+
+    // Steps virtual time from one scheduled message to the next, on every looper, so work on the IO
+    // and media command threads runs at its own due time and is counted in the right state
+    private static void runFor(long durationMs) {
+        long end = SystemClock.uptimeMillis() + durationMs;
+        while (true) {
+            idleAll();
+            long next = nextTaskTime();
+            if (next > end) {
+                break;
+            }
+            long step = Math.max(1, next - SystemClock.uptimeMillis());
+            shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(step));
+        }
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(end - SystemClock.uptimeMillis()));
+        idleAll();
+    }
+
+    // Runs everything due now; the threads post to each other, so repeat until all are quiet
+    private static void idleAll() {
+        boolean ranBackground;
+        do {
+            shadowOf(Looper.getMainLooper()).idle();
+            ranBackground = false;
+            for (Looper looper : ShadowLooper.getAllLoopers()) {
+                if (looper != Looper.getMainLooper() && !shadowOf(looper).isIdle()) {
+                    shadowOf(looper).idle();
+                    ranBackground = true;
+                }
+            }
+        } while (ranBackground);
+    }
+
+    private static long nextTaskTime() {
+        long next = Long.MAX_VALUE;
+        for (Looper looper : ShadowLooper.getAllLoopers()) {
+            Duration at = shadowOf(looper).getNextScheduledTaskTime();
+            if (!at.isZero()) {
+                next = Math.min(next, at.toMillis());
+            }
+        }
+        return next;
+    }
+
+    private static void assertWithinBudget(Properties measured) {
+        StringBuilder over = new StringBuilder();
+        for (WakeupBudget.Line line : WakeupBudget.check(budget, measured)) {
+            if (line.exceeded()) {
+                over.append('\n').append(line.key).append(": ").append(line.scaled)
+                    .append(" per ").append((int) WakeupBudget.BUDGET_HOURS).append("h, budget ").append(line.budget);
+            }
+        }
+        if (over.length() > 0) {
+            fail("Night through the real service exceeds wakeup-budget.properties:" + over);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.sleeptimer.timer;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Event dispatch through the bound {@link TimerEventSink} versus the
+ * {@code Class.forName(...).getMethod(...).invoke(...)} pattern it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+    // Stands in for the old static MediaButtonEventModule.send* methods
+    public static class LegacyModule {
+        static long lastDuration;
+
+        public static void sendTimerUpdatedEvent(long durationSeconds) {
+            lastDuration = durationSeconds;
+        }
+    }
+
+    static final class CountingSink implements TimerEventSink {
+        long lastDuration;
+
+        @Override
+        public void onTimerStateChanged(TimerSnapshot snapshot) {
+            lastDuration = snapshot.durationMs;
+        }
+
+        @Override
+        public void onTimerPresetSelected(int minutes) {
+        }
+
+        @Override
+        public void onCloseAppRequested() {
+        }
+    }
+
+    private CountingSink sink;
+    private TimerSnapshot snapshot;
+    private Method cachedMethod;
+    private long duration;
+
+    @Setup
+    public void setUp() throws Exception {
+        sink = new CountingSink();
+        TimerEvents.bind(sink);
+        snapshot = new TimerSnapshot(TimerEngine.State.RUNNING, 10_000, 5_000, 900_000, 1, 5_000);
+        cachedMethod = LegacyModule.class.getMethod("sendTimerUpdatedEvent", long.class);
+        duration = 900;
+    }
+
+    @Benchmark
+    public long boundSink() {
+        TimerEvents.get().onTimerStateChanged(snapshot);
+        return sink.lastDuration;
+    }
+
+    @Benchmark
+    public long reflectiveLookupPerCall() throws Exception {
+        Class<?> clazz = Class.forName("com.sleeptimer.timer.DispatchBenchmark$LegacyModule");
+        clazz.getMethod("sendTimerUpdatedEvent", long.class).invoke(null, duration);
+        return LegacyModule.lastDuration;
+    }
+
+    @Benchmark
+    public long reflectiveCachedMethod() throws Exception {
+        cachedMethod.invoke(null, duration);
+        return LegacyModule.lastDuration;
+    }
+}
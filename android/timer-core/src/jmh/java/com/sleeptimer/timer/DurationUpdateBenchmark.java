@@ -0,0 +1,46 @@
+package com.sleeptimer.timer;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of a duration change on a running timer (slider drags and notification presets), including
+ * publishing the resulting snapshot to the bound sink.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DurationUpdateBenchmark {
+    private ManualClock clock;
+    private TimerEngine engine;
+    private long minutes;
+
+    @Setup
+    public void setUp() {
+        clock = new ManualClock(1_000_000);
+        engine = new TimerEngine(clock);
+        engine.start(15 * 60 * 1000L);
+        TimerEvents.bind(TimerEventSink.NO_OP);
+    }
+
+    @Benchmark
+    public long updateDurationAndPublish() {
+        clock.advance(250);
+        minutes = minutes % 60 + 1;
+        engine.updateDuration(minutes * 60 * 1000L);
+        TimerEvents.get().onTimerStateChanged(engine.snapshot());
+        return engine.getGeneration();
+    }
+}
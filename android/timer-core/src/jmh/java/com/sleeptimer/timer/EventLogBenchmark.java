@@ -0,0 +1,48 @@
+package com.sleeptimer.timer;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of recording one event versus building the log line it replaces. With -prof gc,
+ * {@code record} should report gc.alloc.rate.norm of 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventLogBenchmark {
+    private ManualClock clock;
+    private EventLog log;
+    private long remainingMs;
+
+    @Setup
+    public void setUp() {
+        clock = new ManualClock(1_000_000);
+        log = new EventLog(4096, clock, new String[] {"tick"});
+        remainingMs = 42 * 60 * 1000L;
+    }
+
+    @Benchmark
+    public long record() {
+        log.record(0, remainingMs, 7);
+        return log.totalRecorded();
+    }
+
+    @Benchmark
+    public String concatenatedLogLine() {
+        // What a Log.d call builds before it is even handed to the logger
+        return "Timer resumed with " + remainingMs + "ms remaining, generation " + 7;
+    }
+}
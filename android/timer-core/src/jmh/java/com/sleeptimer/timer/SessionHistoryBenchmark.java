@@ -0,0 +1,152 @@
+package com.sleeptimer.timer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Session history over a synthetic year of nightly sessions (one to two timers a night with the
+ * occasional pause and extension, about 2,500 records). Compares the streaming per-night and
+ * per-week queries with reading the whole file into memory first, and measures appending one
+ * night's records with a flush.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionHistoryBenchmark {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final long MINUTE_MS = 60 * 1000L;
+    private static final long YEAR_START_WALL_MS = 1_735_689_600_000L; // 2025-01-01T00:00Z
+
+    private final TimeZone zone = TimeZone.getTimeZone("Europe/Berlin");
+    private File directory;
+    private File yearFile;
+    private SessionHistory year;
+    private SessionHistory appendTarget;
+    private long appendWallMs;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("session-history").toFile();
+        yearFile = new File(directory, "year.bin");
+        year = new SessionHistory(yearFile, 400 * DAY_MS, Integer.MAX_VALUE);
+        Random random = new Random(42);
+        for (int night = 0; night < 365; night++) {
+            long bedtime = YEAR_START_WALL_MS + night * DAY_MS + 21 * 60 * MINUTE_MS
+                    + random.nextInt(180) * MINUTE_MS;
+            long end = appendNight(year, bedtime, random);
+            if (random.nextInt(4) == 0) {
+                appendNight(year, end + 20 * MINUTE_MS, random); // woke up and started another timer
+            }
+        }
+        year.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpAppend() throws IOException {
+        appendTarget = new SessionHistory(new File(directory, "append-" + System.nanoTime() + ".bin"),
+                400 * DAY_MS, Integer.MAX_VALUE);
+        appendWallMs = YEAR_START_WALL_MS;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownAppend() throws IOException {
+        appendTarget.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public List<SessionAggregator.Period> nightlyAggregates() throws IOException {
+        SessionAggregator aggregator = new SessionAggregator(zone, false);
+        year.query(Long.MIN_VALUE, Long.MAX_VALUE, aggregator);
+        return aggregator.finish();
+    }
+
+    @Benchmark
+    public List<SessionAggregator.Period> weeklyAggregates() throws IOException {
+        SessionAggregator aggregator = new SessionAggregator(zone, true);
+        year.query(Long.MIN_VALUE, Long.MAX_VALUE, aggregator);
+        return aggregator.finish();
+    }
+
+    // Last seven nights only: the scan cost is the same, the aggregation touches a few records
+    @Benchmark
+    public List<SessionAggregator.Period> lastWeekNightly() throws IOException {
+        SessionAggregator aggregator = new SessionAggregator(zone, false);
+        year.query(YEAR_START_WALL_MS + 358 * DAY_MS, Long.MAX_VALUE, aggregator);
+        return aggregator.finish();
+    }
+
+    // Baseline: load the whole file, then aggregate from the in-memory copy
+    @Benchmark
+    public List<SessionAggregator.Period> nightlyAggregatesLoadingWholeFile() throws IOException {
+        ByteBuffer all = ByteBuffer.wrap(Files.readAllBytes(yearFile.toPath()));
+        SessionAggregator aggregator = new SessionAggregator(zone, false);
+        for (int offset = SessionHistory.HEADER_SIZE; offset + SessionHistory.RECORD_SIZE <= all.limit();
+                offset += SessionHistory.RECORD_SIZE) {
+            aggregator.visit(all.getLong(offset), all.getInt(offset + 8), all.getLong(offset + 16),
+                    all.getLong(offset + 24));
+        }
+        return aggregator.finish();
+    }
+
+    @Benchmark
+    public int appendNightAndFlush() throws IOException {
+        appendWallMs = appendNight(appendTarget, appendWallMs + DAY_MS, null);
+        appendTarget.flush();
+        return appendTarget.getBatchWrites();
+    }
+
+    // Appends one session and returns its completion time; a null random gives a fixed session
+    private static long appendNight(SessionHistory history, long startWallMs, Random random)
+            throws IOException {
+        long durationMs = (random != null ? 15 + random.nextInt(4) * 15 : 30) * MINUTE_MS;
+        long wallMs = startWallMs;
+        history.append(wallMs, SessionHistory.STARTED, durationMs, 1);
+        if (random == null || random.nextInt(3) == 0) {
+            wallMs += 5 * MINUTE_MS;
+            history.append(wallMs, SessionHistory.PAUSED, durationMs - 5 * MINUTE_MS, 2);
+            wallMs += 2 * MINUTE_MS;
+            history.append(wallMs, SessionHistory.RESUMED, durationMs - 5 * MINUTE_MS, 3);
+            durationMs -= 5 * MINUTE_MS;
+        }
+        if (random == null || random.nextInt(5) == 0) {
+            wallMs += 10 * MINUTE_MS;
+            history.append(wallMs, SessionHistory.EXTENDED, durationMs, 4);
+        }
+        wallMs += durationMs;
+        history.append(wallMs, SessionHistory.COMPLETED, 5, 0);
+        history.append(wallMs + 900, SessionHistory.PLAYBACK_STOPPED, 1, 1);
+        return wallMs;
+    }
+}
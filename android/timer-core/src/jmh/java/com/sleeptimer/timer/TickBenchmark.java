@@ -0,0 +1,72 @@
+package com.sleeptimer.timer;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-tick costs: formatting the remaining time and reading the timer state, as done once per
+ * notification or JS refresh.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+    private ManualClock clock;
+    private TimerEngine engine;
+    private StringBuilder reusable;
+    private long remainingMs;
+
+    @Setup
+    public void setUp() {
+        clock = new ManualClock(1_000_000);
+        engine = new TimerEngine(clock);
+        engine.start(8 * 60 * 60 * 1000L);
+        reusable = new StringBuilder(16);
+        remainingMs = 7 * 60 * 60 * 1000L + 59 * 60 * 1000L + 59 * 1000L;
+    }
+
+    @Benchmark
+    public String formatWithStringFormat() {
+        // The formatter the notification used before TimeFormat
+        long seconds = remainingMs / 1000;
+        long minutes = seconds / 60;
+        long hours = minutes / 60;
+        return String.format("%d:%02d:%02d", hours, minutes % 60, seconds % 60);
+    }
+
+    @Benchmark
+    public String formatRemaining() {
+        return TimeFormat.formatRemaining(remainingMs);
+    }
+
+    @Benchmark
+    public int appendRemainingReused() {
+        reusable.setLength(0);
+        TimeFormat.appendRemaining(reusable, remainingMs);
+        return reusable.length();
+    }
+
+    @Benchmark
+    public long remainingMs() {
+        clock.advance(1000);
+        return engine.getRemainingMs();
+    }
+
+    @Benchmark
+    public TimerSnapshot snapshot() {
+        clock.advance(1000);
+        return engine.snapshot();
+    }
+}
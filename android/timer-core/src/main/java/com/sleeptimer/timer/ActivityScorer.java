@@ -0,0 +1,137 @@
+package com.sleeptimer.timer;
+
+/**
+ * Streaming actigraphy-style activity score from raw accelerometer samples.
+ *
+ * Each sample contributes how far the acceleration magnitude strays from a slow moving average
+ * (gravity plus sensor bias), minus a noise floor. Contributions are averaged over one-minute
+ * epochs, so the score does not depend on the sampling rate. A run of quiet epochs marks the
+ * phone {@link #STILL}; a single busy epoch marks it {@link #ACTIVE}. Gaps in the samples (a
+ * dropped sensor FIFO) close the current epoch but count as neither.
+ *
+ * Samples must arrive in time order. All state is primitive fields; {@link #addSample} does not
+ * allocate. Not thread-safe.
+ */
+public final class ActivityScorer {
+    public static final int UNKNOWN = 0;
+    public static final int STILL = 1;
+    public static final int ACTIVE = 2;
+
+    public static final long EPOCH_MS = 60 * 1000;
+    private static final float NOISE_FLOOR = 0.08f; // m/s^2, above typical accelerometer noise
+    private static final float BASELINE_WEIGHT = 1f / 32;
+
+    private final int stillEpochs;
+    private final float stillThreshold;
+    private final float activeThreshold;
+
+    private int state = UNKNOWN;
+    private boolean hasBaseline;
+    private float baseline;
+    private long epochStartMs = -1;
+    private double epochSum;
+    private int epochSamples;
+    private int quietRun;
+    private float lastEpochScore;
+    private int epochs;
+
+    // The tuning the app runs with: ten quiet minutes to count as still
+    public static ActivityScorer withDefaults() {
+        return new ActivityScorer(10, 0.02f, 0.15f);
+    }
+
+    /**
+     * @param stillEpochs consecutive quiet epochs before the phone counts as still
+     * @param stillThreshold an epoch scoring below this is quiet
+     * @param activeThreshold an epoch scoring at or above this is active
+     */
+    public ActivityScorer(int stillEpochs, float stillThreshold, float activeThreshold) {
+        if (stillEpochs < 1 || stillThreshold > activeThreshold) {
+            throw new IllegalArgumentException("stillEpochs must be >= 1 and stillThreshold <= activeThreshold");
+        }
+        this.stillEpochs = stillEpochs;
+        this.stillThreshold = stillThreshold;
+        this.activeThreshold = activeThreshold;
+    }
+
+    /**
+     * Adds one sample (acceleration in m/s^2 including gravity).
+     *
+     * @return true if this sample closed an epoch, i.e. {@link #getState} may have changed
+     */
+    public boolean addSample(long timeMs, float x, float y, float z) {
+        float magnitude = (float) Math.sqrt(x * x + y * y + z * z);
+        if (!hasBaseline) {
+            baseline = magnitude;
+            hasBaseline = true;
+        }
+        float deviation = Math.abs(magnitude - baseline);
+        baseline += (magnitude - baseline) * BASELINE_WEIGHT;
+
+        boolean closed = false;
+        if (epochStartMs < 0) {
+            epochStartMs = timeMs;
+        } else if (timeMs - epochStartMs >= EPOCH_MS) {
+            closed = closeEpoch();
+            // Start the next epoch on the grid unless the samples skipped whole epochs
+            long elapsed = timeMs - epochStartMs;
+            epochStartMs = elapsed < 2 * EPOCH_MS ? epochStartMs + EPOCH_MS : timeMs;
+        }
+        epochSum += Math.max(0f, deviation - NOISE_FLOOR);
+        epochSamples++;
+        return closed;
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    // Mean excess movement of the last closed epoch, in m/s^2
+    public float getLastEpochScore() {
+        return lastEpochScore;
+    }
+
+    public int getEpochCount() {
+        return epochs;
+    }
+
+    public void reset() {
+        state = UNKNOWN;
+        hasBaseline = false;
+        baseline = 0;
+        epochStartMs = -1;
+        epochSum = 0;
+        epochSamples = 0;
+        quietRun = 0;
+        lastEpochScore = 0;
+        epochs = 0;
+    }
+
+    private boolean closeEpoch() {
+        if (epochSamples == 0) {
+            return false;
+        }
+        float score = (float) (epochSum / epochSamples);
+        epochSum = 0;
+        epochSamples = 0;
+        lastEpochScore = score;
+        epochs++;
+
+        if (score >= activeThreshold) {
+            quietRun = 0;
+            state = ACTIVE;
+        } else if (score < stillThreshold) {
+            quietRun++;
+            if (quietRun >= stillEpochs) {
+                state = STILL;
+            }
+        } else {
+            // Fidgeting: not enough to call it awake, but it breaks a still run
+            quietRun = 0;
+            if (state == STILL) {
+                state = UNKNOWN;
+            }
+        }
+        return true;
+    }
+}
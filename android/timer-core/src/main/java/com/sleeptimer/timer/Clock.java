@@ -0,0 +1,9 @@
+package com.sleeptimer.timer;
+
+/**
+ * Monotonic time source for the timer. Production code passes {@code SystemClock::elapsedRealtime},
+ * which keeps counting through deep sleep and is not affected by wall-clock or NTP changes.
+ */
+public interface Clock {
+    long elapsedRealtime();
+}
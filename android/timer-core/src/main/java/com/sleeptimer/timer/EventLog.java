@@ -0,0 +1,156 @@
+package com.sleeptimer.timer;
+
+import java.io.IOException;
+
+/**
+ * Fixed-size in-memory ring of recent events: an int code, two long arguments and a timestamp per
+ * entry, stored in preallocated parallel arrays. Recording writes four array slots and never
+ * allocates, so it is cheap enough for every press and tick; text is only produced when the log is
+ * dumped, using the code names supplied by the owner. Once full, the oldest entries are
+ * overwritten.
+ */
+public final class EventLog {
+    private final Clock clock;
+    private final String[] codeNames;
+    private final int mask;
+    private final long[] times;
+    private final int[] codes;
+    private final long[] firstArgs;
+    private final long[] secondArgs;
+    private long written; // total events ever recorded; the next slot is written & mask
+
+    /**
+     * @param capacity rounded up to a power of two
+     * @param codeNames name of each event code, indexed by code; used only when dumping
+     */
+    public EventLog(int capacity, Clock clock, String[] codeNames) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.clock = clock;
+        this.codeNames = codeNames;
+        mask = size - 1;
+        times = new long[size];
+        codes = new int[size];
+        firstArgs = new long[size];
+        secondArgs = new long[size];
+    }
+
+    public void record(int code) {
+        record(code, 0, 0);
+    }
+
+    public void record(int code, long arg) {
+        record(code, arg, 0);
+    }
+
+    public synchronized void record(int code, long firstArg, long secondArg) {
+        int slot = (int) (written & mask);
+        times[slot] = clock.elapsedRealtime();
+        codes[slot] = code;
+        firstArgs[slot] = firstArg;
+        secondArgs[slot] = secondArg;
+        written++;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // Number of events currently held, at most capacity()
+    public synchronized int size() {
+        return (int) Math.min(written, mask + 1);
+    }
+
+    public synchronized long totalRecorded() {
+        return written;
+    }
+
+    public synchronized void clear() {
+        written = 0;
+    }
+
+    /**
+     * Copies the held events. Only the copy runs under the lock, so formatting and writing them
+     * never hold up {@link #record} callers.
+     */
+    public Snapshot snapshot() {
+        synchronized (this) {
+            int count = (int) Math.min(written, mask + 1);
+            long first = written - count;
+            Snapshot snapshot = new Snapshot(first, count);
+            for (int i = 0; i < count; i++) {
+                int slot = (int) ((first + i) & mask);
+                snapshot.times[i] = times[slot];
+                snapshot.codes[i] = codes[slot];
+                snapshot.firstArgs[i] = firstArgs[slot];
+                snapshot.secondArgs[i] = secondArgs[slot];
+            }
+            return snapshot;
+        }
+    }
+
+    // Copies under the lock, then formats outside it
+    public void dump(Appendable out) throws IOException {
+        snapshot().dump(out);
+    }
+
+    public String dumpToString() {
+        return snapshot().dumpToString();
+    }
+
+    /** The events held at one moment, oldest first. */
+    public final class Snapshot {
+        private final long overwritten;
+        private final long[] times;
+        private final int[] codes;
+        private final long[] firstArgs;
+        private final long[] secondArgs;
+
+        private Snapshot(long overwritten, int count) {
+            this.overwritten = overwritten;
+            times = new long[count];
+            codes = new int[count];
+            firstArgs = new long[count];
+            secondArgs = new long[count];
+        }
+
+        public int size() {
+            return times.length;
+        }
+
+        /**
+         * Writes the events oldest first, one per line:
+         * {@code <elapsed ms> <code name> <arg1> <arg2>}, with trailing zero arguments omitted.
+         */
+        public void dump(Appendable out) throws IOException {
+            for (int i = 0; i < times.length; i++) {
+                out.append(Long.toString(times[i])).append(' ').append(nameOf(codes[i]));
+                if (firstArgs[i] != 0 || secondArgs[i] != 0) {
+                    out.append(' ').append(Long.toString(firstArgs[i]));
+                }
+                if (secondArgs[i] != 0) {
+                    out.append(' ').append(Long.toString(secondArgs[i]));
+                }
+                out.append('\n');
+            }
+            if (overwritten > 0) {
+                out.append("(").append(Long.toString(overwritten)).append(" older events overwritten)\n");
+            }
+        }
+
+        public String dumpToString() {
+            StringBuilder out = new StringBuilder(times.length * 32);
+            try {
+                dump(out);
+            } catch (IOException e) {
+                // StringBuilder does not throw
+            }
+            return out.toString();
+        }
+    }
+
+    private String nameOf(int code) {
+        return code >= 0 && code < codeNames.length && codeNames[code] != null
+                ? codeNames[code]
+                : "event#" + code;
+    }
+}
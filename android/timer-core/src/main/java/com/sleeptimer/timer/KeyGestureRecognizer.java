@@ -0,0 +1,133 @@
+package com.sleeptimer.timer;
+
+/**
+ * Turns the key events of one key into single, double, triple and long presses. Works purely from
+ * the events' own timestamps ({@code KeyEvent.getEventTime()}), so how late an event is delivered
+ * does not change what it means; the delivery time is only used to report decision latency.
+ *
+ * Presses whose key-down times are at most {@code multiPressWindowMs} apart form one gesture. A
+ * gesture that reaches {@code maxPresses} is decided on that press; a shorter one is decided when
+ * the window runs out, which the owner drives by calling {@link #poll} at {@link #getDeadline}, or
+ * implicitly by the next press arriving after the window. Long press is off when
+ * {@code longPressMs} is 0, and needs key-up events when on.
+ *
+ * Holds only primitives and never allocates. Not thread-safe; feed it from one thread.
+ */
+public final class KeyGestureRecognizer {
+    public static final int NONE = 0;
+    public static final int SINGLE = 1;
+    public static final int DOUBLE = 2;
+    public static final int TRIPLE = 3;
+    public static final int LONG = 4;
+
+    public interface Listener {
+        /**
+         * @param latencyMs time from the key-down that completed the gesture to the decision,
+         *                  including any wait for the multi-press window
+         */
+        void onGesture(int gesture, long latencyMs);
+    }
+
+    private final int maxPresses;
+    private final long multiPressWindowMs;
+    private final long longPressMs;
+    private final Listener listener;
+
+    private int presses;
+    private boolean down;
+    private boolean consumed; // the held press already produced its gesture
+    private long lastDownTime;
+    private long lastDecisionLatencyMs = -1;
+
+    /**
+     * @param maxPresses 1 to 3; a gesture with this many presses is reported without waiting
+     */
+    public KeyGestureRecognizer(int maxPresses, long multiPressWindowMs, long longPressMs, Listener listener) {
+        if (maxPresses < SINGLE || maxPresses > TRIPLE) {
+            throw new IllegalArgumentException("maxPresses must be 1 to 3: " + maxPresses);
+        }
+        this.maxPresses = maxPresses;
+        this.multiPressWindowMs = multiPressWindowMs;
+        this.longPressMs = longPressMs;
+        this.listener = listener;
+    }
+
+    public void onKeyDown(long eventTimeMs, int repeatCount, long nowMs) {
+        if (repeatCount > 0) {
+            // Auto-repeat while held; long press is decided from the first down
+            poll(nowMs);
+            return;
+        }
+        if (presses > 0 && eventTimeMs - lastDownTime > multiPressWindowMs) {
+            // The previous gesture's window ran out before anyone polled
+            decide(presses, nowMs);
+        }
+        presses++;
+        down = true;
+        consumed = false;
+        lastDownTime = eventTimeMs;
+        if (presses == maxPresses && longPressMs == 0) {
+            consumed = true;
+            decide(presses, nowMs);
+        }
+    }
+
+    public void onKeyUp(long eventTimeMs, long nowMs) {
+        if (!down) {
+            return;
+        }
+        down = false;
+        if (consumed) {
+            consumed = false;
+            return;
+        }
+        if (longPressMs > 0 && eventTimeMs - lastDownTime >= longPressMs) {
+            decide(LONG, nowMs);
+        } else if (presses == maxPresses) {
+            decide(presses, nowMs);
+        }
+    }
+
+    /** Decides whatever has timed out by {@code nowMs}. Safe to call at any time. */
+    public void poll(long nowMs) {
+        if (down && !consumed && longPressMs > 0 && nowMs - lastDownTime >= longPressMs) {
+            // Still held past the threshold: report now rather than waiting for the release
+            consumed = true;
+            decide(LONG, nowMs);
+        } else if (!down && presses > 0 && nowMs - lastDownTime > multiPressWindowMs) {
+            decide(presses, nowMs);
+        }
+    }
+
+    /** When {@link #poll} next has something to decide, or {@code Long.MAX_VALUE} if nothing is pending. */
+    public long getDeadline() {
+        if (down && !consumed && longPressMs > 0) {
+            return lastDownTime + longPressMs;
+        }
+        if (!down && presses > 0) {
+            return lastDownTime + multiPressWindowMs + 1;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public boolean isPending() {
+        return presses > 0;
+    }
+
+    public long getLastDecisionLatencyMs() {
+        return lastDecisionLatencyMs;
+    }
+
+    public void reset() {
+        presses = 0;
+        down = false;
+        consumed = false;
+    }
+
+    private void decide(int gesture, long nowMs) {
+        presses = 0;
+        // Measured from the press that completed the gesture, so window waits are included
+        lastDecisionLatencyMs = Math.max(0, nowMs - lastDownTime);
+        listener.onGesture(gesture, lastDecisionLatencyMs);
+    }
+}
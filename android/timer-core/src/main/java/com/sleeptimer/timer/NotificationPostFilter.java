@@ -0,0 +1,87 @@
+package com.sleeptimer.timer;
+
+/**
+ * Decides whether a notification update changes what is on screen, so unchanged updates skip the
+ * NotificationManager binder call. Static text is compared with the text showing; a countdown is
+ * compared by status and deadline, where deadlines closer than {@link #CHRONOMETER_TOLERANCE_MS}
+ * count as the same countdown (they are recomputed from the remaining time, so they jitter).
+ *
+ * Not thread-safe; the notification is updated from one thread.
+ */
+public final class NotificationPostFilter {
+    public static final long CHRONOMETER_TOLERANCE_MS = 1000;
+    public static final long NO_POST = -1;
+
+    private String shownText;
+    private boolean shownCountdown;
+    private long shownDeadlineWallMs;
+    private int postCount;
+    private int skippedCount;
+
+    // A positive remaining time is rendered once into the text (used for the paused state)
+    public static String contentText(String status, long remainingMs) {
+        return remainingMs > 0
+                ? status + " - " + TimeFormat.formatRemaining(remainingMs) + " remaining"
+                : status;
+    }
+
+    /**
+     * The renderer's static-text post path.
+     *
+     * @return the content text to post, or null when it is already showing
+     */
+    public String postStatus(String status, long remainingMs) {
+        String contentText = contentText(status, remainingMs);
+        return postText(contentText) ? contentText : null;
+    }
+
+    /**
+     * The renderer's countdown post path.
+     *
+     * @return the wall-clock deadline to count down to, or {@link #NO_POST} when it is already showing
+     */
+    public long postRemaining(String status, long remainingMs, long nowWallMs) {
+        long deadlineWallMs = nowWallMs + remainingMs;
+        return postCountdown(status, deadlineWallMs) ? deadlineWallMs : NO_POST;
+    }
+
+    /** @return true if the text differs from what is showing; it is then recorded as showing */
+    public boolean postText(String contentText) {
+        if (!shownCountdown && contentText.equals(shownText)) {
+            skippedCount++;
+            return false;
+        }
+        shownText(contentText);
+        postCount++;
+        return true;
+    }
+
+    /** @return true unless the same status is already counting down to about the same deadline */
+    public boolean postCountdown(String status, long deadlineWallMs) {
+        if (shownCountdown && status.equals(shownText)
+                && Math.abs(deadlineWallMs - shownDeadlineWallMs) < CHRONOMETER_TOLERANCE_MS) {
+            skippedCount++;
+            return false;
+        }
+        shownText = status;
+        shownCountdown = true;
+        shownDeadlineWallMs = deadlineWallMs;
+        postCount++;
+        return true;
+    }
+
+    // Records static text shown by other means, e.g. the startForeground notification
+    public void shownText(String contentText) {
+        shownText = contentText;
+        shownCountdown = false;
+        shownDeadlineWallMs = 0;
+    }
+
+    public int getPostCount() {
+        return postCount;
+    }
+
+    public int getSkippedCount() {
+        return skippedCount;
+    }
+}
@@ -0,0 +1,217 @@
+package com.sleeptimer.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds timer sessions from a {@link SessionHistory} record stream and folds them into per-night
+ * or per-week totals as they close, so memory stays bounded by the number of periods, not records.
+ *
+ * A session runs from STARTED to COMPLETED. It belongs to the night of its start, where a night runs
+ * from noon to noon in the given zone, so a timer started at 00:30 counts towards the evening before.
+ * Weeks start on the Monday night. Periods are keyed by local epoch day (java.time is not available
+ * on every supported API level). A session with no COMPLETED record (process killed, history
+ * cut by compaction) is closed at its last record and counted as incomplete.
+ */
+public final class SessionAggregator implements SessionHistory.Visitor {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final long NIGHT_OFFSET_MS = DAY_MS / 2;
+    // A playback-stopped record this long after completion belongs to the completed session
+    private static final long STOP_MATCH_WINDOW_MS = 10 * 60 * 1000L;
+
+    /** Totals for one night or week. */
+    public static final class Period {
+        private final long startDay;
+        int sessions;
+        int completed;
+        int pauses;
+        int extensions;
+        int confirmedStops;
+        long listenedMs;
+        long pausedMs;
+        long totalStopLatencyMs;
+        long firstStartWallMs = Long.MAX_VALUE;
+        long lastEndWallMs;
+
+        Period(long startDay) {
+            this.startDay = startDay;
+        }
+
+        // First night of the period, as days since 1970-01-01 in the local zone
+        public long getStartDay() {
+            return startDay;
+        }
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        public int getCompleted() {
+            return completed;
+        }
+
+        public int getPauses() {
+            return pauses;
+        }
+
+        public int getExtensions() {
+            return extensions;
+        }
+
+        // Time spent counting down, pauses excluded
+        public long getListenedMs() {
+            return listenedMs;
+        }
+
+        public long getPausedMs() {
+            return pausedMs;
+        }
+
+        // Completions the player confirmed it stopped for
+        public int getConfirmedStops() {
+            return confirmedStops;
+        }
+
+        // Mean time from timer completion to playback actually stopping, or -1 if never confirmed
+        public long getAverageStopLatencyMs() {
+            return confirmedStops > 0 ? totalStopLatencyMs / confirmedStops : -1;
+        }
+
+        public long getFirstStartWallMs() {
+            return firstStartWallMs;
+        }
+
+        public long getLastEndWallMs() {
+            return lastEndWallMs;
+        }
+    }
+
+    private final TimeZone zone;
+    private final boolean weekly;
+    private final Map<Long, Period> periods = new TreeMap<>();
+
+    // Session being rebuilt
+    private boolean inSession;
+    private boolean running;
+    private long startWallMs;
+    private long lastWallMs;
+    private long runStartWallMs;
+    private long pauseStartWallMs;
+    private int pauses;
+    private int extensions;
+    private long listenedMs;
+    private long pausedMs;
+
+    // Last closed session, for matching a late playback-stopped record
+    private Period lastPeriod;
+    private long lastCompletedWallMs = Long.MIN_VALUE;
+
+    public SessionAggregator(TimeZone zone, boolean weekly) {
+        this.zone = zone;
+        this.weekly = weekly;
+    }
+
+    @Override
+    public void visit(long wallMs, int type, long firstArg, long secondArg) {
+        switch (type) {
+            case SessionHistory.STARTED:
+                if (inSession) {
+                    close(lastWallMs, false);
+                }
+                inSession = true;
+                running = true;
+                startWallMs = wallMs;
+                runStartWallMs = wallMs;
+                pauses = 0;
+                extensions = 0;
+                listenedMs = 0;
+                pausedMs = 0;
+                break;
+            case SessionHistory.PAUSED:
+                if (inSession && running) {
+                    listenedMs += Math.max(0, wallMs - runStartWallMs);
+                    pauseStartWallMs = wallMs;
+                    running = false;
+                    pauses++;
+                }
+                break;
+            case SessionHistory.RESUMED:
+                if (inSession && !running) {
+                    pausedMs += Math.max(0, wallMs - pauseStartWallMs);
+                    runStartWallMs = wallMs;
+                    running = true;
+                }
+                break;
+            case SessionHistory.EXTENDED:
+                if (inSession) {
+                    extensions++;
+                }
+                break;
+            case SessionHistory.COMPLETED:
+                if (inSession) {
+                    close(wallMs, true);
+                }
+                break;
+            case SessionHistory.PLAYBACK_STOPPED:
+                if (secondArg == 1 && lastPeriod != null && wallMs >= lastCompletedWallMs
+                        && wallMs - lastCompletedWallMs <= STOP_MATCH_WINDOW_MS) {
+                    lastPeriod.confirmedStops++;
+                    lastPeriod.totalStopLatencyMs += wallMs - lastCompletedWallMs;
+                    lastPeriod = null; // one stop per session
+                }
+                break;
+            default:
+                break; // newer record type
+        }
+        if (inSession) {
+            lastWallMs = wallMs;
+        }
+    }
+
+    /** Closes any open session and returns the periods in date order. */
+    public List<Period> finish() {
+        if (inSession) {
+            close(lastWallMs, false);
+        }
+        return new ArrayList<>(periods.values());
+    }
+
+    private void close(long endWallMs, boolean completed) {
+        if (running) {
+            listenedMs += Math.max(0, endWallMs - runStartWallMs);
+        } else {
+            pausedMs += Math.max(0, endWallMs - pauseStartWallMs);
+        }
+        long key = periodOf(startWallMs);
+        Period period = periods.get(key);
+        if (period == null) {
+            period = new Period(key);
+            periods.put(key, period);
+        }
+        period.sessions++;
+        period.pauses += pauses;
+        period.extensions += extensions;
+        period.listenedMs += listenedMs;
+        period.pausedMs += pausedMs;
+        period.firstStartWallMs = Math.min(period.firstStartWallMs, startWallMs);
+        period.lastEndWallMs = Math.max(period.lastEndWallMs, endWallMs);
+        if (completed) {
+            period.completed++;
+            lastPeriod = period;
+            lastCompletedWallMs = endWallMs;
+        } else {
+            lastPeriod = null;
+        }
+        inSession = false;
+    }
+
+    private long periodOf(long startWallMs) {
+        long localMs = startWallMs + zone.getOffset(startWallMs) - NIGHT_OFFSET_MS;
+        long night = Math.floorDiv(localMs, DAY_MS);
+        // Epoch day 0 was a Thursday, so day + 3 is 0 on Mondays (mod 7)
+        return weekly ? night - Math.floorMod(night + 3, 7) : night;
+    }
+}
@@ -0,0 +1,283 @@
+package com.sleeptimer.timer;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Append-only history of timer sessions: one fixed-size record per timer transition, after a
+ * 16-byte file header.
+ *
+ * <pre>
+ * header:  0 int magic 'STH1'   4 int version   8 int record size   12 int reserved
+ * record:  0 long wall clock    8 int type      12 int reserved
+ *         16 long first arg    24 long second arg
+ * </pre>
+ *
+ * Appends are staged in a small buffer and written with a single FileChannel write per batch when
+ * the buffer fills or {@link #flush} is called. Reads stream the file through one reusable chunk
+ * buffer and hand each record to a {@link Visitor} as primitives, so a query never holds more than
+ * one chunk in memory. A record torn by a crash mid-write is ignored by readers and cut off before
+ * the next append. {@link #compactIfNeeded} rewrites the file without records older than the
+ * retention period once it grows past a size limit.
+ */
+public final class SessionHistory {
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 32;
+    private static final int MAGIC = 0x53544831; // "STH1"
+    private static final int VERSION = 1;
+    private static final int BATCH_RECORDS = 64;
+    private static final int READ_CHUNK_RECORDS = 128;
+
+    // Record types. Arguments are listed after each type.
+    public static final int STARTED = 1;            // durationMs, generation
+    public static final int PAUSED = 2;             // remainingMs, generation
+    public static final int RESUMED = 3;            // remainingMs, generation
+    public static final int EXTENDED = 4;           // new durationMs, generation
+    public static final int COMPLETED = 5;          // generation
+    public static final int PLAYBACK_STOPPED = 6;   // pause commands sent, 1 if the player confirmed
+
+    public interface Visitor {
+        void visit(long wallMs, int type, long firstArg, long secondArg);
+    }
+
+    private final File file;
+    private final File tempFile;
+    private final long retentionMs;
+    private final int compactThresholdRecords;
+    private final ByteBuffer pending = ByteBuffer.allocate(BATCH_RECORDS * RECORD_SIZE);
+    private final ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK_RECORDS * RECORD_SIZE);
+    // Opened on the first flush, so an instance that only reads never modifies the file
+    private FileChannel writeChannel;
+    private int batchWrites;
+    private int compactions;
+
+    /**
+     * @param retentionMs records older than this are dropped by compaction
+     * @param compactThresholdRecords compaction runs once the file holds more records than this
+     */
+    public SessionHistory(File file, long retentionMs, int compactThresholdRecords) {
+        this.file = file;
+        this.tempFile = new File(file.getPath() + ".tmp");
+        this.retentionMs = retentionMs;
+        this.compactThresholdRecords = compactThresholdRecords;
+    }
+
+    public synchronized void append(long wallMs, int type, long firstArg, long secondArg) throws IOException {
+        if (!pending.hasRemaining()) {
+            flush();
+        }
+        pending.putLong(wallMs).putInt(type).putInt(0).putLong(firstArg).putLong(secondArg);
+    }
+
+    // Writes staged records in one append
+    public synchronized void flush() throws IOException {
+        if (pending.position() == 0) {
+            return;
+        }
+        FileChannel channel = openForWrite();
+        pending.flip();
+        while (pending.hasRemaining()) {
+            channel.write(pending);
+        }
+        pending.clear();
+        batchWrites++;
+    }
+
+    // Staged records are counted too
+    public synchronized int recordCount() {
+        return (int) (fileRecords() + pending.position() / RECORD_SIZE);
+    }
+
+    /**
+     * Streams the records with {@code fromWallMs <= wall < toWallMs} to the visitor in file (append)
+     * order. Staged records are flushed first.
+     *
+     * @return number of records visited
+     */
+    public synchronized int query(long fromWallMs, long toWallMs, Visitor visitor) throws IOException {
+        flush();
+        if (!hasValidHeader()) {
+            return 0;
+        }
+        int visited = 0;
+        try (FileChannel channel = openChannel(file, "r")) {
+            long end = HEADER_SIZE + fileRecords(channel.size()) * RECORD_SIZE;
+            long position = HEADER_SIZE;
+            while (position < end) {
+                chunk.clear();
+                chunk.limit((int) Math.min(chunk.capacity(), end - position));
+                while (chunk.hasRemaining() && channel.read(chunk, position + chunk.position()) >= 0) {
+                    // fill the chunk
+                }
+                int records = chunk.position() / RECORD_SIZE;
+                for (int i = 0; i < records; i++) {
+                    int offset = i * RECORD_SIZE;
+                    long wallMs = chunk.getLong(offset);
+                    if (wallMs >= fromWallMs && wallMs < toWallMs) {
+                        visitor.visit(wallMs, chunk.getInt(offset + 8), chunk.getLong(offset + 16),
+                                chunk.getLong(offset + 24));
+                        visited++;
+                    }
+                }
+                if (records == 0) {
+                    break; // file shrank underneath us
+                }
+                position += (long) records * RECORD_SIZE;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Drops records older than the retention period once the file holds more than the threshold.
+     *
+     * @return true if the file was rewritten
+     */
+    public synchronized boolean compactIfNeeded(long nowWallMs) throws IOException {
+        if (recordCount() <= compactThresholdRecords) {
+            return false;
+        }
+        compact(nowWallMs - retentionMs);
+        return true;
+    }
+
+    // Rewrites the file keeping only records at or after keepFromWallMs, then swaps it in atomically
+    public synchronized void compact(long keepFromWallMs) throws IOException {
+        flush();
+        closeWriteChannel();
+        try (FileChannel out = openChannel(tempFile, "rw")) {
+            out.truncate(0);
+            writeHeader(out);
+            // The staging buffer is empty after flush(), so it doubles as the copy buffer
+            query(keepFromWallMs, Long.MAX_VALUE, (wallMs, type, firstArg, secondArg) -> {
+                try {
+                    if (!pending.hasRemaining()) {
+                        drainTo(out);
+                    }
+                    pending.putLong(wallMs).putInt(type).putInt(0).putLong(firstArg).putLong(secondArg);
+                } catch (IOException e) {
+                    throw new CompactionFailure(e);
+                }
+            });
+            drainTo(out);
+            out.force(false);
+        } catch (CompactionFailure e) {
+            pending.clear();
+            throw e.getCause();
+        }
+        // rename(2) swaps the file atomically; java.nio.file.Files needs API 26
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Failed to rename " + tempFile + " to " + file);
+        }
+        compactions++;
+    }
+
+    public synchronized void close() throws IOException {
+        flush();
+        closeWriteChannel();
+    }
+
+    public synchronized int getBatchWrites() {
+        return batchWrites;
+    }
+
+    public synchronized int getCompactions() {
+        return compactions;
+    }
+
+    public long sizeBytes() {
+        return file.length();
+    }
+
+    private FileChannel openForWrite() throws IOException {
+        if (writeChannel != null) {
+            return writeChannel;
+        }
+        boolean valid = hasValidHeader();
+        FileChannel channel = openChannel(file, "rw");
+        try {
+            if (!valid) {
+                // Missing or unreadable history starts over; it is a convenience, not a record of truth
+                channel.truncate(0);
+                writeHeader(channel);
+            } else {
+                // Cut off a record torn by a crash so appends stay aligned
+                channel.truncate(HEADER_SIZE + fileRecords(channel.size()) * RECORD_SIZE);
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        writeChannel = channel;
+        return channel;
+    }
+
+    private void closeWriteChannel() throws IOException {
+        if (writeChannel != null) {
+            writeChannel.close();
+            writeChannel = null;
+        }
+    }
+
+    private void drainTo(FileChannel out) throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) {
+            out.write(pending);
+        }
+        pending.clear();
+    }
+
+    private boolean hasValidHeader() throws IOException {
+        if (!file.isFile() || file.length() < HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = openChannel(file, "r")) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // fill the header
+            }
+        }
+        return !header.hasRemaining() && header.getInt(0) == MAGIC && header.getInt(4) == VERSION
+                && header.getInt(8) == RECORD_SIZE;
+    }
+
+    // Closing the channel closes the file too. FileChannel.open(Path) needs API 26
+    private static FileChannel openChannel(File target, String mode) throws FileNotFoundException {
+        return new RandomAccessFile(target, mode).getChannel();
+    }
+
+    private static void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private long fileRecords() {
+        return fileRecords(file.length());
+    }
+
+    private static long fileRecords(long sizeBytes) {
+        return Math.max(0, sizeBytes - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    // Carries an IOException out of the compaction visitor
+    private static final class CompactionFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        CompactionFailure(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.sleeptimer.timer;
+
+/**
+ * Decides how a running timer's remaining time should move given the {@link ActivityScorer} state:
+ * a phone that has been still for a while brings a distant deadline forward to a short grace
+ * period, and activity close to the deadline extends it a bounded number of times per session.
+ */
+public final class SleepDeadlinePolicy {
+    public static final long NO_CHANGE = -1;
+
+    private final long asleepGraceMs;
+    private final long nearEndMs;
+    private final long extensionMs;
+    private final int maxExtensions;
+    private int extensions;
+
+    // The tuning the app runs with: 5 minutes of grace, up to three 10 minute extensions
+    public static SleepDeadlinePolicy withDefaults() {
+        return new SleepDeadlinePolicy(5 * 60 * 1000L, 3 * 60 * 1000L, 10 * 60 * 1000L, 3);
+    }
+
+    /**
+     * @param asleepGraceMs remaining time left once the phone is still
+     * @param nearEndMs activity within this much of the deadline extends it
+     * @param extensionMs time added per extension
+     * @param maxExtensions extensions allowed per session
+     */
+    public SleepDeadlinePolicy(long asleepGraceMs, long nearEndMs, long extensionMs, int maxExtensions) {
+        this.asleepGraceMs = asleepGraceMs;
+        this.nearEndMs = nearEndMs;
+        this.extensionMs = extensionMs;
+        this.maxExtensions = maxExtensions;
+    }
+
+    /** @return the new remaining time, or {@link #NO_CHANGE} */
+    public long adjust(int activityState, long remainingMs) {
+        if (activityState == ActivityScorer.STILL && remainingMs > asleepGraceMs) {
+            return asleepGraceMs;
+        }
+        if (activityState == ActivityScorer.ACTIVE && remainingMs <= nearEndMs && extensions < maxExtensions) {
+            extensions++;
+            return remainingMs + extensionMs;
+        }
+        return NO_CHANGE;
+    }
+
+    public int getExtensions() {
+        return extensions;
+    }
+
+    // Call when a new session starts
+    public void reset() {
+        extensions = 0;
+    }
+}
@@ -0,0 +1,105 @@
+package com.sleeptimer.timer;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * Replays a recorded accelerometer trace through an {@link ActivityScorer} and
+ * {@link SleepDeadlinePolicy}, tuned as in the app, against a simulated timer started at the first
+ * sample, to check detection offline. The trace is the CSV the app writes in debug builds with sleep detection on:
+ * one {@code timeMs,x,y,z} sample per line, lines starting with '#' ignored.
+ *
+ * Run with {@code ./gradlew :timer-core:replaySleepTrace -Ptrace=<file> [-PtimerMinutes=30]}.
+ */
+public final class SleepTraceReplay {
+
+    public static final class Result {
+        public final long startMs;
+        public final long plannedEndMs;
+        // When the simulated timer ran out, or -1 if the trace ended first
+        public final long endMs;
+        public final int samples;
+        public final int epochs;
+        public final int broughtForward;
+        public final int extended;
+
+        Result(long startMs, long plannedEndMs, long endMs, int samples, int epochs, int broughtForward,
+               int extended) {
+            this.startMs = startMs;
+            this.plannedEndMs = plannedEndMs;
+            this.endMs = endMs;
+            this.samples = samples;
+            this.epochs = epochs;
+            this.broughtForward = broughtForward;
+            this.extended = extended;
+        }
+    }
+
+    public static Result replay(BufferedReader trace, ActivityScorer scorer, SleepDeadlinePolicy policy,
+                                long timerDurationMs) throws IOException {
+        long startMs = -1;
+        long deadlineMs = 0;
+        int samples = 0;
+        int broughtForward = 0;
+        int extended = 0;
+        String line;
+        while ((line = trace.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            String[] fields = line.split(",");
+            if (fields.length < 4) {
+                throw new IOException("Expected timeMs,x,y,z but got: " + line);
+            }
+            long timeMs = Long.parseLong(fields[0].trim());
+            if (startMs < 0) {
+                startMs = timeMs;
+                deadlineMs = timeMs + timerDurationMs;
+            }
+            if (timeMs >= deadlineMs) {
+                return new Result(startMs, startMs + timerDurationMs, deadlineMs, samples,
+                        scorer.getEpochCount(), broughtForward, extended);
+            }
+            samples++;
+            boolean epochClosed = scorer.addSample(timeMs, Float.parseFloat(fields[1].trim()),
+                    Float.parseFloat(fields[2].trim()), Float.parseFloat(fields[3].trim()));
+            if (epochClosed) {
+                long adjusted = policy.adjust(scorer.getState(), deadlineMs - timeMs);
+                if (adjusted != SleepDeadlinePolicy.NO_CHANGE) {
+                    if (adjusted < deadlineMs - timeMs) {
+                        broughtForward++;
+                    } else {
+                        extended++;
+                    }
+                    deadlineMs = timeMs + adjusted;
+                }
+            }
+        }
+        return new Result(startMs, startMs + timerDurationMs, -1, samples, scorer.getEpochCount(),
+                broughtForward, extended);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: SleepTraceReplay <trace.csv> [timerMinutes]");
+            System.exit(2);
+        }
+        long timerMs = (args.length > 1 ? Long.parseLong(args[1]) : 30) * 60 * 1000;
+        Result result;
+        try (BufferedReader trace = new BufferedReader(new FileReader(args[0]))) {
+            result = replay(trace, ActivityScorer.withDefaults(), SleepDeadlinePolicy.withDefaults(), timerMs);
+        }
+        System.out.println("samples " + result.samples + ", epochs " + result.epochs
+                + ", brought forward " + result.broughtForward + ", extended " + result.extended);
+        if (result.endMs < 0) {
+            System.out.println("trace ended before the timer, planned end at +"
+                    + TimeFormat.formatRemaining(result.plannedEndMs - result.startMs));
+        } else {
+            long shiftMs = result.endMs - result.plannedEndMs;
+            System.out.println("timer ended at +" + TimeFormat.formatRemaining(result.endMs - result.startMs)
+                    + " (" + (shiftMs < 0 ? "-" : "+") + TimeFormat.formatRemaining(Math.abs(shiftMs))
+                    + " vs the fixed countdown)");
+        }
+    }
+}
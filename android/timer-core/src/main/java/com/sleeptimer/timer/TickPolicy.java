@@ -0,0 +1,57 @@
+package com.sleeptimer.timer;
+
+/**
+ * Picks when the next periodic UI tick is due for a running timer.
+ *
+ * The interval follows the remaining time: coarse far from the deadline, fine close to it. With
+ * the screen off nobody sees an update, so there are no ticks at all; consumers are refreshed once
+ * when the screen comes back on instead. Ticks land on wall-clock boundaries of their interval
+ * (whole minutes, whole seconds), so they coincide with the system's own clock updates and with
+ * each other, and a tick is also placed where the remaining time crosses into a finer band.
+ */
+public final class TickPolicy {
+    public static final long NO_TICK = -1;
+
+    private static final long SECOND_MS = 1000;
+    private static final long MINUTE_MS = 60 * SECOND_MS;
+
+    // Remaining time at or above each threshold uses the interval next to it
+    private static final long[] BAND_THRESHOLDS_MS = {60 * MINUTE_MS, 10 * MINUTE_MS, MINUTE_MS, 0};
+    private static final long[] BAND_INTERVALS_MS = {5 * MINUTE_MS, MINUTE_MS, 15 * SECOND_MS, SECOND_MS};
+
+    private TickPolicy() {
+    }
+
+    // Tick interval for the remaining time while the screen is on
+    public static long intervalFor(long remainingMs) {
+        for (int i = 0; i < BAND_THRESHOLDS_MS.length; i++) {
+            if (remainingMs >= BAND_THRESHOLDS_MS[i]) {
+                return BAND_INTERVALS_MS[i];
+            }
+        }
+        return BAND_INTERVALS_MS[BAND_INTERVALS_MS.length - 1];
+    }
+
+    /**
+     * @param minIntervalMs the finest interval any consumer wants; coarser policy intervals win
+     * @return wall-clock time of the next tick, or {@link #NO_TICK}
+     */
+    public static long nextTickWallMs(long nowWallMs, long remainingMs, boolean interactive, long minIntervalMs) {
+        if (!interactive || remainingMs <= 0) {
+            return NO_TICK;
+        }
+        long interval = Math.max(intervalFor(remainingMs), minIntervalMs);
+        long next = (Math.floorDiv(nowWallMs, interval) + 1) * interval;
+
+        // Switch to a finer band as soon as the remaining time enters it
+        for (int i = 0; i < BAND_THRESHOLDS_MS.length; i++) {
+            long threshold = BAND_THRESHOLDS_MS[i];
+            if (threshold > 0 && remainingMs > threshold && BAND_INTERVALS_MS[i + 1] >= minIntervalMs) {
+                next = Math.min(next, nowWallMs + (remainingMs - threshold));
+                break;
+            }
+        }
+        // Never past the deadline itself
+        return Math.min(next, nowWallMs + remainingMs);
+    }
+}
@@ -0,0 +1,35 @@
+package com.sleeptimer.timer;
+
+/**
+ * Remaining-time formatting for the notification and logs. Produces the same text as
+ * {@code String.format("%d:%02d:%02d")} / {@code "%d:%02d"} without the formatter and varargs
+ * allocations.
+ */
+public final class TimeFormat {
+    private TimeFormat() {
+    }
+
+    public static String formatRemaining(long milliseconds) {
+        return appendRemaining(new StringBuilder(8), milliseconds).toString();
+    }
+
+    public static StringBuilder appendRemaining(StringBuilder out, long milliseconds) {
+        long seconds = milliseconds / 1000;
+        long minutes = seconds / 60;
+        long hours = minutes / 60;
+
+        if (hours > 0) {
+            out.append(hours).append(':');
+            appendTwoDigits(out, minutes % 60);
+        } else {
+            out.append(minutes);
+        }
+        out.append(':');
+        appendTwoDigits(out, seconds % 60);
+        return out;
+    }
+
+    private static void appendTwoDigits(StringBuilder out, long value) {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
@@ -0,0 +1,75 @@
+package com.sleeptimer.timer;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single-writer front for a {@link TimerEngine}. Every mutation runs on one writer thread (the main
+ * looper on Android), either inline when the caller is already on it or queued behind the commands
+ * before it. After each command the engine's state is published as an immutable
+ * {@link TimerSnapshot} through an atomic reference, so readers on any thread get a consistent view
+ * without locking and never touch the engine's fields.
+ */
+public final class TimerActor {
+    public interface Command {
+        void run(TimerEngine engine);
+    }
+
+    /** The thread commands are serialized on. */
+    public interface WriterThread extends Executor {
+        boolean isCurrent();
+    }
+
+    private final TimerEngine engine;
+    private final WriterThread writer;
+    private final AtomicReference<TimerSnapshot> published = new AtomicReference<>(TimerSnapshot.IDLE);
+
+    public TimerActor(TimerEngine engine, WriterThread writer) {
+        this.engine = engine;
+        this.writer = writer;
+    }
+
+    // Runs the command on the writer thread: now if already there, otherwise queued in order
+    public void execute(Command command) {
+        if (writer.isCurrent()) {
+            run(command);
+        } else {
+            writer.execute(() -> run(command));
+        }
+    }
+
+    /** Direct engine access for code already running on the writer thread. */
+    public TimerEngine engine() {
+        checkWriter();
+        return engine;
+    }
+
+    /** Publishes the engine's current state; call after mutating it through {@link #engine()}. */
+    public TimerSnapshot publish() {
+        checkWriter();
+        TimerSnapshot snapshot = engine.snapshot();
+        published.set(snapshot);
+        return snapshot;
+    }
+
+    /** Last published state, as of its capture time. Safe from any thread. */
+    public TimerSnapshot snapshot() {
+        return published.get();
+    }
+
+    /** Last published state with the remaining time brought up to now. Safe from any thread. */
+    public TimerSnapshot snapshotNow() {
+        return published.get().at(engine.getClock().elapsedRealtime());
+    }
+
+    private void run(Command command) {
+        command.run(engine);
+        publish();
+    }
+
+    private void checkWriter() {
+        if (!writer.isCurrent()) {
+            throw new IllegalStateException("Timer engine used off its writer thread: " + Thread.currentThread().getName());
+        }
+    }
+}
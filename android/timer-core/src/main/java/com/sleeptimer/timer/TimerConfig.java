@@ -0,0 +1,228 @@
+package com.sleeptimer.timer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Immutable snapshot of the user's timer settings: the default duration, the preset list, the
+ * volume-down double-press window and the player apps commands go to. Changes produce a new
+ * instance, so a reader holding one never sees a half-applied update.
+ *
+ * Encoded as {@code key=value} lines; unknown keys are ignored and missing or invalid values fall
+ * back to {@link #DEFAULTS}, so older and newer app versions can read each other's files.
+ */
+public final class TimerConfig {
+    public static final int MAX_PRESETS = 8;
+    public static final int MAX_PRESET_MINUTES = 999;
+    public static final long MIN_DOUBLE_PRESS_MS = 200;
+    public static final long MAX_DOUBLE_PRESS_MS = 1500;
+
+    private static final String KEY_DURATION = "durationSeconds";
+    private static final String KEY_PRESETS = "presetMinutes";
+    private static final String KEY_DOUBLE_PRESS = "doublePressIntervalMs";
+    private static final String KEY_PLAYERS = "playerPackages";
+
+    public static final TimerConfig DEFAULTS = new TimerConfig(15 * 60, new int[] {15, 20, 30, 45, 60}, 500,
+            new String[] {"com.audible.application"});
+
+    private final int durationSeconds;
+    private final int[] presetMinutes;
+    private final long doublePressIntervalMs;
+    private final String[] playerPackages;
+
+    private TimerConfig(int durationSeconds, int[] presetMinutes, long doublePressIntervalMs,
+                        String[] playerPackages) {
+        this.durationSeconds = durationSeconds;
+        this.presetMinutes = presetMinutes;
+        this.doublePressIntervalMs = doublePressIntervalMs;
+        this.playerPackages = playerPackages;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public int getPresetCount() {
+        return presetMinutes.length;
+    }
+
+    public int getPreset(int index) {
+        return presetMinutes[index];
+    }
+
+    public int[] getPresetMinutes() {
+        return presetMinutes.clone();
+    }
+
+    public long getDoublePressIntervalMs() {
+        return doublePressIntervalMs;
+    }
+
+    public String[] getPlayerPackages() {
+        return playerPackages.clone();
+    }
+
+    public TimerConfig withDurationSeconds(int seconds) {
+        if (seconds <= 0) {
+            throw new IllegalArgumentException("Duration must be positive: " + seconds);
+        }
+        return seconds == durationSeconds ? this
+                : new TimerConfig(seconds, presetMinutes, doublePressIntervalMs, playerPackages);
+    }
+
+    /** Keeps the given order; duplicates are dropped. */
+    public TimerConfig withPresetMinutes(int[] minutes) {
+        int[] presets = normalizePresets(minutes);
+        if (presets == null) {
+            throw new IllegalArgumentException("Presets must be 1 to " + MAX_PRESETS + " values of 1 to "
+                    + MAX_PRESET_MINUTES + " minutes: " + Arrays.toString(minutes));
+        }
+        return Arrays.equals(presets, presetMinutes) ? this
+                : new TimerConfig(durationSeconds, presets, doublePressIntervalMs, playerPackages);
+    }
+
+    public TimerConfig withDoublePressIntervalMs(long intervalMs) {
+        if (intervalMs < MIN_DOUBLE_PRESS_MS || intervalMs > MAX_DOUBLE_PRESS_MS) {
+            throw new IllegalArgumentException("Double-press interval must be " + MIN_DOUBLE_PRESS_MS + " to "
+                    + MAX_DOUBLE_PRESS_MS + " ms: " + intervalMs);
+        }
+        return intervalMs == doublePressIntervalMs ? this
+                : new TimerConfig(durationSeconds, presetMinutes, intervalMs, playerPackages);
+    }
+
+    /** Priority order, first preferred. */
+    public TimerConfig withPlayerPackages(String[] packageNames) {
+        String[] players = normalizePackages(packageNames);
+        if (players == null) {
+            throw new IllegalArgumentException("At least one player package is required");
+        }
+        return Arrays.equals(players, playerPackages) ? this
+                : new TimerConfig(durationSeconds, presetMinutes, doublePressIntervalMs, players);
+    }
+
+    public String encode() {
+        StringBuilder out = new StringBuilder(128);
+        out.append(KEY_DURATION).append('=').append(durationSeconds).append('\n');
+        out.append(KEY_PRESETS).append('=');
+        for (int i = 0; i < presetMinutes.length; i++) {
+            out.append(i > 0 ? "," : "").append(presetMinutes[i]);
+        }
+        out.append('\n');
+        out.append(KEY_DOUBLE_PRESS).append('=').append(doublePressIntervalMs).append('\n');
+        out.append(KEY_PLAYERS).append('=').append(String.join(",", playerPackages)).append('\n');
+        return out.toString();
+    }
+
+    public static TimerConfig decode(String text) {
+        Properties properties = new Properties();
+        try {
+            properties.load(new StringReader(text));
+        } catch (IOException | IllegalArgumentException e) {
+            return DEFAULTS;
+        }
+        int duration = parseInt(properties.getProperty(KEY_DURATION), DEFAULTS.durationSeconds);
+        int[] presets = normalizePresets(parseInts(properties.getProperty(KEY_PRESETS)));
+        long doublePress = parseInt(properties.getProperty(KEY_DOUBLE_PRESS), -1);
+        String[] players = normalizePackages(split(properties.getProperty(KEY_PLAYERS)));
+        return new TimerConfig(
+                duration > 0 ? duration : DEFAULTS.durationSeconds,
+                presets != null ? presets : DEFAULTS.presetMinutes,
+                doublePress >= MIN_DOUBLE_PRESS_MS && doublePress <= MAX_DOUBLE_PRESS_MS
+                        ? doublePress : DEFAULTS.doublePressIntervalMs,
+                players != null ? players : DEFAULTS.playerPackages);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof TimerConfig)) {
+            return false;
+        }
+        TimerConfig config = (TimerConfig) other;
+        return durationSeconds == config.durationSeconds
+                && doublePressIntervalMs == config.doublePressIntervalMs
+                && Arrays.equals(presetMinutes, config.presetMinutes)
+                && Arrays.equals(playerPackages, config.playerPackages);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * durationSeconds + Arrays.hashCode(presetMinutes)) + Arrays.hashCode(playerPackages);
+    }
+
+    @Override
+    public String toString() {
+        return "TimerConfig{" + durationSeconds + "s, presets " + Arrays.toString(presetMinutes) + ", double press "
+                + doublePressIntervalMs + "ms, players " + Arrays.toString(playerPackages) + "}";
+    }
+
+    // Null when nothing usable is left
+    private static int[] normalizePresets(int[] minutes) {
+        if (minutes == null) {
+            return null;
+        }
+        int[] presets = new int[Math.min(minutes.length, MAX_PRESETS)];
+        int count = 0;
+        for (int i = 0; i < minutes.length && count < presets.length; i++) {
+            int value = minutes[i];
+            if (value < 1 || value > MAX_PRESET_MINUTES || indexOf(presets, count, value) >= 0) {
+                continue;
+            }
+            presets[count++] = value;
+        }
+        return count == 0 ? null : Arrays.copyOf(presets, count);
+    }
+
+    private static String[] normalizePackages(String[] packageNames) {
+        if (packageNames == null) {
+            return null;
+        }
+        List<String> players = new ArrayList<>();
+        for (String name : packageNames) {
+            String trimmed = name == null ? "" : name.trim();
+            if (!trimmed.isEmpty() && trimmed.indexOf(',') < 0 && !players.contains(trimmed)) {
+                players.add(trimmed);
+            }
+        }
+        return players.isEmpty() ? null : players.toArray(new String[0]);
+    }
+
+    private static int indexOf(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int parseInt(String value, int fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static int[] parseInts(String value) {
+        String[] parts = split(value);
+        if (parts == null) {
+            return null;
+        }
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = parseInt(parts[i], -1);
+        }
+        return values;
+    }
+
+    private static String[] split(String value) {
+        return value == null ? null : value.split(",");
+    }
+}
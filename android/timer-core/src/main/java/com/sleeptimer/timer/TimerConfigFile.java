@@ -0,0 +1,63 @@
+package com.sleeptimer.timer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The persisted {@link TimerConfig}. Like {@link TimerJournal}, a write goes to a temp file, is
+ * forced to disk and atomically renamed over the old one, so a reader sees either the previous or
+ * the new settings.
+ */
+public final class TimerConfigFile {
+    // Far larger than any real config; anything bigger is not ours
+    private static final int MAX_SIZE = 16 * 1024;
+
+    private final File file;
+    private final File tempFile;
+
+    public TimerConfigFile(File file) {
+        this.file = file;
+        this.tempFile = new File(file.getPath() + ".tmp");
+    }
+
+    public boolean exists() {
+        return file.isFile();
+    }
+
+    // Defaults when there is no file or it cannot be read
+    public synchronized TimerConfig read() {
+        if (!file.isFile() || file.length() > MAX_SIZE) {
+            return TimerConfig.DEFAULTS;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) file.length());
+        try (RandomAccessFile in = new RandomAccessFile(file, "r");
+             FileChannel channel = in.getChannel()) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // fill the buffer
+            }
+        } catch (IOException e) {
+            return TimerConfig.DEFAULTS;
+        }
+        return TimerConfig.decode(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+    public synchronized void write(TimerConfig config) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(config.encode().getBytes(StandardCharsets.UTF_8));
+        try (RandomAccessFile out = new RandomAccessFile(tempFile, "rw");
+             FileChannel channel = out.getChannel()) {
+            channel.truncate(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        // File.renameTo is a plain rename(2) on Android, so it works below API 26 and is still atomic
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Failed to rename " + tempFile + " to " + file);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.sleeptimer.timer;
+
+/**
+ * Sleep timer state machine. Holds no Android references; all arithmetic runs on the injected
+ * monotonic {@link Clock}.
+ *
+ * <pre>
+ *   IDLE --start--> RUNNING --pause--> PAUSED --resume--> RUNNING
+ *   RUNNING/PAUSED --complete--> IDLE
+ *   RUNNING --updateDuration--> RUNNING (restarted with the new duration)
+ *   RUNNING --adjustRemaining--> RUNNING (deadline moved, duration kept)
+ * </pre>
+ *
+ * Every transition bumps the generation so callers can tell stale callbacks apart.
+ */
+public class TimerEngine {
+    public enum State { IDLE, RUNNING, PAUSED }
+
+    private final Clock clock;
+    private State state = State.IDLE;
+    private long durationMs;
+    private long deadlineMs;
+    private long pausedRemainingMs;
+    private long generation;
+
+    public TimerEngine(Clock clock) {
+        this.clock = clock;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    // Starts (or restarts) the countdown from the full duration
+    public void start(long durationMs) {
+        this.durationMs = durationMs;
+        deadlineMs = clock.elapsedRealtime() + durationMs;
+        pausedRemainingMs = 0;
+        state = State.RUNNING;
+        generation++;
+    }
+
+    public boolean pause() {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        pausedRemainingMs = Math.max(0, deadlineMs - clock.elapsedRealtime());
+        state = State.PAUSED;
+        generation++;
+        return true;
+    }
+
+    public boolean resume() {
+        if (state != State.PAUSED) {
+            return false;
+        }
+        deadlineMs = clock.elapsedRealtime() + pausedRemainingMs;
+        pausedRemainingMs = 0;
+        state = State.RUNNING;
+        generation++;
+        return true;
+    }
+
+    // A running timer restarts from now with the new duration; other states are left alone
+    public boolean updateDuration(long durationMs) {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        this.durationMs = durationMs;
+        deadlineMs = clock.elapsedRealtime() + durationMs;
+        generation++;
+        return true;
+    }
+
+    // Moves a running timer's deadline to remainingMs from now, keeping its configured duration
+    public boolean adjustRemaining(long remainingMs) {
+        if (state != State.RUNNING) {
+            return false;
+        }
+        deadlineMs = clock.elapsedRealtime() + Math.max(0, remainingMs);
+        generation++;
+        return true;
+    }
+
+    public boolean complete() {
+        if (state == State.IDLE) {
+            return false;
+        }
+        state = State.IDLE;
+        deadlineMs = 0;
+        pausedRemainingMs = 0;
+        generation++;
+        return true;
+    }
+
+    // Re-arms a timer recovered from the journal after the process was killed or the device rebooted
+    public void restore(State restoredState, long durationMs, long remainingMs, long restoredGeneration) {
+        this.durationMs = durationMs;
+        generation = restoredGeneration + 1;
+        if (restoredState == State.RUNNING) {
+            deadlineMs = clock.elapsedRealtime() + remainingMs;
+            pausedRemainingMs = 0;
+        } else if (restoredState == State.PAUSED) {
+            deadlineMs = 0;
+            pausedRemainingMs = remainingMs;
+        } else {
+            deadlineMs = 0;
+            pausedRemainingMs = 0;
+        }
+        state = restoredState;
+    }
+
+    public TimerSnapshot snapshot() {
+        long now = clock.elapsedRealtime();
+        long remaining = state == State.RUNNING ? Math.max(0, deadlineMs - now) : getRemainingMs();
+        return new TimerSnapshot(state, getDeadlineMs(), remaining, durationMs, generation, now);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    // True while a timer is armed, paused or not
+    public boolean isActive() {
+        return state != State.IDLE;
+    }
+
+    public boolean isRunning() {
+        return state == State.RUNNING;
+    }
+
+    public boolean isPaused() {
+        return state == State.PAUSED;
+    }
+
+    public boolean isExpired() {
+        return state == State.RUNNING && clock.elapsedRealtime() >= deadlineMs;
+    }
+
+    public long getRemainingMs() {
+        switch (state) {
+            case RUNNING:
+                return Math.max(0, deadlineMs - clock.elapsedRealtime());
+            case PAUSED:
+                return pausedRemainingMs;
+            default:
+                return 0;
+        }
+    }
+
+    // Deadline on the monotonic clock, or 0 when not running
+    public long getDeadlineMs() {
+        return state == State.RUNNING ? deadlineMs : 0;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+}
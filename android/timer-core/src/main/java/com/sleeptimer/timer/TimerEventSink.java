@@ -0,0 +1,28 @@
+package com.sleeptimer.timer;
+
+/**
+ * Outbound timer events. Bound once to the React Native event module when the package is created;
+ * {@link #NO_OP} stands in whenever JS is not attached.
+ */
+public interface TimerEventSink {
+    // Emitted once per transition (start, pause, resume, duration update, completion), never per tick
+    void onTimerStateChanged(TimerSnapshot snapshot);
+
+    void onTimerPresetSelected(int minutes);
+
+    void onCloseAppRequested();
+
+    TimerEventSink NO_OP = new TimerEventSink() {
+        @Override
+        public void onTimerStateChanged(TimerSnapshot snapshot) {
+        }
+
+        @Override
+        public void onTimerPresetSelected(int minutes) {
+        }
+
+        @Override
+        public void onCloseAppRequested() {
+        }
+    };
+}
@@ -0,0 +1,27 @@
+package com.sleeptimer.timer;
+
+/**
+ * Process-wide holder for the bound {@link TimerEventSink}. Dispatch is a volatile read plus a
+ * virtual call; there is no lookup per event.
+ */
+public final class TimerEvents {
+    private static volatile TimerEventSink sink = TimerEventSink.NO_OP;
+
+    private TimerEvents() {
+    }
+
+    public static TimerEventSink get() {
+        return sink;
+    }
+
+    public static void bind(TimerEventSink newSink) {
+        sink = newSink != null ? newSink : TimerEventSink.NO_OP;
+    }
+
+    // Only clears the binding if it still points at the given sink (a newer one may have replaced it)
+    public static void unbind(TimerEventSink oldSink) {
+        if (sink == oldSink) {
+            sink = TimerEventSink.NO_OP;
+        }
+    }
+}
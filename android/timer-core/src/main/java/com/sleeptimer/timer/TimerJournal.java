@@ -0,0 +1,185 @@
+package com.sleeptimer.timer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Single fixed-layout record describing the timer at its last transition, so a restarted process
+ * can re-arm the remaining time. Written to a temp file, forced to disk and atomically renamed over
+ * the journal, so a reader sees either the previous or the new record, never a torn one.
+ *
+ * <pre>
+ *  0  int   magic 'STJ1'        24  long  generation
+ *  4  int   version             32  long  durationMs
+ *  8  int   state ordinal       40  long  remainingMs at write
+ * 12  int   config duration (s) 48  long  elapsedRealtime at write
+ * 16  int   boot count          56  long  wall clock at write
+ * 20  int   CRC32 of the other 60 bytes
+ * </pre>
+ */
+public final class TimerJournal {
+    public static final int RECORD_SIZE = 64;
+    private static final int MAGIC = 0x53544a31; // "STJ1"
+    private static final int VERSION = 1;
+    private static final int CRC_OFFSET = 20;
+
+    /** What {@link Record#restoreInto} did with a record. */
+    public enum Restored {
+        /** The engine already has this transition or a later one; left alone. */
+        SKIPPED,
+        /** No timer was set; only the generation was carried over. */
+        IDLE,
+        RUNNING,
+        PAUSED,
+        /** Ran out while the process was dead in this boot; the caller completes it, pausing the player. */
+        EXPIRED,
+        /** Ran out before a reboot; restored as idle, since nothing has been playing since. */
+        DROPPED,
+    }
+
+    public static final class Record {
+        public final TimerEngine.State state;
+        public final int configDurationSeconds;
+        public final int bootCount;
+        public final long generation;
+        public final long durationMs;
+        public final long remainingMs;
+        public final long writtenElapsedMs;
+        public final long writtenWallMs;
+
+        Record(TimerEngine.State state, int configDurationSeconds, int bootCount, long generation,
+               long durationMs, long remainingMs, long writtenElapsedMs, long writtenWallMs) {
+            this.state = state;
+            this.configDurationSeconds = configDurationSeconds;
+            this.bootCount = bootCount;
+            this.generation = generation;
+            this.durationMs = durationMs;
+            this.remainingMs = remainingMs;
+            this.writtenElapsedMs = writtenElapsedMs;
+            this.writtenWallMs = writtenWallMs;
+        }
+
+        /**
+         * Remaining time now. Within the same boot the monotonic clock is exact; after a reboot the
+         * elapsed clock restarted, so the wall clock is the only bridge across the gap.
+         */
+        public long remainingAt(int nowBootCount, long nowElapsedMs, long nowWallMs) {
+            if (state != TimerEngine.State.RUNNING) {
+                return remainingMs;
+            }
+            long passed = sameBoot(nowBootCount, nowElapsedMs) ? nowElapsedMs - writtenElapsedMs : nowWallMs - writtenWallMs;
+            return Math.max(0, remainingMs - Math.max(0, passed));
+        }
+
+        /**
+         * Puts the recorded timer back into a fresh engine. The generation always continues from the
+         * record, idle included, so listeners that drop stale generations keep working across a
+         * process restart.
+         */
+        public Restored restoreInto(TimerEngine engine, int nowBootCount, long nowElapsedMs, long nowWallMs) {
+            if (engine.isActive() || engine.getGeneration() >= generation) {
+                return Restored.SKIPPED;
+            }
+            long remaining = remainingAt(nowBootCount, nowElapsedMs, nowWallMs);
+            if (state == TimerEngine.State.RUNNING && remaining == 0 && !sameBoot(nowBootCount, nowElapsedMs)) {
+                engine.restore(TimerEngine.State.IDLE, durationMs, 0, generation);
+                return Restored.DROPPED;
+            }
+            engine.restore(state, durationMs, remaining, generation);
+            switch (state) {
+                case RUNNING:
+                    return remaining == 0 ? Restored.EXPIRED : Restored.RUNNING;
+                case PAUSED:
+                    return Restored.PAUSED;
+                default:
+                    return Restored.IDLE;
+            }
+        }
+
+        // The elapsed clock restarts at boot, so it running backwards also means a reboot
+        private boolean sameBoot(int nowBootCount, long nowElapsedMs) {
+            return nowBootCount == bootCount && nowElapsedMs >= writtenElapsedMs;
+        }
+    }
+
+    private final File file;
+    private final File tempFile;
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE);
+
+    public TimerJournal(File file) {
+        this.file = file;
+        this.tempFile = new File(file.getPath() + ".tmp");
+    }
+
+    public synchronized void write(TimerSnapshot snapshot, int configDurationSeconds, int bootCount,
+                                   long nowWallMs) throws IOException {
+        buffer.clear();
+        buffer.putInt(MAGIC)
+              .putInt(VERSION)
+              .putInt(snapshot.state.ordinal())
+              .putInt(configDurationSeconds)
+              .putInt(bootCount)
+              .putInt(0) // CRC placeholder
+              .putLong(snapshot.generation)
+              .putLong(snapshot.durationMs)
+              .putLong(snapshot.remainingMs)
+              .putLong(snapshot.capturedAtMs)
+              .putLong(nowWallMs);
+        buffer.putInt(CRC_OFFSET, checksum(buffer));
+        buffer.flip();
+
+        try (RandomAccessFile out = new RandomAccessFile(tempFile, "rw");
+             FileChannel channel = out.getChannel()) {
+            channel.truncate(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        // rename(2) replaces the journal atomically; java.nio.file.Files needs API 26
+        if (!tempFile.renameTo(file)) {
+            throw new IOException("Failed to rename " + tempFile + " to " + file);
+        }
+    }
+
+    // Returns null when there is no journal or it fails validation
+    public synchronized Record read() {
+        if (!file.isFile() || file.length() != RECORD_SIZE) {
+            return null;
+        }
+        buffer.clear();
+        try (RandomAccessFile in = new RandomAccessFile(file, "r");
+             FileChannel channel = in.getChannel()) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // fill the record
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        if (buffer.hasRemaining() || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            return null;
+        }
+        int storedCrc = buffer.getInt(CRC_OFFSET);
+        buffer.putInt(CRC_OFFSET, 0);
+        if (storedCrc != checksum(buffer)) {
+            return null;
+        }
+        int stateOrdinal = buffer.getInt(8);
+        TimerEngine.State[] states = TimerEngine.State.values();
+        if (stateOrdinal < 0 || stateOrdinal >= states.length) {
+            return null;
+        }
+        return new Record(states[stateOrdinal], buffer.getInt(12), buffer.getInt(16), buffer.getLong(24),
+                buffer.getLong(32), buffer.getLong(40), buffer.getLong(48), buffer.getLong(56));
+    }
+
+    private static int checksum(ByteBuffer record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, RECORD_SIZE);
+        return (int) crc.getValue();
+    }
+}
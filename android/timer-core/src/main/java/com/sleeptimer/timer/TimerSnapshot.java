@@ -0,0 +1,73 @@
+package com.sleeptimer.timer;
+
+/**
+ * Immutable view of the timer at one instant. Times are on the monotonic clock the engine runs on;
+ * {@code remainingMs} is already resolved at {@code capturedAtMs} so readers never recompute from
+ * raw fields.
+ */
+public final class TimerSnapshot {
+    public static final TimerSnapshot IDLE = new TimerSnapshot(TimerEngine.State.IDLE, 0, 0, 0, 0, 0);
+
+    public final TimerEngine.State state;
+    public final long deadlineMs;
+    public final long remainingMs;
+    public final long durationMs;
+    public final long generation;
+    public final long capturedAtMs;
+
+    public TimerSnapshot(TimerEngine.State state, long deadlineMs, long remainingMs, long durationMs,
+                         long generation, long capturedAtMs) {
+        this.state = state;
+        this.deadlineMs = deadlineMs;
+        this.remainingMs = remainingMs;
+        this.durationMs = durationMs;
+        this.generation = generation;
+        this.capturedAtMs = capturedAtMs;
+    }
+
+    public boolean isActive() {
+        return state != TimerEngine.State.IDLE;
+    }
+
+    public boolean isRunning() {
+        return state == TimerEngine.State.RUNNING;
+    }
+
+    public boolean isPaused() {
+        return state == TimerEngine.State.PAUSED;
+    }
+
+    // Remaining time at another instant on the same clock, without touching the engine
+    public long remainingAt(long nowMs) {
+        return state == TimerEngine.State.RUNNING ? Math.max(0, deadlineMs - nowMs) : remainingMs;
+    }
+
+    // The same state captured at another instant; only a running timer's remaining time changes
+    public TimerSnapshot at(long nowMs) {
+        if (state != TimerEngine.State.RUNNING) {
+            return this;
+        }
+        return new TimerSnapshot(state, deadlineMs, remainingAt(nowMs), durationMs, generation, nowMs);
+    }
+
+    // Flat encoding for crossing a process boundary (Bundle long array); the inverse of fromLongArray
+    public long[] toLongArray() {
+        return new long[] {state.ordinal(), deadlineMs, remainingMs, durationMs, generation, capturedAtMs};
+    }
+
+    public static TimerSnapshot fromLongArray(long[] values) {
+        if (values == null || values.length < 6) {
+            return IDLE;
+        }
+        TimerEngine.State[] states = TimerEngine.State.values();
+        int ordinal = (int) values[0];
+        TimerEngine.State state = ordinal >= 0 && ordinal < states.length ? states[ordinal] : TimerEngine.State.IDLE;
+        return new TimerSnapshot(state, values[1], values[2], values[3], values[4], values[5]);
+    }
+
+    @Override
+    public String toString() {
+        return "TimerSnapshot{" + state + ", remaining=" + remainingMs + "ms, duration=" + durationMs
+                + "ms, generation=" + generation + "}";
+    }
+}
@@ -0,0 +1,94 @@
+package com.sleeptimer.timer;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Compares wakeup counters measured on a device (files/wakeups.properties, written by the app's
+ * WakeupCounters) with the checked-in budget (android/wakeup-budget.properties).
+ *
+ * Both files use {@code <scenario>.<counter>} keys, where the scenario is "armed" (a timer
+ * completion scheduled) or "idle" (service running, no timer). Budgets are per
+ * {@link #BUDGET_HOURS} hours. Counts from a longer run are scaled down to that using
+ * {@code <scenario>.hours}; a shorter run is held to the full budget, since scaling it up would
+ * multiply one-off work such as service startup.
+ *
+ * Run with {@code ./gradlew :timer-core:checkWakeupBudget -Pmeasured=<wakeups.properties>}.
+ */
+public final class WakeupBudget {
+    public static final double BUDGET_HOURS = 8;
+    private static final String[] SCENARIOS = {"armed", "idle"};
+
+    /** One budget line checked against the measurement. */
+    public static final class Line {
+        public final String key;
+        public final long budget;
+        public final long measured;
+        // Measured count per BUDGET_HOURS
+        public final long scaled;
+
+        Line(String key, long budget, long measured, long scaled) {
+            this.key = key;
+            this.budget = budget;
+            this.measured = measured;
+            this.scaled = scaled;
+        }
+
+        public boolean exceeded() {
+            return scaled > budget;
+        }
+    }
+
+    public static List<Line> check(Properties budget, Properties measured) {
+        List<Line> lines = new ArrayList<>();
+        for (String scenario : SCENARIOS) {
+            double hours = Double.parseDouble(measured.getProperty(scenario + ".hours", "0"));
+            for (String key : budget.stringPropertyNames()) {
+                if (!key.startsWith(scenario + ".")) {
+                    continue;
+                }
+                long allowed = Long.parseLong(budget.getProperty(key).trim());
+                long count = Long.parseLong(measured.getProperty(key, "0").trim());
+                long scaled = hours > BUDGET_HOURS ? (long) Math.ceil(count * BUDGET_HOURS / hours) : count;
+                lines.add(new Line(key, allowed, count, scaled));
+            }
+        }
+        lines.sort((a, b) -> a.key.compareTo(b.key));
+        return lines;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: WakeupBudget <wakeup-budget.properties> <wakeups.properties>");
+            System.exit(2);
+        }
+        Properties budget = load(args[0]);
+        Properties measured = load(args[1]);
+        int exceeded = 0;
+        System.out.println(String.format("%-28s %8s %10s %10s", "counter", "measured",
+                "per " + (int) BUDGET_HOURS + "h", "budget"));
+        for (Line line : check(budget, measured)) {
+            System.out.println(String.format("%-28s %8d %10d %10d%s", line.key, line.measured, line.scaled,
+                    line.budget, line.exceeded() ? "  OVER BUDGET" : ""));
+            if (line.exceeded()) {
+                exceeded++;
+            }
+        }
+        if (exceeded > 0) {
+            System.err.println(exceeded + " counter(s) over budget");
+            System.exit(1);
+        }
+    }
+
+    private static Properties load(String path) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new FileReader(path)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,121 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/** Feeds synthetic accelerometer samples and checks the epoch scores and still/active states. */
+public class ActivityScorerTest {
+    private static final long EPOCH_MS = ActivityScorer.EPOCH_MS;
+
+    private final ActivityScorer scorer = new ActivityScorer(3, 0.02f, 0.15f);
+    private long timeMs = 1000;
+
+    @Before
+    public void setUp() {
+        // Opens the first epoch
+        scorer.addSample(timeMs, 0, 0, 9.81f);
+    }
+
+    @Test
+    public void quietEpochsMarkThePhoneStill() {
+        quiet(2, 1000);
+        assertEquals(ActivityScorer.UNKNOWN, scorer.getState());
+        quiet(1, 1000);
+        assertEquals(ActivityScorer.STILL, scorer.getState());
+        assertEquals(0f, scorer.getLastEpochScore(), 0f);
+    }
+
+    @Test
+    public void oneBusyEpochMarksThePhoneActiveAndRestartsTheQuietRun() {
+        quiet(3, 1000);
+        assertEquals(ActivityScorer.STILL, scorer.getState());
+
+        moving(1, 1000, 1.2f);
+        assertEquals(ActivityScorer.ACTIVE, scorer.getState());
+        assertTrue(scorer.getLastEpochScore() >= 0.15f);
+
+        // Two quiet epochs are not enough after the busy one
+        quiet(2, 1000);
+        assertEquals(ActivityScorer.ACTIVE, scorer.getState());
+        quiet(2, 1000);
+        assertEquals(ActivityScorer.STILL, scorer.getState());
+    }
+
+    @Test
+    public void fidgetingEndsStillWithoutCountingAsActive() {
+        quiet(3, 1000);
+        moving(1, 1000, 0.2f);
+        float score = scorer.getLastEpochScore();
+        assertTrue("score " + score, score >= 0.02f && score < 0.15f);
+        assertEquals(ActivityScorer.UNKNOWN, scorer.getState());
+    }
+
+    @Test
+    public void scoreDoesNotDependOnTheSampleRate() {
+        ActivityScorer fast = new ActivityScorer(3, 0.02f, 0.15f);
+        ActivityScorer slow = new ActivityScorer(3, 0.02f, 0.15f);
+        for (int epoch = 0; epoch < 3; epoch++) {
+            feed(fast, epoch, 50, 1.2f);
+            feed(slow, epoch, 5, 1.2f);
+        }
+        assertEquals(2, fast.getEpochCount());
+        assertEquals(fast.getLastEpochScore(), slow.getLastEpochScore(), 0.02f);
+    }
+
+    @Test
+    public void gapInSamplesClosesOneEpoch() {
+        quiet(2, 1000);
+        int epochs = scorer.getEpochCount();
+
+        // The sensor FIFO dropped five minutes: one epoch closes, nothing is counted for the gap
+        timeMs += 5 * EPOCH_MS;
+        assertTrue(scorer.addSample(timeMs, 0, 0, 9.81f));
+        assertEquals(epochs + 1, scorer.getEpochCount());
+        // The next epoch starts at the first sample after the gap
+        assertFalse(scorer.addSample(timeMs + EPOCH_MS - 1, 0, 0, 9.81f));
+        assertTrue(scorer.addSample(timeMs + EPOCH_MS, 0, 0, 9.81f));
+    }
+
+    @Test
+    public void resetForgetsTheState() {
+        quiet(3, 1000);
+        scorer.reset();
+        assertEquals(ActivityScorer.UNKNOWN, scorer.getState());
+        assertEquals(0, scorer.getEpochCount());
+        assertEquals(0f, scorer.getLastEpochScore(), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void thresholdsMustBeOrdered() {
+        new ActivityScorer(3, 0.2f, 0.1f);
+    }
+
+    // Phone lying flat for whole epochs
+    private void quiet(int epochs, long intervalMs) {
+        moving(epochs, intervalMs, 0f);
+    }
+
+    // Magnitude alternating by +-amplitude around gravity. Each epoch ends with the flat sample that
+    // closes it and opens the next one, so the state can be checked right after
+    private void moving(int epochs, long intervalMs, float amplitude) {
+        for (int epoch = 0; epoch < epochs; epoch++) {
+            for (long offset = intervalMs; offset < EPOCH_MS; offset += intervalMs) {
+                float swing = (offset / intervalMs) % 2 == 0 ? amplitude : -amplitude;
+                scorer.addSample(timeMs + offset, 0, 0, 9.81f + swing);
+            }
+            timeMs += EPOCH_MS;
+            assertTrue(scorer.addSample(timeMs, 0, 0, 9.81f));
+        }
+    }
+
+    private static void feed(ActivityScorer scorer, int epoch, int hz, float amplitude) {
+        long intervalMs = 1000 / hz;
+        for (int i = 0; i < EPOCH_MS / intervalMs; i++) {
+            scorer.addSample(epoch * EPOCH_MS + i * intervalMs, 0, 0, 9.81f + (i % 2 == 0 ? amplitude : -amplitude));
+        }
+    }
+}
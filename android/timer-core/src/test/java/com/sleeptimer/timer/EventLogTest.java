@@ -0,0 +1,142 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.Test;
+
+/** Records from one thread while another dumps, the way the button path and a bug report meet. */
+public class EventLogTest {
+    private static final String[] NAMES = {"tick", "press"};
+
+    private final ManualClock clock = new ManualClock(1000);
+    private final EventLog log = new EventLog(64, clock, NAMES);
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void dumpListsEventsOldestFirst() {
+        log.record(0);
+        clock.advance(5);
+        log.record(1, 85);
+        clock.advance(5);
+        log.record(7, 0, 3);
+
+        assertEquals("1000 tick\n1005 press 85\n1010 event#7 0 3\n", log.dumpToString());
+    }
+
+    @Test
+    public void overwrittenEventsAreCounted() {
+        for (int i = 1; i <= 100; i++) {
+            log.record(0, i);
+        }
+        String[] lines = log.dumpToString().split("\n");
+        assertEquals(65, lines.length);
+        assertEquals("1000 tick 37", lines[0]);
+        assertEquals("(36 older events overwritten)", lines[64]);
+    }
+
+    @Test
+    public void slowDumpDoesNotBlockRecording() throws Exception {
+        log.record(0, 1);
+        CountDownLatch dumping = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // A Writer that stalls like a slow disk on its first write
+        StringWriter stalled = new StringWriter() {
+            @Override
+            public StringWriter append(CharSequence text) {
+                dumping.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.append(text);
+            }
+        };
+        Future<?> dump = pool.submit(() -> {
+            log.dump(stalled);
+            return null;
+        });
+        assertTrue(dumping.await(5, TimeUnit.SECONDS));
+
+        Future<?> recorder = pool.submit(() -> log.record(1, 2));
+        recorder.get(5, TimeUnit.SECONDS);
+        assertEquals(2, log.totalRecorded());
+
+        release.countDown();
+        dump.get(5, TimeUnit.SECONDS);
+        // The dump shows the events held when it started
+        assertEquals("1000 tick 1\n", stalled.toString());
+    }
+
+    @Test
+    public void concurrentDumpsSeeConsistentEvents() throws Exception {
+        AtomicBoolean recording = new AtomicBoolean(true);
+        Future<?> recorder = pool.submit(() -> {
+            for (long i = 1; i <= 200_000; i++) {
+                log.record(0, i, i * 2);
+            }
+            recording.set(false);
+        });
+        Future<?> dumper = pool.submit(() -> {
+            do {
+                checkDump(log.dumpToString());
+            } while (recording.get());
+            return null;
+        });
+        recorder.get(30, TimeUnit.SECONDS);
+        dumper.get(30, TimeUnit.SECONDS);
+        checkDump(log.dumpToString());
+        assertEquals(64, log.snapshot().size());
+    }
+
+    @Test
+    public void recordingDoesNotAllocate() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+        long thread = Thread.currentThread().getId();
+
+        for (int i = 0; i < 100_000; i++) {
+            log.record(1, i, i);
+        }
+        long before = allocations.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 100_000; i++) {
+            log.record(1, i, i);
+        }
+        long allocated = allocations.getThreadAllocatedBytes(thread) - before;
+        // Zero per event; the slack covers the measurement itself
+        assertTrue("allocated " + allocated + " bytes for 100000 events", allocated < 1024);
+    }
+
+    // Each line is "<time> tick <i> <2i>" with i rising by one from line to line
+    private static void checkDump(String dump) {
+        long previous = -1;
+        for (String line : dump.split("\n")) {
+            if (line.isEmpty() || line.startsWith("(")) {
+                continue;
+            }
+            String[] fields = line.split(" ");
+            long first = Long.parseLong(fields[2]);
+            assertEquals(line, first * 2, Long.parseLong(fields[3]));
+            assertTrue(dump, previous < 0 || first == previous + 1);
+            previous = first;
+        }
+    }
+}
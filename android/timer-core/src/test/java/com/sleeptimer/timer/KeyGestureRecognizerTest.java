@@ -0,0 +1,88 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Replays recorded key sequences through the recognizer. Each sequence is a list of events:
+ * {@code D<t>} key down, {@code R<t>} auto-repeat down, {@code U<t>} key up and {@code P<t>} poll,
+ * where t is the event time; {@code +<d>} delivers the event d ms late. Expected gestures are
+ * written {@code <gesture>@<decision latency>}.
+ */
+public class KeyGestureRecognizerTest {
+    private static final String[] GESTURE_NAMES = {"NONE", "SINGLE", "DOUBLE", "TRIPLE", "LONG"};
+
+    private static final Object[][] SEQUENCES = {
+        // name, maxPresses, window ms, long press ms, events, expected gestures
+        {"play press acts on key down", 1, 500, 0, "D0 U90", "SINGLE@0"},
+        {"held play key auto-repeats once", 1, 500, 0, "D0 R500 R550 U900", "SINGLE@0"},
+        {"play press delivered late", 1, 500, 0, "D0+120 U90+120", "SINGLE@120"},
+        {"two play presses", 1, 500, 0, "D0 U90 D200 U280", "SINGLE@0 SINGLE@0"},
+        {"volume double press", 2, 500, 0, "D0 U80 D300 U370", "DOUBLE@0"},
+        {"volume double press at the window edge", 2, 500, 0, "D0 U80 D500 U560", "DOUBLE@0"},
+        {"volume presses too far apart", 2, 500, 0, "D0 U80 D700 U780 P1300", "SINGLE@700 SINGLE@600"},
+        {"late delivery does not split a double", 2, 500, 0, "D0 U80 D300+450 U370+450", "DOUBLE@450"},
+        {"lone volume press is never polled", 2, 500, 0, "D0 U80", ""},
+        {"poll before the window runs out", 2, 500, 0, "D0 U80 P500", ""},
+        {"triple press", 3, 500, 0, "D0 U50 D200 U250 D400 U450", "TRIPLE@0"},
+        {"double press decided by poll", 3, 500, 0, "D0 U50 D200 U250 P700 P701", "DOUBLE@501"},
+        {"held past the threshold", 1, 0, 800, "D0 P799 P800 U1200", "LONG@800"},
+        {"long press decided on release", 1, 0, 800, "D0 U900", "LONG@900"},
+        {"short press with long press on", 1, 0, 800, "D0 U200", "SINGLE@200"},
+        {"key up without a key down", 1, 500, 0, "U100", ""},
+    };
+
+    @Test
+    public void recordedSequences() {
+        for (Object[] sequence : SEQUENCES) {
+            String name = (String) sequence[0];
+            List<String> decided = new ArrayList<>();
+            KeyGestureRecognizer recognizer = new KeyGestureRecognizer((Integer) sequence[1],
+                    (Integer) sequence[2], (Integer) sequence[3],
+                    (gesture, latencyMs) -> decided.add(GESTURE_NAMES[gesture] + "@" + latencyMs));
+            replay(recognizer, (String) sequence[4]);
+            assertEquals(name, sequence[5], String.join(" ", decided));
+        }
+    }
+
+    @Test
+    public void deadlineFollowsThePendingDecision() {
+        KeyGestureRecognizer recognizer = new KeyGestureRecognizer(2, 500, 0, (gesture, latencyMs) -> { });
+        assertEquals(Long.MAX_VALUE, recognizer.getDeadline());
+        replay(recognizer, "D1000 U1080");
+        assertEquals(1501, recognizer.getDeadline());
+        replay(recognizer, "P1501");
+        assertEquals(Long.MAX_VALUE, recognizer.getDeadline());
+
+        KeyGestureRecognizer longPress = new KeyGestureRecognizer(1, 0, 800, (gesture, latencyMs) -> { });
+        replay(longPress, "D1000");
+        assertEquals(1800, longPress.getDeadline());
+    }
+
+    private static void replay(KeyGestureRecognizer recognizer, String events) {
+        for (String event : events.split(" ")) {
+            String[] times = event.substring(1).split("\\+");
+            long eventTime = Long.parseLong(times[0]);
+            long now = eventTime + (times.length > 1 ? Long.parseLong(times[1]) : 0);
+            switch (event.charAt(0)) {
+                case 'D':
+                    recognizer.onKeyDown(eventTime, 0, now);
+                    break;
+                case 'R':
+                    recognizer.onKeyDown(eventTime, 1, now);
+                    break;
+                case 'U':
+                    recognizer.onKeyUp(eventTime, now);
+                    break;
+                case 'P':
+                    recognizer.poll(now);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown event " + event);
+            }
+        }
+    }
+}
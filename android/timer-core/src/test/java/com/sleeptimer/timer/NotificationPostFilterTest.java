@@ -0,0 +1,101 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Counts notification posts per simulated timer hour. The caller asks for an update every second,
+ * as the old per-second notification loop did; only transitions may reach NotificationManager.
+ */
+public class NotificationPostFilterTest {
+    private static final long SECOND_MS = 1000;
+    private static final long MINUTE_MS = 60 * SECOND_MS;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    // Wall clock of the simulated night; elapsedRealtime starts at 0
+    private static final long WALL_OFFSET_MS = 1_700_000_000_000L;
+
+    private final ManualClock clock = new ManualClock();
+    private final TimerEngine engine = new TimerEngine(clock);
+    private final NotificationPostFilter filter = new NotificationPostFilter();
+
+    @Test
+    public void runningHourPostsOnce() {
+        engine.start(HOUR_MS);
+        simulateUntil(HOUR_MS);
+        assertEquals(1, filter.getPostCount());
+        assertEquals(HOUR_MS / SECOND_MS - 1, filter.getSkippedCount());
+    }
+
+    @Test
+    public void hourWithPauseAndResumePostsOncePerTransition() {
+        engine.start(HOUR_MS);
+        simulateUntil(20 * MINUTE_MS);
+        engine.pause();
+        simulateUntil(30 * MINUTE_MS);
+        engine.resume();
+        simulateUntil(HOUR_MS);
+        // start, pause, resume
+        assertEquals(3, filter.getPostCount());
+    }
+
+    @Test
+    public void durationChangeMovesTheDeadline() {
+        engine.start(HOUR_MS);
+        simulateUntil(10 * MINUTE_MS);
+        engine.updateDuration(45 * MINUTE_MS);
+        simulateUntil(HOUR_MS);
+        // start, new deadline, completed at 55 minutes
+        assertEquals(3, filter.getPostCount());
+    }
+
+    @Test
+    public void deadlineJitterWithinToleranceIsSkipped() {
+        assertTrue(filter.postCountdown("Timer Running", WALL_OFFSET_MS));
+        assertFalse(filter.postCountdown("Timer Running", WALL_OFFSET_MS + 999));
+        assertFalse(filter.postCountdown("Timer Running", WALL_OFFSET_MS - 999));
+        assertTrue(filter.postCountdown("Timer Running", WALL_OFFSET_MS + NotificationPostFilter.CHRONOMETER_TOLERANCE_MS));
+    }
+
+    @Test
+    public void textShownByStartForegroundIsNotPostedAgain() {
+        filter.shownText("Ready to handle media button presses");
+        assertFalse(filter.postText("Ready to handle media button presses"));
+        assertTrue(filter.postCountdown("Ready to handle media button presses", WALL_OFFSET_MS));
+        // Same text, but the countdown is showing, so it has to be replaced
+        assertTrue(filter.postText("Ready to handle media button presses"));
+    }
+
+    @Test
+    public void pausedTextCarriesTheRemainingTime() {
+        assertEquals("Timer Paused - 12:00 remaining", filter.postStatus("Timer Paused", 12 * MINUTE_MS));
+        assertNull(filter.postStatus("Timer Paused", 12 * MINUTE_MS));
+        assertEquals("Timer completed", filter.postStatus("Timer completed", 0));
+        assertEquals(WALL_OFFSET_MS + HOUR_MS, filter.postRemaining("Timer Running", HOUR_MS, WALL_OFFSET_MS));
+        assertEquals(NotificationPostFilter.NO_POST,
+                filter.postRemaining("Timer Running", HOUR_MS - 400, WALL_OFFSET_MS + 400));
+    }
+
+    // Asks for an update every second with the statuses MediaButtonReceiver passes to
+    // ForegroundService, through the same calls NotificationRenderer.post and postCountdown make
+    private void simulateUntil(long elapsedMs) {
+        while (clock.elapsedRealtime() < elapsedMs) {
+            // A few ms of skew between reading the remaining time and the wall clock
+            long wallMs = WALL_OFFSET_MS + clock.elapsedRealtime() + (clock.elapsedRealtime() / SECOND_MS) % 5;
+            if (engine.isExpired()) {
+                engine.complete();
+            }
+            if (engine.isRunning()) {
+                filter.postRemaining("Timer Running", engine.getRemainingMs(), wallMs);
+            } else if (engine.isPaused()) {
+                filter.postStatus("Timer Paused", engine.getRemainingMs());
+            } else {
+                filter.postStatus("Timer completed", 0);
+            }
+            clock.advance(SECOND_MS);
+        }
+    }
+}
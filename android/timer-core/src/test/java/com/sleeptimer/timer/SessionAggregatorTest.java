@@ -0,0 +1,152 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.List;
+import java.util.TimeZone;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Rebuilds sessions from record streams and checks which night or week they land in. */
+public class SessionAggregatorTest {
+    private static final long MINUTE_MS = 60 * 1000L;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+    private static final long DAY_MS = 24 * HOUR_MS;
+    // Monday 2024-01-01 00:00 UTC, epoch day 19723
+    private static final long MONDAY = 19723;
+    private static final long MONDAY_MS = MONDAY * DAY_MS;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void nightRunsFromNoonToNoon() {
+        SessionAggregator nights = new SessionAggregator(UTC, false);
+        // Tuesday 00:30 still belongs to Monday night; Tuesday 12:00 starts Tuesday night
+        session(nights, MONDAY_MS + DAY_MS + 30 * MINUTE_MS, 30 * MINUTE_MS);
+        session(nights, MONDAY_MS + DAY_MS + 12 * HOUR_MS, 30 * MINUTE_MS);
+
+        List<SessionAggregator.Period> periods = nights.finish();
+        assertEquals(2, periods.size());
+        assertEquals(MONDAY, periods.get(0).getStartDay());
+        assertEquals(MONDAY + 1, periods.get(1).getStartDay());
+    }
+
+    @Test
+    public void nightFollowsTheLocalZone() {
+        // UTC+1 in January: 23:30 UTC Monday is 00:30 local Tuesday, still Monday night
+        SessionAggregator nights = new SessionAggregator(TimeZone.getTimeZone("Europe/Berlin"), false);
+        session(nights, MONDAY_MS + 23 * HOUR_MS + 30 * MINUTE_MS, 30 * MINUTE_MS);
+        // 11:30 UTC Tuesday is 12:30 local, Tuesday night
+        session(nights, MONDAY_MS + DAY_MS + 11 * HOUR_MS + 30 * MINUTE_MS, 30 * MINUTE_MS);
+
+        List<SessionAggregator.Period> periods = nights.finish();
+        assertEquals(MONDAY, periods.get(0).getStartDay());
+        assertEquals(MONDAY + 1, periods.get(1).getStartDay());
+    }
+
+    @Test
+    public void weekStartsOnMondayNight() {
+        SessionAggregator weeks = new SessionAggregator(UTC, true);
+        // Sunday night, and the small hours of the next Monday, are still the first week
+        session(weeks, MONDAY_MS + 6 * DAY_MS + 22 * HOUR_MS, 30 * MINUTE_MS);
+        session(weeks, MONDAY_MS + 7 * DAY_MS + HOUR_MS, 30 * MINUTE_MS);
+        // Monday evening starts the next week
+        session(weeks, MONDAY_MS + 7 * DAY_MS + 22 * HOUR_MS, 30 * MINUTE_MS);
+
+        List<SessionAggregator.Period> periods = weeks.finish();
+        assertEquals(2, periods.size());
+        assertEquals(MONDAY, periods.get(0).getStartDay());
+        assertEquals(2, periods.get(0).getSessions());
+        assertEquals(MONDAY + 7, periods.get(1).getStartDay());
+        assertEquals(1, periods.get(1).getSessions());
+    }
+
+    @Test
+    public void pausesAreExcludedFromListeningTime() {
+        SessionAggregator nights = new SessionAggregator(UTC, false);
+        long start = MONDAY_MS + 22 * HOUR_MS;
+        nights.visit(start, SessionHistory.STARTED, 45 * MINUTE_MS, 1);
+        nights.visit(start + 20 * MINUTE_MS, SessionHistory.PAUSED, 25 * MINUTE_MS, 2);
+        nights.visit(start + 30 * MINUTE_MS, SessionHistory.RESUMED, 25 * MINUTE_MS, 3);
+        nights.visit(start + 40 * MINUTE_MS, SessionHistory.EXTENDED, 55 * MINUTE_MS, 4);
+        nights.visit(start + 65 * MINUTE_MS, SessionHistory.COMPLETED, 4, 0);
+
+        SessionAggregator.Period night = nights.finish().get(0);
+        assertEquals(1, night.getCompleted());
+        assertEquals(1, night.getPauses());
+        assertEquals(1, night.getExtensions());
+        assertEquals(55 * MINUTE_MS, night.getListenedMs());
+        assertEquals(10 * MINUTE_MS, night.getPausedMs());
+    }
+
+    @Test
+    public void sessionWithoutCompletedClosesAtItsLastRecord() {
+        SessionAggregator nights = new SessionAggregator(UTC, false);
+        long start = MONDAY_MS + 22 * HOUR_MS;
+        // Process killed while paused; the next start closes the session
+        nights.visit(start, SessionHistory.STARTED, 30 * MINUTE_MS, 1);
+        nights.visit(start + 10 * MINUTE_MS, SessionHistory.PAUSED, 20 * MINUTE_MS, 2);
+        session(nights, start + HOUR_MS, 30 * MINUTE_MS);
+        // And one still open at the end of the stream
+        nights.visit(start + 2 * HOUR_MS, SessionHistory.STARTED, 30 * MINUTE_MS, 1);
+        nights.visit(start + 2 * HOUR_MS + 5 * MINUTE_MS, SessionHistory.EXTENDED, 40 * MINUTE_MS, 2);
+
+        SessionAggregator.Period night = nights.finish().get(0);
+        assertEquals(3, night.getSessions());
+        assertEquals(1, night.getCompleted());
+        assertEquals((10 + 30 + 5) * MINUTE_MS, night.getListenedMs());
+        assertEquals(start + 2 * HOUR_MS + 5 * MINUTE_MS, night.getLastEndWallMs());
+    }
+
+    @Test
+    public void confirmedStopWithinTenMinutesIsMatched() {
+        SessionAggregator nights = new SessionAggregator(UTC, false);
+        long first = MONDAY_MS + 22 * HOUR_MS;
+        session(nights, first, 30 * MINUTE_MS);
+        nights.visit(first + 30 * MINUTE_MS + 1500, SessionHistory.PLAYBACK_STOPPED, 1, 1);
+        // A second stop for the same session is not counted again
+        nights.visit(first + 31 * MINUTE_MS, SessionHistory.PLAYBACK_STOPPED, 1, 1);
+
+        long second = first + HOUR_MS;
+        session(nights, second, 30 * MINUTE_MS);
+        // Unconfirmed, then too late
+        nights.visit(second + 30 * MINUTE_MS + 1000, SessionHistory.PLAYBACK_STOPPED, 3, 0);
+        nights.visit(second + 40 * MINUTE_MS + 1, SessionHistory.PLAYBACK_STOPPED, 1, 1);
+
+        long third = first + 2 * HOUR_MS;
+        session(nights, third, 30 * MINUTE_MS);
+        nights.visit(third + 40 * MINUTE_MS, SessionHistory.PLAYBACK_STOPPED, 2, 1);
+
+        SessionAggregator.Period night = nights.finish().get(0);
+        assertEquals(3, night.getCompleted());
+        assertEquals(2, night.getConfirmedStops());
+        assertEquals((1500 + 10 * MINUTE_MS) / 2, night.getAverageStopLatencyMs());
+    }
+
+    @Test
+    public void aggregatesStraightFromTheHistoryFile() throws Exception {
+        SessionHistory history = new SessionHistory(new File(folder.getRoot(), "sessions.bin"), 30 * DAY_MS, 1000);
+        for (int night = 0; night < 3; night++) {
+            long start = MONDAY_MS + night * DAY_MS + 23 * HOUR_MS;
+            history.append(start, SessionHistory.STARTED, 30 * MINUTE_MS, 1);
+            history.append(start + 30 * MINUTE_MS, SessionHistory.COMPLETED, 1, 0);
+        }
+        SessionAggregator nights = new SessionAggregator(UTC, false);
+        history.query(MONDAY_MS + DAY_MS, Long.MAX_VALUE, nights);
+        history.close();
+
+        List<SessionAggregator.Period> periods = nights.finish();
+        assertEquals(2, periods.size());
+        assertEquals(MONDAY + 1, periods.get(0).getStartDay());
+        assertEquals(30 * MINUTE_MS, periods.get(0).getListenedMs());
+    }
+
+    private static void session(SessionAggregator aggregator, long startWallMs, long durationMs) {
+        aggregator.visit(startWallMs, SessionHistory.STARTED, durationMs, 1);
+        aggregator.visit(startWallMs + durationMs, SessionHistory.COMPLETED, 1, 0);
+    }
+}
@@ -0,0 +1,149 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Appends, queries and compacts a history file the way SessionHistoryStore does, crashes included. */
+public class SessionHistoryTest {
+    private static final long DAY_MS = 24 * 60 * 60 * 1000L;
+    private static final long WALL_MS = 1_700_000_000_000L;
+    private static final long RETENTION_MS = 7 * DAY_MS;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private SessionHistory history;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "sessions.bin");
+        history = new SessionHistory(file, RETENTION_MS, 4);
+    }
+
+    @Test
+    public void recordsRoundTripInAppendOrder() throws IOException {
+        history.append(WALL_MS, SessionHistory.STARTED, 1800_000, 3);
+        history.append(WALL_MS + 1000, SessionHistory.PAUSED, 1799_000, 4);
+        history.close();
+
+        List<String> records = readAll(new SessionHistory(file, RETENTION_MS, 4));
+        assertEquals(2, records.size());
+        assertEquals(WALL_MS + " 1 1800000 3", records.get(0));
+        assertEquals((WALL_MS + 1000) + " 2 1799000 4", records.get(1));
+        assertEquals(SessionHistory.HEADER_SIZE + 2 * SessionHistory.RECORD_SIZE, file.length());
+    }
+
+    @Test
+    public void stagedRecordsAreCountedAndWrittenInOneBatch() throws IOException {
+        for (int i = 0; i < 10; i++) {
+            history.append(WALL_MS + i, SessionHistory.EXTENDED, i, 0);
+        }
+        assertEquals(10, history.recordCount());
+        assertFalse(file.exists());
+
+        // query flushes what is staged first
+        assertEquals(10, readAll(history).size());
+        assertEquals(1, history.getBatchWrites());
+    }
+
+    @Test
+    public void queryBoundsIncludeFromAndExcludeTo() throws IOException {
+        history.append(WALL_MS, SessionHistory.STARTED, 0, 1);
+        history.append(WALL_MS + 100, SessionHistory.PAUSED, 0, 1);
+        history.append(WALL_MS + 200, SessionHistory.COMPLETED, 1, 0);
+
+        List<Long> times = new ArrayList<>();
+        int visited = history.query(WALL_MS + 100, WALL_MS + 200, (wallMs, type, first, second) -> times.add(wallMs));
+
+        assertEquals(1, visited);
+        assertEquals(List.of(WALL_MS + 100), times);
+        assertEquals(0, history.query(WALL_MS + 300, Long.MAX_VALUE, (wallMs, type, first, second) -> { }));
+    }
+
+    @Test
+    public void tornTailIsIgnoredAndCutOffByTheNextAppend() throws IOException {
+        history.append(WALL_MS, SessionHistory.STARTED, 0, 1);
+        history.append(WALL_MS + 100, SessionHistory.PAUSED, 0, 1);
+        history.close();
+        // The process died 10 bytes into the next record
+        try (OutputStream out = new FileOutputStream(file, true)) {
+            out.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+        }
+
+        SessionHistory reopened = new SessionHistory(file, RETENTION_MS, 4);
+        assertEquals(2, reopened.recordCount());
+        assertEquals(2, readAll(reopened).size());
+
+        reopened.append(WALL_MS + 200, SessionHistory.RESUMED, 0, 1);
+        reopened.flush();
+        assertEquals(SessionHistory.HEADER_SIZE + 3 * SessionHistory.RECORD_SIZE, file.length());
+        List<String> records = readAll(reopened);
+        assertEquals((WALL_MS + 200) + " 3 0 1", records.get(2));
+    }
+
+    @Test
+    public void compactionKeepsTheRetentionWindow() throws IOException {
+        long now = WALL_MS + 10 * DAY_MS;
+        for (int day = 0; day <= 10; day += 2) {
+            history.append(WALL_MS + day * DAY_MS, SessionHistory.STARTED, day, 0);
+        }
+
+        assertTrue(history.compactIfNeeded(now));
+        List<String> records = readAll(history);
+        // Days 4, 6, 8 and 10 are within 7 days of day 10
+        assertEquals(4, records.size());
+        assertEquals((WALL_MS + 4 * DAY_MS) + " 1 4 0", records.get(0));
+        assertEquals(1, history.getCompactions());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+
+        // Appends go to the compacted file
+        history.append(now + 1, SessionHistory.COMPLETED, 10, 0);
+        history.flush();
+        assertEquals(SessionHistory.HEADER_SIZE + 5 * SessionHistory.RECORD_SIZE, file.length());
+        assertEquals(5, readAll(new SessionHistory(file, RETENTION_MS, 4)).size());
+    }
+
+    @Test
+    public void smallHistoryIsNotCompacted() throws IOException {
+        for (int i = 0; i < 4; i++) {
+            history.append(WALL_MS, SessionHistory.STARTED, i, 0);
+        }
+        assertFalse(history.compactIfNeeded(WALL_MS + 30 * DAY_MS));
+        assertEquals(4, readAll(history).size());
+        assertEquals(0, history.getCompactions());
+    }
+
+    @Test
+    public void badHeaderStartsOver() throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(new byte[100]);
+        }
+        assertEquals(0, readAll(history).size());
+
+        history.append(WALL_MS, SessionHistory.STARTED, 0, 1);
+        history.flush();
+        assertEquals(SessionHistory.HEADER_SIZE + SessionHistory.RECORD_SIZE, file.length());
+        assertEquals(List.of(WALL_MS + " 1 0 1"), readAll(history));
+    }
+
+    // Every record as "<wall> <type> <first> <second>"
+    private static List<String> readAll(SessionHistory history) throws IOException {
+        List<String> records = new ArrayList<>();
+        history.query(Long.MIN_VALUE, Long.MAX_VALUE,
+                (wallMs, type, first, second) -> records.add(wallMs + " " + type + " " + first + " " + second));
+        return records;
+    }
+}
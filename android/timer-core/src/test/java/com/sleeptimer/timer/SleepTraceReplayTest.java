@@ -0,0 +1,65 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+/** Replays the checked-in traces in src/test/resources with the app's tuning. */
+public class SleepTraceReplayTest {
+    private static final long MINUTE_MS = 60 * 1000L;
+
+    @Test
+    public void stillTraceBringsTheDeadlineForward() throws IOException {
+        SleepDeadlinePolicy policy = SleepDeadlinePolicy.withDefaults();
+        SleepTraceReplay.Result result = replay("sleep-trace-still.csv", policy, 30 * MINUTE_MS);
+
+        // Still after ten quiet epochs, then five minutes of grace instead of twenty more
+        assertEquals(1, result.broughtForward);
+        assertEquals(0, result.extended);
+        assertEquals(result.startMs + 15 * MINUTE_MS, result.endMs);
+        assertEquals(result.startMs + 30 * MINUTE_MS, result.plannedEndMs);
+    }
+
+    @Test
+    public void activeTraceExtendsUpToTheCap() throws IOException {
+        SleepDeadlinePolicy policy = SleepDeadlinePolicy.withDefaults();
+        SleepTraceReplay.Result result = replay("sleep-trace-active.csv", policy, 5 * MINUTE_MS);
+
+        // Extended at +2, +12 and +22 minutes; at +32 the cap holds and the timer runs out
+        assertEquals(3, result.extended);
+        assertEquals(3, policy.getExtensions());
+        assertEquals(0, result.broughtForward);
+        assertEquals(result.startMs + 35 * MINUTE_MS, result.endMs);
+    }
+
+    @Test
+    public void activeTraceFarFromTheDeadlineChangesNothing() throws IOException {
+        SleepTraceReplay.Result result = replay("sleep-trace-active.csv", SleepDeadlinePolicy.withDefaults(),
+                60 * MINUTE_MS);
+
+        assertEquals(0, result.extended);
+        assertEquals(0, result.broughtForward);
+        assertEquals(-1, result.endMs);
+        assertEquals(241, result.samples);
+        assertEquals(40, result.epochs);
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedLineIsRejected() throws IOException {
+        SleepTraceReplay.replay(new BufferedReader(new StringReader("# header\n1000,0.1,9.8\n")),
+                ActivityScorer.withDefaults(), SleepDeadlinePolicy.withDefaults(), MINUTE_MS);
+    }
+
+    private static SleepTraceReplay.Result replay(String resource, SleepDeadlinePolicy policy, long timerMs)
+            throws IOException {
+        try (BufferedReader trace = new BufferedReader(new InputStreamReader(
+                SleepTraceReplayTest.class.getResourceAsStream("/" + resource), StandardCharsets.UTF_8))) {
+            return SleepTraceReplay.replay(trace, ActivityScorer.withDefaults(), policy, timerMs);
+        }
+    }
+}
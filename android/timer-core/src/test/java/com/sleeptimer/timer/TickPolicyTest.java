@@ -0,0 +1,100 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/** Walks a countdown tick by tick on virtual time and checks where each tick lands. */
+public class TickPolicyTest {
+    private static final long SECOND_MS = 1000;
+    private static final long MINUTE_MS = 60 * SECOND_MS;
+    // On a whole hour, so offsets from it read as wall-clock positions
+    private static final long HOUR_WALL_MS = 1_699_999_200_000L;
+
+    // The clock stands in for both the wall clock and elapsedRealtime here
+    private final ManualClock clock = new ManualClock(HOUR_WALL_MS + 12_345);
+    private final TimerEngine engine = new TimerEngine(clock);
+
+    @Test
+    public void intervalIsCoarseFarFromTheDeadlineAndFineNearIt() {
+        assertEquals(5 * MINUTE_MS, TickPolicy.intervalFor(8 * 60 * MINUTE_MS));
+        assertEquals(5 * MINUTE_MS, TickPolicy.intervalFor(60 * MINUTE_MS));
+        assertEquals(MINUTE_MS, TickPolicy.intervalFor(60 * MINUTE_MS - 1));
+        assertEquals(MINUTE_MS, TickPolicy.intervalFor(10 * MINUTE_MS));
+        assertEquals(15 * SECOND_MS, TickPolicy.intervalFor(10 * MINUTE_MS - 1));
+        assertEquals(15 * SECOND_MS, TickPolicy.intervalFor(MINUTE_MS));
+        assertEquals(SECOND_MS, TickPolicy.intervalFor(MINUTE_MS - 1));
+        assertEquals(SECOND_MS, TickPolicy.intervalFor(0));
+    }
+
+    @Test
+    public void noTicksWithTheScreenOffOrOnceExpired() {
+        assertEquals(TickPolicy.NO_TICK, TickPolicy.nextTickWallMs(clock.elapsedRealtime(), 5 * MINUTE_MS, false, 0));
+        assertEquals(TickPolicy.NO_TICK, TickPolicy.nextTickWallMs(clock.elapsedRealtime(), 0, true, 0));
+        assertEquals(TickPolicy.NO_TICK, TickPolicy.nextTickWallMs(clock.elapsedRealtime(), -1, true, 0));
+    }
+
+    @Test
+    public void ticksLandOnWallClockBoundaries() {
+        long now = clock.elapsedRealtime();
+        // 00:12.345 past the hour
+        assertEquals(HOUR_WALL_MS + 5 * MINUTE_MS, TickPolicy.nextTickWallMs(now, 3 * 60 * MINUTE_MS, true, 0));
+        assertEquals(HOUR_WALL_MS + MINUTE_MS, TickPolicy.nextTickWallMs(now, 30 * MINUTE_MS, true, 0));
+        assertEquals(HOUR_WALL_MS + 15 * SECOND_MS, TickPolicy.nextTickWallMs(now, 5 * MINUTE_MS, true, 0));
+        assertEquals(HOUR_WALL_MS + 13 * SECOND_MS, TickPolicy.nextTickWallMs(now, 30 * SECOND_MS, true, 0));
+    }
+
+    @Test
+    public void tickIsPlacedWhereTheRemainingTimeEntersAFinerBand() {
+        long now = clock.elapsedRealtime();
+        // The next whole minute is 47.655 s away, but the 15 s band starts in 5 s
+        assertEquals(now + 5 * SECOND_MS, TickPolicy.nextTickWallMs(now, 10 * MINUTE_MS + 5 * SECOND_MS, true, 0));
+        // Same for the 1 minute band below an hour
+        assertEquals(now + 20 * SECOND_MS, TickPolicy.nextTickWallMs(now, 60 * MINUTE_MS + 20 * SECOND_MS, true, 0));
+    }
+
+    @Test
+    public void minIntervalCoarsensTheTicks() {
+        long now = clock.elapsedRealtime();
+        assertEquals(HOUR_WALL_MS + 15 * SECOND_MS, TickPolicy.nextTickWallMs(now, 30 * SECOND_MS, true, 15 * SECOND_MS));
+        // The 1 s band is finer than anyone wants, so its crossing is not a tick either
+        assertEquals(HOUR_WALL_MS + MINUTE_MS, TickPolicy.nextTickWallMs(now, MINUTE_MS + 5 * SECOND_MS, true, MINUTE_MS));
+        // A coarser policy interval wins over the minimum
+        assertEquals(HOUR_WALL_MS + 5 * MINUTE_MS, TickPolicy.nextTickWallMs(now, 2 * 60 * MINUTE_MS, true, SECOND_MS));
+    }
+
+    @Test
+    public void neverTicksPastTheDeadline() {
+        long now = clock.elapsedRealtime();
+        assertEquals(now + 300, TickPolicy.nextTickWallMs(now, 300, true, 0));
+        assertEquals(now + 40 * SECOND_MS, TickPolicy.nextTickWallMs(now, 40 * SECOND_MS, true, 5 * MINUTE_MS));
+    }
+
+    @Test
+    public void wholeCountdownTicksOnBoundariesAndEndsOnTheDeadline() {
+        engine.start(90 * MINUTE_MS);
+        long deadline = engine.getDeadlineMs();
+        int ticks = 0;
+        int offBoundary = 0;
+        while (!engine.isExpired()) {
+            long now = clock.elapsedRealtime();
+            long remaining = engine.getRemainingMs();
+            long next = TickPolicy.nextTickWallMs(now, remaining, true, SECOND_MS);
+            assertTrue(next > now && next <= deadline);
+            if (next % TickPolicy.intervalFor(remaining) != 0) {
+                // Only band crossings and the deadline fall between boundaries
+                long left = deadline - next;
+                assertTrue("tick at " + left + " ms left",
+                        left == 0 || left == 60 * MINUTE_MS || left == 10 * MINUTE_MS || left == MINUTE_MS);
+                offBoundary++;
+            }
+            clock.set(next);
+            ticks++;
+        }
+        assertEquals(deadline, clock.elapsedRealtime());
+        // 6 + 50 + 36 + 60 on boundaries, against 5400 with a fixed one-second tick
+        assertTrue("ticks " + ticks, ticks <= 6 + 50 + 36 + 60 + offBoundary);
+        assertTrue("off boundary " + offBoundary, offBoundary <= 4);
+    }
+}
@@ -0,0 +1,168 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Hammers one actor from many threads, the way button presses, the UI, the sleep detector and
+ * alarms reach MediaButtonReceiver at once, while readers check every published snapshot.
+ */
+public class TimerActorStressTest {
+    private static final int SUBMITTERS = 8;
+    private static final int READERS = 4;
+    private static final int COMMANDS_PER_SUBMITTER = 5000;
+    private static final long MINUTE_MS = 60 * 1000;
+
+    private final ExecutorService writerExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "writer"));
+    private final ExecutorService pool = Executors.newFixedThreadPool(SUBMITTERS + READERS);
+    private final AtomicLong time = new AtomicLong(1000);
+    private final TimerEngine engine = new TimerEngine(time::get);
+    private final TimerActor actor = new TimerActor(engine, new TimerActor.WriterThread() {
+        @Override
+        public boolean isCurrent() {
+            return Thread.currentThread().getName().equals("writer");
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            writerExecutor.execute(command);
+        }
+    });
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+        writerExecutor.shutdownNow();
+    }
+
+    @Test
+    public void concurrentCommandsPublishConsistentSnapshots() throws Exception {
+        AtomicLong transitions = new AtomicLong();
+        AtomicBoolean submitting = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> readers = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            boolean bringUpToNow = i % 2 == 1;
+            readers.add(pool.submit(() -> {
+                start.await();
+                long lastGeneration = -1;
+                while (submitting.get()) {
+                    TimerSnapshot snapshot = bringUpToNow ? actor.snapshotNow() : actor.snapshot();
+                    checkInvariants(snapshot);
+                    assertTrue("generation went backwards", snapshot.generation >= lastGeneration);
+                    lastGeneration = snapshot.generation;
+                }
+                return null;
+            }));
+        }
+
+        List<Future<?>> submitters = new ArrayList<>();
+        for (int i = 0; i < SUBMITTERS; i++) {
+            long seed = i;
+            submitters.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int n = 0; n < COMMANDS_PER_SUBMITTER; n++) {
+                    int command = random.nextInt(6);
+                    long amount = 1 + random.nextInt(30) * MINUTE_MS;
+                    long advance = random.nextInt(5000);
+                    actor.execute(e -> {
+                        time.addAndGet(advance);
+                        if (apply(e, command, amount)) {
+                            transitions.incrementAndGet();
+                        }
+                    });
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> submitter : submitters) {
+            submitter.get(30, TimeUnit.SECONDS);
+        }
+        // Everything queued so far runs before this marker
+        writerExecutor.submit(() -> { }).get(30, TimeUnit.SECONDS);
+        submitting.set(false);
+        for (Future<?> reader : readers) {
+            reader.get(30, TimeUnit.SECONDS);
+        }
+
+        TimerSnapshot last = actor.snapshot();
+        checkInvariants(last);
+        assertEquals(transitions.get(), last.generation);
+        long engineGeneration = writerExecutor.submit(() -> actor.engine().getGeneration()).get();
+        assertEquals(last.generation, engineGeneration);
+    }
+
+    @Test
+    public void engineIsOnlyReachableOnTheWriter() throws Exception {
+        try {
+            actor.engine();
+            fail("engine() off the writer thread");
+        } catch (IllegalStateException expected) {
+            // the test thread is not the writer
+        }
+        try {
+            actor.publish();
+            fail("publish() off the writer thread");
+        } catch (IllegalStateException expected) {
+            // the test thread is not the writer
+        }
+        actor.execute(e -> e.start(MINUTE_MS));
+        TimerEngine.State state = writerExecutor.submit(() -> actor.engine().getState()).get();
+        assertEquals(TimerEngine.State.RUNNING, state);
+    }
+
+    private static boolean apply(TimerEngine engine, int command, long amount) {
+        switch (command) {
+            case 0:
+                if (engine.isActive()) {
+                    return false;
+                }
+                engine.start(amount);
+                return true;
+            case 1:
+                return engine.pause();
+            case 2:
+                return engine.resume();
+            case 3:
+                return engine.updateDuration(amount);
+            case 4:
+                return engine.adjustRemaining(amount);
+            default:
+                return engine.complete();
+        }
+    }
+
+    private static void checkInvariants(TimerSnapshot snapshot) {
+        assertTrue("negative remaining time", snapshot.remainingMs >= 0);
+        switch (snapshot.state) {
+            case RUNNING:
+                assertTrue("running without a deadline", snapshot.deadlineMs > 0);
+                break;
+            case PAUSED:
+                assertEquals("paused with a deadline", 0, snapshot.deadlineMs);
+                break;
+            default:
+                assertEquals("idle with a deadline", 0, snapshot.deadlineMs);
+                assertEquals("idle with time left", 0, snapshot.remainingMs);
+                break;
+        }
+    }
+}
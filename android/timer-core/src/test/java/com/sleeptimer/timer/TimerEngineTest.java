@@ -0,0 +1,164 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/** Drives the engine through a night on virtual time. */
+public class TimerEngineTest {
+    private static final long MINUTE_MS = 60 * 1000;
+
+    // Deliberately not 0: deadlines are absolute elapsedRealtime values
+    private final ManualClock clock = new ManualClock(5_000_000);
+    private final TimerEngine engine = new TimerEngine(clock);
+
+    @Test
+    public void startCountsDownToTheDeadline() {
+        engine.start(30 * MINUTE_MS);
+        assertEquals(TimerEngine.State.RUNNING, engine.getState());
+        assertEquals(5_000_000 + 30 * MINUTE_MS, engine.getDeadlineMs());
+        assertEquals(30 * MINUTE_MS, engine.getRemainingMs());
+
+        clock.advance(10 * MINUTE_MS);
+        assertEquals(20 * MINUTE_MS, engine.getRemainingMs());
+        assertFalse(engine.isExpired());
+    }
+
+    @Test
+    public void pauseFreezesTheRemainingTime() {
+        engine.start(30 * MINUTE_MS);
+        clock.advance(10 * MINUTE_MS);
+        assertTrue(engine.pause());
+        assertEquals(TimerEngine.State.PAUSED, engine.getState());
+        assertEquals(0, engine.getDeadlineMs());
+
+        clock.advance(3 * 60 * MINUTE_MS);
+        assertEquals(20 * MINUTE_MS, engine.getRemainingMs());
+        assertFalse(engine.isExpired());
+    }
+
+    @Test
+    public void resumeSetsANewDeadlineFromThePausedRemainder() {
+        engine.start(30 * MINUTE_MS);
+        clock.advance(10 * MINUTE_MS);
+        engine.pause();
+        clock.advance(60 * MINUTE_MS);
+        assertTrue(engine.resume());
+
+        assertEquals(clock.elapsedRealtime() + 20 * MINUTE_MS, engine.getDeadlineMs());
+        clock.advance(20 * MINUTE_MS - 1);
+        assertFalse(engine.isExpired());
+        assertEquals(1, engine.getRemainingMs());
+        clock.advance(1);
+        assertTrue(engine.isExpired());
+        assertEquals(0, engine.getRemainingMs());
+    }
+
+    @Test
+    public void expiredTimerCompletesToIdle() {
+        engine.start(15 * MINUTE_MS);
+        clock.advance(16 * MINUTE_MS);
+        assertTrue(engine.isExpired());
+        assertEquals(0, engine.getRemainingMs());
+
+        assertTrue(engine.complete());
+        assertEquals(TimerEngine.State.IDLE, engine.getState());
+        assertEquals(0, engine.getDeadlineMs());
+        assertFalse(engine.isExpired());
+        assertFalse(engine.complete());
+    }
+
+    @Test
+    public void invalidTransitionsAreRejected() {
+        assertFalse(engine.pause());
+        assertFalse(engine.resume());
+        assertFalse(engine.updateDuration(MINUTE_MS));
+        assertFalse(engine.adjustRemaining(MINUTE_MS));
+        engine.start(MINUTE_MS);
+        assertFalse(engine.resume());
+        engine.pause();
+        assertFalse(engine.pause());
+        assertFalse(engine.updateDuration(MINUTE_MS));
+        assertEquals(TimerEngine.State.PAUSED, engine.getState());
+    }
+
+    @Test
+    public void updateDurationRestartsFromNow() {
+        engine.start(30 * MINUTE_MS);
+        clock.advance(25 * MINUTE_MS);
+        assertTrue(engine.updateDuration(45 * MINUTE_MS));
+        assertEquals(45 * MINUTE_MS, engine.getDurationMs());
+        assertEquals(clock.elapsedRealtime() + 45 * MINUTE_MS, engine.getDeadlineMs());
+    }
+
+    @Test
+    public void adjustRemainingKeepsTheDuration() {
+        engine.start(30 * MINUTE_MS);
+        clock.advance(25 * MINUTE_MS);
+        assertTrue(engine.adjustRemaining(10 * MINUTE_MS));
+        assertEquals(30 * MINUTE_MS, engine.getDurationMs());
+        assertEquals(10 * MINUTE_MS, engine.getRemainingMs());
+        assertTrue(engine.adjustRemaining(-5));
+        assertTrue(engine.isExpired());
+    }
+
+    @Test
+    public void everyTransitionBumpsTheGeneration() {
+        long generation = engine.getGeneration();
+        engine.start(30 * MINUTE_MS);
+        assertEquals(++generation, engine.getGeneration());
+        engine.pause();
+        assertEquals(++generation, engine.getGeneration());
+        engine.resume();
+        assertEquals(++generation, engine.getGeneration());
+        engine.updateDuration(20 * MINUTE_MS);
+        assertEquals(++generation, engine.getGeneration());
+        engine.adjustRemaining(MINUTE_MS);
+        assertEquals(++generation, engine.getGeneration());
+        engine.complete();
+        assertEquals(++generation, engine.getGeneration());
+        // Rejected transitions leave it alone
+        engine.pause();
+        assertEquals(generation, engine.getGeneration());
+    }
+
+    @Test
+    public void snapshotMatchesTheEngine() {
+        engine.start(30 * MINUTE_MS);
+        clock.advance(MINUTE_MS);
+        TimerSnapshot snapshot = engine.snapshot();
+        assertEquals(TimerEngine.State.RUNNING, snapshot.state);
+        assertEquals(engine.getDeadlineMs(), snapshot.deadlineMs);
+        assertEquals(29 * MINUTE_MS, snapshot.remainingMs);
+        assertEquals(engine.getGeneration(), snapshot.generation);
+
+        // Snapshots age on their own, without touching the engine
+        assertEquals(19 * MINUTE_MS, snapshot.remainingAt(clock.elapsedRealtime() + 10 * MINUTE_MS));
+        engine.pause();
+        assertEquals(29 * MINUTE_MS, engine.snapshot().remainingAt(clock.elapsedRealtime() + 60 * MINUTE_MS));
+    }
+
+    @Test
+    public void nightOfPressesEndsAtTheExpectedTime() {
+        long start = clock.elapsedRealtime();
+        engine.start(30 * MINUTE_MS);
+        // Pause for a bathroom break after 12 minutes, back 7 minutes later
+        clock.advance(12 * MINUTE_MS);
+        engine.pause();
+        clock.advance(7 * MINUTE_MS);
+        engine.resume();
+        // Restart with 45 minutes after another 5, then play through
+        clock.advance(5 * MINUTE_MS);
+        engine.updateDuration(45 * MINUTE_MS);
+
+        long expectedEnd = start + 12 * MINUTE_MS + 7 * MINUTE_MS + 5 * MINUTE_MS + 45 * MINUTE_MS;
+        while (!engine.isExpired()) {
+            clock.advance(1000);
+        }
+        assertEquals(expectedEnd, clock.elapsedRealtime());
+        engine.complete();
+        assertEquals(TimerEngine.State.IDLE, engine.getState());
+    }
+}
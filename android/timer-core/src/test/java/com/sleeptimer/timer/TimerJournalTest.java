@@ -0,0 +1,198 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Journals a timer, "kills" the process and restores into a fresh engine, as ForegroundService does. */
+public class TimerJournalTest {
+    private static final long MINUTE_MS = 60 * 1000;
+    private static final int BOOT = 7;
+    private static final long WALL_MS = 1_700_000_000_000L;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ManualClock clock = new ManualClock(10 * MINUTE_MS);
+    private final TimerEngine engine = new TimerEngine(clock);
+    private TimerJournal journal;
+
+    @Before
+    public void setUp() {
+        journal = new TimerJournal(new File(folder.getRoot(), "timer.journal"));
+    }
+
+    @Test
+    public void writeThenReadRoundTrips() throws IOException {
+        engine.start(30 * MINUTE_MS);
+        journal.write(engine.snapshot(), 1800, BOOT, WALL_MS);
+
+        TimerJournal.Record record = journal.read();
+        assertNotNull(record);
+        assertEquals(TimerEngine.State.RUNNING, record.state);
+        assertEquals(1800, record.configDurationSeconds);
+        assertEquals(BOOT, record.bootCount);
+        assertEquals(engine.getGeneration(), record.generation);
+        assertEquals(30 * MINUTE_MS, record.remainingMs);
+        assertEquals(clock.elapsedRealtime(), record.writtenElapsedMs);
+        assertFalse(new File(folder.getRoot(), "timer.journal.tmp").exists());
+    }
+
+    @Test
+    public void laterWriteReplacesTheRecord() throws IOException {
+        engine.start(30 * MINUTE_MS);
+        journal.write(engine.snapshot(), 1800, BOOT, WALL_MS);
+        clock.advance(MINUTE_MS);
+        engine.pause();
+        journal.write(engine.snapshot(), 1800, BOOT, WALL_MS + MINUTE_MS);
+
+        TimerJournal.Record record = journal.read();
+        assertEquals(TimerEngine.State.PAUSED, record.state);
+        assertEquals(29 * MINUTE_MS, record.remainingMs);
+    }
+
+    @Test
+    public void runningTimerSurvivesProcessDeath() throws IOException {
+        engine.start(30 * MINUTE_MS);
+        journal.write(engine.snapshot(), 1800, BOOT, WALL_MS);
+        long generation = engine.getGeneration();
+
+        // Killed, restarted by START_STICKY 5 minutes later; the wall clock was changed meanwhile
+        clock.advance(5 * MINUTE_MS);
+        TimerEngine restarted = new TimerEngine(clock);
+        TimerJournal.Restored restored = journal.read().restoreInto(restarted, BOOT,
+                clock.elapsedRealtime(), WALL_MS - 60 * MINUTE_MS);
+
+        assertEquals(TimerJournal.Restored.RUNNING, restored);
+        assertEquals(25 * MINUTE_MS, restarted.getRemainingMs());
+        assertEquals(clock.elapsedRealtime() + 25 * MINUTE_MS, restarted.getDeadlineMs());
+        assertTrue(restarted.getGeneration() > generation);
+    }
+
+    @Test
+    public void runningTimerExpiredDuringProcessDeathIsCompletedByTheCaller() throws IOException {
+        engine.start(30 * MINUTE_MS);
+        journal.write(engine.snapshot(), 1800, BOOT, WALL_MS);
+
+        clock.advance(45 * MINUTE_MS);
+        TimerEngine restarted = new TimerEngine(clock);
+        TimerJournal.Restored restored = journal.read().restoreInto(restarted, BOOT,
+                clock.elapsedRealtime(), WALL_MS + 45 * MINUTE_MS);
+
+        assertEquals(TimerJournal.Restored.EXPIRED, restored);
+        assertTrue(restarted.isRunning());
+        assertTrue(restarted.isExpired());
+    }
+
+    @Test
+    public void runningTimerSurvivesRebootByWallClock() throws IOException {
+        engine.start(30 * MINUTE_MS);
+        journal.write(engine.snapshot(), 1800, BOOT, WALL_MS);
+
+        // Rebooted: the elapsed clock starts over, 10 minutes of wall time went by
+        ManualClock bootClock = new ManualClock(20 * 1000);
+        TimerEngine restarted = new TimerEngine(bootClock);
+        TimerJournal.Restored restored = journal.read().restoreInto(restarted, BOOT + 1,
+                bootClock.elapsedRealtime(), WALL_MS + 10 * MINUTE_MS);
+
+        assertEquals(TimerJournal.Restored.RUNNING, restored);
+        assertEquals(20 * MINUTE_MS, restarted.getRemainingMs());
+    }
+
+    @Test
+    public void runningTimerExpiredBeforeRebootIsDroppedWithoutCompleting() throws IOException {
+        engine.start(30 * MINUTE_MS);
+        journal.write(engine.snapshot(), 1800, BOOT, WALL_MS);
+        long generation = engine.getGeneration();
+
+        ManualClock bootClock = new ManualClock(20 * 1000);
+        TimerEngine restarted = new TimerEngine(bootClock);
+        TimerJournal.Restored restored = journal.read().restoreInto(restarted, BOOT + 1,
+                bootClock.elapsedRealtime(), WALL_MS + 8 * 60 * MINUTE_MS);
+
+        assertEquals(TimerJournal.Restored.DROPPED, restored);
+        assertEquals(TimerEngine.State.IDLE, restarted.getState());
+        assertEquals(generation + 1, restarted.getGeneration());
+    }
+
+    @Test
+    public void rebootWithoutBootCountIsDetectedByTheElapsedClock() throws IOException {
+        clock.set(5 * 60 * MINUTE_MS);
+        engine.start(30 * MINUTE_MS);
+        // Settings.Global.BOOT_COUNT missing on this device: both boots read 0
+        journal.write(engine.snapshot(), 1800, 0, WALL_MS);
+
+        ManualClock bootClock = new ManualClock(20 * 1000);
+        TimerJournal.Restored restored = journal.read().restoreInto(new TimerEngine(bootClock), 0,
+                bootClock.elapsedRealtime(), WALL_MS + 60 * MINUTE_MS);
+
+        assertEquals(TimerJournal.Restored.DROPPED, restored);
+    }
+
+    @Test
+    public void pausedTimerKeepsItsRemainderAcrossReboot() throws IOException {
+        engine.start(30 * MINUTE_MS);
+        clock.advance(12 * MINUTE_MS);
+        engine.pause();
+        journal.write(engine.snapshot(), 1800, BOOT, WALL_MS);
+
+        ManualClock bootClock = new ManualClock(20 * 1000);
+        TimerEngine restarted = new TimerEngine(bootClock);
+        TimerJournal.Restored restored = journal.read().restoreInto(restarted, BOOT + 1,
+                bootClock.elapsedRealtime(), WALL_MS + 8 * 60 * MINUTE_MS);
+
+        assertEquals(TimerJournal.Restored.PAUSED, restored);
+        assertEquals(18 * MINUTE_MS, restarted.getRemainingMs());
+        assertEquals(0, restarted.getDeadlineMs());
+    }
+
+    @Test
+    public void idleRecordCarriesTheGenerationOver() throws IOException {
+        engine.start(30 * MINUTE_MS);
+        engine.complete();
+        journal.write(engine.snapshot(), 1800, BOOT, WALL_MS);
+        long generation = engine.getGeneration();
+
+        TimerEngine restarted = new TimerEngine(clock);
+        TimerJournal.Restored restored = journal.read().restoreInto(restarted, BOOT,
+                clock.elapsedRealtime(), WALL_MS);
+
+        assertEquals(TimerJournal.Restored.IDLE, restored);
+        assertEquals(TimerEngine.State.IDLE, restarted.getState());
+        assertTrue(restarted.getGeneration() > generation);
+    }
+
+    @Test
+    public void engineAlreadyAheadOfTheJournalIsLeftAlone() throws IOException {
+        engine.start(30 * MINUTE_MS);
+        journal.write(engine.snapshot(), 1800, BOOT, WALL_MS);
+        engine.complete();
+
+        // Service recreated in the same process: the static engine already went further
+        TimerJournal.Restored restored = journal.read().restoreInto(engine, BOOT,
+                clock.elapsedRealtime(), WALL_MS);
+        assertEquals(TimerJournal.Restored.SKIPPED, restored);
+        assertEquals(TimerEngine.State.IDLE, engine.getState());
+    }
+
+    @Test
+    public void corruptJournalReadsAsNull() throws IOException {
+        engine.start(30 * MINUTE_MS);
+        journal.write(engine.snapshot(), 1800, BOOT, WALL_MS);
+        try (RandomAccessFile file = new RandomAccessFile(new File(folder.getRoot(), "timer.journal"), "rw")) {
+            file.seek(40);
+            file.write(0xff);
+        }
+        assertNull(journal.read());
+    }
+}
@@ -0,0 +1,407 @@
+package com.sleeptimer.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.function.LongToIntFunction;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Runs whole simulated nights on virtual time and checks the wakeups they schedule against the
+ * checked-in wakeup-budget.properties, so a change that adds per-tick or per-second work fails here
+ * instead of on a device.
+ *
+ * The timer itself is the real TimerEngine, TickPolicy, NotificationPostFilter and
+ * SleepDeadlinePolicy. What the Android side does around them (MediaButtonReceiver, TickScheduler,
+ * PauseDelivery, the IO and media command threads) is modelled in {@link Night}, one method per
+ * call site, counting what WakeupCounters counts there. Keep the model in step with those call
+ * sites when they change; WakeupBudgetServiceTest in the app module runs the same kind of night
+ * through the real service and receiver under Robolectric.
+ */
+public class WakeupBudgetNightTest {
+    private static final long SECOND_MS = 1000;
+    private static final long MINUTE_MS = 60 * SECOND_MS;
+    private static final long HOUR_MS = 60 * MINUTE_MS;
+
+    private static Properties budget;
+
+    @BeforeClass
+    public static void loadBudget() throws IOException {
+        String path = System.getProperty("wakeupBudget", "../wakeup-budget.properties");
+        budget = new Properties();
+        try (Reader in = new FileReader(path)) {
+            budget.load(in);
+        }
+    }
+
+    @Test
+    public void idleNightFitsTheBudget() {
+        Night night = new Night(remaining -> ActivityScorer.UNKNOWN);
+        night.startService();
+        night.runFor(8 * HOUR_MS);
+
+        assertWithinBudget(night);
+        assertEquals(0, night.armedMs);
+    }
+
+    @Test
+    public void eightHourTimerWithSleepDetectionFitsTheBudget() {
+        // Restless all night, then awake near the end often enough to use every extension
+        Night night = new Night(remaining -> remaining <= 3 * MINUTE_MS ? ActivityScorer.ACTIVE : ActivityScorer.UNKNOWN);
+        night.sleepDetection = true;
+        night.startService();
+        night.setInteractive(true);
+        // Sensor batches land 2 minutes before each deadline, close enough to extend it
+        night.pressPlay(8 * HOUR_MS - 3 * MINUTE_MS);
+        night.runFor(2 * MINUTE_MS);
+        night.setInteractive(false);
+        night.runFor(10 * HOUR_MS);
+
+        assertWithinBudget(night);
+        assertEquals(TimerEngine.State.IDLE, night.engine.getState());
+        assertEquals(3, night.policy.getExtensions());
+        assertTrue(night.armedMs > 8 * HOUR_MS);
+    }
+
+    @Test
+    public void timerCutShortByFallingAsleepFitsTheBudget() {
+        Night night = new Night(remaining -> ActivityScorer.STILL);
+        night.sleepDetection = true;
+        night.startService();
+        night.pressPlay(60 * MINUTE_MS);
+        night.runFor(8 * HOUR_MS);
+
+        assertWithinBudget(night);
+        // First batch after 5 minutes brings the deadline to 5 minutes from then
+        assertEquals(10 * MINUTE_MS, night.armedMs);
+    }
+
+    @Test
+    public void pausedAndResumedPlayerFitsTheBudget() {
+        Night night = new Night(remaining -> ActivityScorer.UNKNOWN);
+        night.startService();
+        night.pressPlay(45 * MINUTE_MS);
+        night.runFor(20 * MINUTE_MS);
+        night.pressPause();
+        night.runFor(10 * MINUTE_MS);
+        night.pressPlay(45 * MINUTE_MS);
+        night.runFor(8 * HOUR_MS);
+
+        assertWithinBudget(night);
+        // A pause press pauses the player only; the timer runs on to its first deadline
+        assertEquals(45 * MINUTE_MS, night.armedMs);
+    }
+
+    private static void assertWithinBudget(Night night) {
+        StringBuilder over = new StringBuilder();
+        for (WakeupBudget.Line line : WakeupBudget.check(budget, night.measured())) {
+            if (line.exceeded()) {
+                over.append('\n').append(line.key).append(": ").append(line.scaled)
+                    .append(" per ").append((int) WakeupBudget.BUDGET_HOURS).append("h, budget ").append(line.budget);
+            }
+        }
+        if (over.length() > 0) {
+            fail("Simulated night exceeds wakeup-budget.properties:" + over);
+        }
+    }
+
+    /** Virtual-time model of the timer service for one night. */
+    private static final class Night {
+        // Same order and names as WakeupCounters
+        static final String[] COUNTERS = {
+            "mainLooperPosts", "notifications", "broadcasts", "alarms", "mediaCommands", "sensorBatches", "ioTasks",
+        };
+        static final int MAIN_LOOPER_POSTS = 0;
+        static final int NOTIFICATIONS = 1;
+        static final int ALARMS = 3;
+        static final int MEDIA_COMMANDS = 4;
+        static final int SENSOR_BATCHES = 5;
+        static final int IO_TASKS = 6;
+
+        static final long WALL_OFFSET_MS = 1_700_000_000_000L;
+        static final long SENSOR_BATCH_MS = 5 * MINUTE_MS;      // SleepMonitor.MAX_REPORT_LATENCY_US
+        static final long JS_SYNC_INTERVAL_MS = MINUTE_MS;      // ForegroundService.JS_SYNC_INTERVAL_MS
+        static final long HISTORY_FLUSH_DELAY_MS = MINUTE_MS;   // SessionHistoryStore.FLUSH_DELAY_MS
+        static final long PAUSE_CHECK_MS = 300;                 // PauseDelivery.BACKOFF_MS[0]
+
+        final ManualClock clock = new ManualClock();
+        final TimerEngine engine = new TimerEngine(clock);
+        final SleepDeadlinePolicy policy = SleepDeadlinePolicy.withDefaults();
+        final NotificationPostFilter filter = new NotificationPostFilter();
+        final LongToIntFunction activityForRemaining;
+        final PriorityQueue<Task> queue = new PriorityQueue<>();
+        final long[][] counts = new long[2][COUNTERS.length]; // [armed ? 1 : 0][counter]
+
+        boolean sleepDetection;
+        boolean interactive;
+        boolean armed;
+        long armedMs;
+        long idleMs;
+        long stateSinceMs;
+        long sequence;
+        boolean historyFlushScheduled;
+        Task completion;
+        Task tick;
+        Task sensorBatch;
+
+        Night(LongToIntFunction activityForRemaining) {
+            this.activityForRemaining = activityForRemaining;
+        }
+
+        // Application.onCreate loads the settings on the IO thread; then ForegroundService.onCreate:
+        // startForeground, player lookup on the IO thread, keep-alive start
+        void startService() {
+            io();
+            filter.shownText("Ready to handle media button presses");
+            count(NOTIFICATIONS);
+            io();
+            count(MEDIA_COMMANDS);
+        }
+
+        // MediaButtonReceiver.handlePlayButton with the player's session connected (AudibleController.play)
+        void pressPlay(long durationMs) {
+            if (engine.isRunning()) {
+                // startAudible only
+                count(MEDIA_COMMANDS);
+                return;
+            }
+            if (engine.isPaused()) {
+                engine.resume();
+                count(MEDIA_COMMANDS);
+                publish();
+                startTimer();
+                history();
+                notification();
+                return;
+            }
+            engine.start(durationMs);
+            policy.reset();
+            history();
+            count(MEDIA_COMMANDS);
+            publish();
+            startTimer();
+            notification();
+        }
+
+        // MediaButtonReceiver.handlePauseButton: pauseAudibleOnly while running, the timer is untouched
+        void pressPause() {
+            if (engine.isRunning()) {
+                pausePlayer();
+            }
+        }
+
+        void setInteractive(boolean nowInteractive) {
+            interactive = nowInteractive;
+            if (interactive && engine.isRunning()) {
+                onTick();
+            } else {
+                rescheduleTick();
+            }
+        }
+
+        // MediaButtonReceiver.startTimer: alarm plus the in-process handler; SleepMonitor while armed
+        private void startTimer() {
+            setArmed(true);
+            count(ALARMS);
+            cancel(completion);
+            completion = postMain(engine.getRemainingMs(), this::complete);
+            if (sleepDetection && sensorBatch == null) {
+                sensorBatch = schedule(SENSOR_BATCH_MS, this::onSensorBatch);
+            }
+        }
+
+        private void cancelCompletion() {
+            cancel(completion);
+            completion = null;
+            cancel(sensorBatch);
+            sensorBatch = null;
+            setArmed(false);
+        }
+
+        // MediaButtonReceiver.completeTimer
+        private void complete() {
+            cancelCompletion();
+            pausePlayer();
+            engine.complete();
+            history();
+            publish();
+            if (filter.postText("Timer completed")) {
+                count(NOTIFICATIONS);
+            }
+            io(); // WakeupCounters.writeAsync
+        }
+
+        // PauseDelivery.request: the request, the transport pause, one check; then the session comes back
+        private void pausePlayer() {
+            count(MEDIA_COMMANDS);
+            count(MEDIA_COMMANDS);
+            schedule(PAUSE_CHECK_MS, () -> {
+                count(MEDIA_COMMANDS);
+                postMain(0, () -> { });
+            });
+        }
+
+        // SleepMonitor batch, handed to the main looper by TimerActor; applySleepActivity
+        private void onSensorBatch() {
+            count(SENSOR_BATCHES);
+            sensorBatch = schedule(SENSOR_BATCH_MS, this::onSensorBatch);
+            postMain(0, () -> {
+                if (!engine.isRunning()) {
+                    return;
+                }
+                long remaining = engine.getRemainingMs();
+                int state = activityForRemaining.applyAsInt(remaining);
+                long adjusted = policy.adjust(state, remaining);
+                if (adjusted == SleepDeadlinePolicy.NO_CHANGE) {
+                    return;
+                }
+                engine.adjustRemaining(adjusted);
+                if (adjusted > remaining) {
+                    history();
+                }
+                startTimer();
+                notification();
+                publish();
+            });
+        }
+
+        // MediaButtonReceiver.publishTimerState: journal write, TickScheduler
+        private void publish() {
+            io();
+            rescheduleTick();
+        }
+
+        // TickScheduler with the JS sync consumer registered by ForegroundService
+        private void rescheduleTick() {
+            cancel(tick);
+            tick = null;
+            if (!engine.isRunning()) {
+                return;
+            }
+            long wallMs = wallMs();
+            long next = TickPolicy.nextTickWallMs(wallMs, engine.getRemainingMs(), interactive, JS_SYNC_INTERVAL_MS);
+            if (next != TickPolicy.NO_TICK) {
+                tick = postMain(Math.max(0, next - wallMs), this::onTick);
+            }
+        }
+
+        private void onTick() {
+            rescheduleTick();
+        }
+
+        // NotificationRenderer through its post filter
+        private void notification() {
+            boolean posted = engine.isRunning()
+                    ? filter.postCountdown("Timer Running", wallMs() + engine.getRemainingMs())
+                    : filter.postText("Timer Paused - " + TimeFormat.formatRemaining(engine.getRemainingMs()) + " remaining");
+            if (posted) {
+                count(NOTIFICATIONS);
+            }
+        }
+
+        // SessionHistoryStore.record: append now, one delayed flush per batch
+        private void history() {
+            io();
+            if (!historyFlushScheduled) {
+                historyFlushScheduled = true;
+                schedule(HISTORY_FLUSH_DELAY_MS, () -> {
+                    historyFlushScheduled = false;
+                    io();
+                });
+            }
+        }
+
+        private void io() {
+            count(IO_TASKS);
+        }
+
+        void runFor(long durationMs) {
+            long end = clock.elapsedRealtime() + durationMs;
+            while (!queue.isEmpty() && queue.peek().atMs <= end) {
+                Task task = queue.poll();
+                if (!task.cancelled) {
+                    clock.set(task.atMs);
+                    task.action.run();
+                }
+            }
+            clock.set(end);
+        }
+
+        Properties measured() {
+            setArmed(armed); // close the current period
+            Properties measured = new Properties();
+            String[] scenarios = {"idle", "armed"};
+            long[] periods = {idleMs, armedMs};
+            for (int s = 0; s < scenarios.length; s++) {
+                measured.setProperty(scenarios[s] + ".hours", Double.toString(periods[s] / (double) HOUR_MS));
+                for (int c = 0; c < COUNTERS.length; c++) {
+                    measured.setProperty(scenarios[s] + "." + COUNTERS[c], Long.toString(counts[s][c]));
+                }
+            }
+            return measured;
+        }
+
+        private void count(int counter) {
+            counts[armed ? 1 : 0][counter]++;
+        }
+
+        private void setArmed(boolean nowArmed) {
+            long now = clock.elapsedRealtime();
+            if (armed) {
+                armedMs += now - stateSinceMs;
+            } else {
+                idleMs += now - stateSinceMs;
+            }
+            stateSinceMs = now;
+            armed = nowArmed;
+        }
+
+        private long wallMs() {
+            return WALL_OFFSET_MS + clock.elapsedRealtime();
+        }
+
+        private Task postMain(long delayMs, Runnable action) {
+            count(MAIN_LOOPER_POSTS);
+            return schedule(delayMs, action);
+        }
+
+        // Work that does not go through our main looper: sensor batches, other threads' delayed work
+        private Task schedule(long delayMs, Runnable action) {
+            Task task = new Task(clock.elapsedRealtime() + delayMs, sequence++, action);
+            queue.add(task);
+            return task;
+        }
+
+        private static void cancel(Task task) {
+            if (task != null) {
+                task.cancelled = true;
+            }
+        }
+    }
+
+    private static final class Task implements Comparable<Task> {
+        final long atMs;
+        final long sequence;
+        final Runnable action;
+        boolean cancelled;
+
+        Task(long atMs, long sequence, Runnable action) {
+            this.atMs = atMs;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byTime = Long.compare(atMs, other.atMs);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
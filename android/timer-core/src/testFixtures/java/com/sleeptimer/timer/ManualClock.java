@@ -0,0 +1,30 @@
+package com.sleeptimer.timer;
+
+/**
+ * Clock that only moves when told to, so a whole night of timer transitions can be simulated in
+ * milliseconds.
+ */
+public class ManualClock implements Clock {
+    private long now;
+
+    public ManualClock() {
+        this(0);
+    }
+
+    public ManualClock(long startMs) {
+        now = startMs;
+    }
+
+    @Override
+    public long elapsedRealtime() {
+        return now;
+    }
+
+    public void advance(long ms) {
+        now += ms;
+    }
+
+    public void set(long ms) {
+        now = ms;
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Compares reading the timer state through the legacy bridge module (async promise plus map
+ * serialization) with the synchronous TimerState TurboModule over JSI.
+ *
+ * Needs a device or emulator with the app running; call benchmarkTimerStateAccess() from the
+ * debugger console or temporarily from a dev-only effect. Results are logged and returned.
+ */
+
+import { NativeModules } from 'react-native';
+import NativeTimerState from '../specs/NativeTimerState';
+
+type LatencyStats = { calls: number; meanUs: number; p50Us: number; p99Us: number };
+
+function summarize(samples: number[]): LatencyStats {
+  const sorted = [...samples].sort((a, b) => a - b);
+  const total = sorted.reduce((sum, value) => sum + value, 0);
+  const at = (fraction: number) => sorted[Math.min(sorted.length - 1, Math.floor(sorted.length * fraction))];
+  return {
+    calls: sorted.length,
+    meanUs: (total / sorted.length) * 1000,
+    p50Us: at(0.5) * 1000,
+    p99Us: at(0.99) * 1000,
+  };
+}
+
+export async function benchmarkTimerStateAccess(iterations = 1000) {
+  const results: Record<string, LatencyStats> = {};
+
+  if (NativeModules.MediaButtonEvent) {
+    const samples: number[] = [];
+    for (let i = 0; i < iterations; i++) {
+      const start = performance.now();
+      await NativeModules.MediaButtonEvent.getRemainingTime();
+      samples.push(performance.now() - start);
+    }
+    results.bridgeGetRemainingTime = summarize(samples);
+  }
+
+  if (NativeTimerState) {
+    const primitive: number[] = [];
+    const snapshot: number[] = [];
+    for (let i = 0; i < iterations; i++) {
+      let start = performance.now();
+      NativeTimerState.getRemainingMs();
+      primitive.push(performance.now() - start);
+
+      start = performance.now();
+      NativeTimerState.getSnapshot();
+      snapshot.push(performance.now() - start);
+    }
+    results.jsiGetRemainingMs = summarize(primitive);
+    results.jsiGetSnapshot = summarize(snapshot);
+  }
+
+  console.log('Timer state access latency:', JSON.stringify(results, null, 2));
+  return results;
+}
@@ -0,0 +1,40 @@
+/**
+ * TurboModule spec for synchronous access to the native sleep timer.
+ *
+ * Getters are synchronous JSI calls answered from the timer's published snapshot, so reading the
+ * state costs no bridge round trip and no promise. The primitive getters allocate nothing on the
+ * native side; getSnapshot builds one small object. Commands are fire-and-forget; their effect
+ * arrives as the usual TimerStateChanged event from the MediaButtonEvent module.
+ *
+ * The legacy MediaButtonEvent/TimerConfig bridge modules stay available as the fallback.
+ */
+
+import type { TurboModule } from 'react-native';
+import { TurboModuleRegistry } from 'react-native';
+
+export type TimerStateSnapshot = {
+  state: string; // 'idle' | 'running' | 'paused'
+  remainingMs: number;
+  durationMs: number;
+  generation: number;
+};
+
+export interface Spec extends TurboModule {
+  // 0 idle, 1 running, 2 paused
+  getStateCode(): number;
+  getRemainingMs(): number;
+  getDurationMs(): number;
+  getGeneration(): number;
+  getSnapshot(): TimerStateSnapshot;
+  getTimerDurationMinutes(): number;
+  // The configured presets, in display order; the notification shows the first two
+  getPresetMinutes(): Array<number>;
+
+  setTimerDuration(minutes: number): void;
+  setPresetMinutes(minutes: Array<number>): void;
+  startAudible(): void;
+  previousChapter(): void;
+}
+
+// Null when the new architecture is off (or under Jest); callers fall back to the legacy modules
+export default TurboModuleRegistry.get<Spec>('TimerState');